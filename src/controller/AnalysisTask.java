@@ -0,0 +1,48 @@
+package controller;
+
+import javafx.concurrent.Task;
+import model.CompactGraph;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+
+// Analysis of a graph snapshot run on a worker thread. Handlers set on the task are called
+// on the FX thread, the result belongs to the graph version the snapshot was taken of
+public class AnalysisTask<T> extends Task<T> {
+    // Not bounded on purpose. Tasks are started by user actions, and the status bar runs one at a time.
+    // The heavy parts fan out to the common fork-join pool, which is bounded by the cores. Some tasks wait
+    // on the FX thread for most of their life, like a streamed search waiting for its dialog to take
+    // the next page: with a bounded pool, analyses started later would queue behind them
+    private static final ExecutorService WORKERS = Executors.newCachedThreadPool(runnable -> {
+        Thread worker = new Thread(runnable, "Graph analysis");
+        worker.setDaemon(true);
+
+        return worker;
+    });
+
+    private CompactGraph snapshot;
+    private Function<CompactGraph, T> analysis;
+
+
+    public AnalysisTask(CompactGraph snapshot, Function<CompactGraph, T> analysis) {
+        this.snapshot = snapshot;
+        this.analysis = analysis;
+    }
+
+    public long getVersion() {
+        return snapshot.getVersion();
+    }
+
+    public AnalysisTask<T> start() {
+        WORKERS.execute(this);
+
+        return this;
+    }
+
+    @Override
+    protected T call() {
+        return analysis.apply(snapshot);
+    }
+}
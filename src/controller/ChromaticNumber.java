@@ -0,0 +1,38 @@
+package controller;
+
+
+// Best coloring an exact search has found and a proven lower bound for the count of colors. The two meet
+// when the search has finished in time, otherwise the chromatic number lies between them
+public class ChromaticNumber {
+    private Coloring coloring;
+    private int lowerBound;
+    private boolean isSearched;
+
+
+    ChromaticNumber(Coloring coloring, int lowerBound, boolean isSearched) {
+        this.coloring = coloring;
+        this.lowerBound = lowerBound;
+        this.isSearched = isSearched;
+    }
+
+    public Coloring getColoring() {
+        return coloring;
+    }
+
+    public int getLowerBound() {
+        return lowerBound;
+    }
+
+    public int getUpperBound() {
+        return coloring.getColorsCount();
+    }
+
+    // False for a graph too large for the exact search, the bounds are the DSatur coloring and a greedy clique
+    public boolean isSearched() {
+        return isSearched;
+    }
+
+    public boolean isExact() {
+        return lowerBound == coloring.getColorsCount();
+    }
+}
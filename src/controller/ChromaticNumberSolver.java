@@ -0,0 +1,446 @@
+package controller;
+
+import model.CompactGraph;
+import model.Graph;
+import model.NeighborCursor;
+import model.UndirectedView;
+
+import java.util.*;
+
+
+// Exact coloring of the graph with directions and loops ignored: DSatur branch and bound. The DSatur
+// coloring is the first upper bound and a greedy clique the lower one, the clique is colored in advance.
+// Neighborhoods are bit rows, the search keeps an explicit stack and stops when the time budget runs out.
+// A graph of more nodes than the bit rows are kept for isn't searched, the bounds are all it gets
+public class ChromaticNumberSolver {
+    private static final int NO_COLOR = -1;
+    private static final int NONE = -1;
+    // The bit rows take V * V bits, 2 MB at the limit
+    private static final int EXACT_SEARCH_NODES_LIMIT = 4096;
+    private static final int MAX_CLIQUE_STARTS = 64;
+    private static final int STEPS_PER_TIME_CHECK = 4096;
+
+    private CompactGraph compactGraph;
+    private int nodesCount;
+    private int words;
+
+    // Bit rows up to the nodes limit, sorted neighbor rows above it: neighbors of node v take positions
+    // neighborOffsets[v] .. neighborOffsets[v + 1] - 1
+    private long[][] adjacency;
+    private int[] neighborOffsets;
+    private int[] neighbors;
+    private int[] degrees;
+
+    // State of the search: colors are counted among the neighbors of every node, colors of node v take
+    // positions v * colorsBound .. (v + 1) * colorsBound - 1
+    private int[] colors;
+    private int[] neighborColorCounts;
+    private int[] saturations;
+    private long[] uncolored;
+    private int colorsBound;
+
+    private int[] bestColors;
+    private int bestColorsCount;
+    private long deadline;
+
+
+    public ChromaticNumberSolver(Graph graph) {
+        this(graph.getCompactGraph());
+    }
+
+    public ChromaticNumberSolver(CompactGraph compactGraph) {
+        this.compactGraph = compactGraph;
+
+        nodesCount = compactGraph.nodesCount();
+        words = (nodesCount + Long.SIZE - 1) / Long.SIZE;
+
+        if (isSearchable()) {
+            buildAdjacency();
+        } else {
+            buildNeighbors();
+        }
+    }
+
+    public boolean isSearchable() {
+        return nodesCount <= EXACT_SEARCH_NODES_LIMIT;
+    }
+
+    public ChromaticNumber solve(long timeBudgetMillis) {
+        deadline = System.nanoTime() + timeBudgetMillis * 1_000_000;
+
+        Coloring initial = new Colorer(compactGraph).colorize(Colorer.Strategy.DSATUR);
+
+        bestColors = new int[nodesCount];
+        bestColorsCount = initial.getColorsCount();
+
+        for (int node = 0; node < nodesCount; node++) {
+            bestColors[node] = initial.colorAt(node);
+        }
+
+        if (!isSearchable()) {
+            return new ChromaticNumber(initial, sparseGreedyClique().length, false);
+        }
+
+        int[] clique = greedyClique();
+        int lowerBound = clique.length;
+
+        if (lowerBound < bestColorsCount && search(clique)) {
+            lowerBound = bestColorsCount;
+        }
+
+        return new ChromaticNumber(new Coloring(compactGraph, bestColors), lowerBound, true);
+    }
+
+    /*
+     *      Lower bound
+     */
+
+    // A clique is grown from each of a few nodes of the largest degree, the candidate keeping
+    // the most candidates is added next
+    private int[] greedyClique() {
+        int[] bestClique = new int[0];
+        Integer[] starts = new Integer[nodesCount];
+
+        for (int node = 0; node < nodesCount; node++) {
+            starts[node] = node;
+        }
+
+        Arrays.sort(starts, (first, second) -> Integer.compare(degrees[second], degrees[first]));
+
+        long[] candidates = new long[words];
+        int[] clique = new int[nodesCount];
+
+        for (int startIter = 0; startIter < Math.min(nodesCount, MAX_CLIQUE_STARTS); startIter++) {
+            // One clique at least is grown whatever the time, the lower bound is never below it
+            if (degrees[starts[startIter]] < bestClique.length || (startIter > 0 && System.nanoTime() > deadline)) {
+                break;
+            }
+
+            int cliqueSize = 0;
+            int node = starts[startIter];
+            System.arraycopy(adjacency[node], 0, candidates, 0, words);
+            clique[cliqueSize++] = node;
+
+            while (!isEmpty(candidates)) {
+                int next = NONE;
+                int nextCandidatesCount = -1;
+
+                for (int candidate = nextBit(candidates, 0); candidate != NONE; candidate = nextBit(candidates, candidate + 1)) {
+                    int candidatesCount = intersectionSize(candidates, adjacency[candidate]);
+
+                    if (candidatesCount > nextCandidatesCount) {
+                        next = candidate;
+                        nextCandidatesCount = candidatesCount;
+                    }
+                }
+
+                clique[cliqueSize++] = next;
+
+                for (int word = 0; word < words; word++) {
+                    candidates[word] &= adjacency[next][word];
+                }
+            }
+
+            if (cliqueSize > bestClique.length) {
+                bestClique = Arrays.copyOf(clique, cliqueSize);
+            }
+        }
+
+        return bestClique;
+    }
+
+    // Over the neighbor rows the candidate of the largest degree is added next, so a step costs a single
+    // merge of two rows
+    private int[] sparseGreedyClique() {
+        int[] bestClique = new int[0];
+        Integer[] starts = new Integer[nodesCount];
+
+        for (int node = 0; node < nodesCount; node++) {
+            starts[node] = node;
+        }
+
+        Arrays.sort(starts, (first, second) -> Integer.compare(degrees[second], degrees[first]));
+
+        for (int startIter = 0; startIter < Math.min(nodesCount, MAX_CLIQUE_STARTS); startIter++) {
+            if (degrees[starts[startIter]] < bestClique.length || (startIter > 0 && System.nanoTime() > deadline)) {
+                break;
+            }
+
+            int node = starts[startIter];
+            int[] clique = new int[degrees[node] + 1];
+            int cliqueSize = 0;
+            int[] candidates = Arrays.copyOfRange(neighbors, neighborOffsets[node], neighborOffsets[node + 1]);
+            int candidatesCount = candidates.length;
+
+            clique[cliqueSize++] = node;
+
+            while (candidatesCount > 0) {
+                int next = candidates[0];
+
+                for (int candidateIter = 1; candidateIter < candidatesCount; candidateIter++) {
+                    if (degrees[candidates[candidateIter]] > degrees[next]) {
+                        next = candidates[candidateIter];
+                    }
+                }
+
+                clique[cliqueSize++] = next;
+                candidatesCount = intersect(candidates, candidatesCount, next);
+            }
+
+            if (cliqueSize > bestClique.length) {
+                bestClique = Arrays.copyOf(clique, cliqueSize);
+            }
+        }
+
+        return bestClique;
+    }
+
+    // The candidates adjacent to the node are kept at the front in order, their count is returned
+    private int intersect(int[] candidates, int candidatesCount, int node) {
+        int keptCount = 0;
+        int position = neighborOffsets[node];
+
+        for (int candidateIter = 0; candidateIter < candidatesCount; candidateIter++) {
+            while (position < neighborOffsets[node + 1] && neighbors[position] < candidates[candidateIter]) {
+                position++;
+            }
+
+            if (position < neighborOffsets[node + 1] && neighbors[position] == candidates[candidateIter]) {
+                candidates[keptCount++] = candidates[candidateIter];
+            }
+        }
+
+        return keptCount;
+    }
+
+    /*
+     *      Search
+     */
+
+    // Every frame of the stack holds a node, the color it has now and the count of colors used before it.
+    // A node takes a color of its neighbors' ones or the next new one, and only colorings better
+    // than the best found are followed. False if the time has run out before the search ended
+    private boolean search(int[] clique) {
+        colorsBound = bestColorsCount;
+        colors = new int[nodesCount];
+        neighborColorCounts = new int[nodesCount * colorsBound];
+        saturations = new int[nodesCount];
+        uncolored = new long[words];
+
+        Arrays.fill(colors, NO_COLOR);
+        for (int node = 0; node < nodesCount; node++) {
+            uncolored[node / Long.SIZE] |= 1L << node;
+        }
+
+        for (int color = 0; color < clique.length; color++) {
+            applyColor(clique[color], color);
+        }
+
+        int[] frameNodes = new int[nodesCount];
+        int[] frameColors = new int[nodesCount];
+        int[] frameUsedColors = new int[nodesCount];
+        int depth = 0;
+        int coloredCount = clique.length;
+        int usedColors = clique.length;
+        boolean isDescending = true;
+        long steps = 0;
+
+        while (true) {
+            if (++steps % STEPS_PER_TIME_CHECK == 0 && System.nanoTime() > deadline) {
+                return false;
+            }
+
+            if (isDescending && usedColors < bestColorsCount) {
+                if (coloredCount == nodesCount) {
+                    bestColorsCount = usedColors;
+                    bestColors = Arrays.copyOf(colors, nodesCount);
+
+                    if (bestColorsCount == clique.length) {
+                        return true;
+                    }
+                } else {
+                    frameNodes[depth] = mostSaturatedNode();
+                    frameColors[depth] = NO_COLOR;
+                    frameUsedColors[depth] = usedColors;
+                    depth++;
+                }
+            }
+
+            if (depth == 0) {
+                return true;
+            }
+
+            int frame = depth - 1;
+            int node = frameNodes[frame];
+
+            if (frameColors[frame] != NO_COLOR) {
+                undoColor(node, frameColors[frame]);
+                coloredCount--;
+            }
+
+            usedColors = frameUsedColors[frame];
+
+            // A new color is the last one tried
+            int maxColor = Math.min(usedColors, bestColorsCount - 2);
+            int color = frameColors[frame] + 1;
+
+            while (color <= maxColor && neighborColorCounts[node * colorsBound + color] != 0) {
+                color++;
+            }
+
+            if (color > maxColor) {
+                depth--;
+                isDescending = false;
+                continue;
+            }
+
+            frameColors[frame] = color;
+            applyColor(node, color);
+            coloredCount++;
+            usedColors = Math.max(usedColors, color + 1);
+            isDescending = true;
+        }
+    }
+
+    // The most distinct colors among neighbors, the largest degree of those
+    private int mostSaturatedNode() {
+        int mostSaturated = NONE;
+
+        for (int node = nextBit(uncolored, 0); node != NONE; node = nextBit(uncolored, node + 1)) {
+            if (mostSaturated == NONE
+                    || saturations[node] > saturations[mostSaturated]
+                    || (saturations[node] == saturations[mostSaturated] && degrees[node] > degrees[mostSaturated])) {
+                mostSaturated = node;
+            }
+        }
+
+        return mostSaturated;
+    }
+
+    private void applyColor(int node, int color) {
+        colors[node] = color;
+        uncolored[node / Long.SIZE] &= ~(1L << node);
+
+        for (int word = 0; word < words; word++) {
+            long remaining = adjacency[node][word] & uncolored[word];
+
+            while (remaining != 0) {
+                int adjacent = word * Long.SIZE + Long.numberOfTrailingZeros(remaining);
+
+                if (neighborColorCounts[adjacent * colorsBound + color]++ == 0) {
+                    saturations[adjacent]++;
+                }
+
+                remaining &= remaining - 1;
+            }
+        }
+    }
+
+    // Colors are undone in the reversed order, so the same uncolored neighbors are met as when applied
+    private void undoColor(int node, int color) {
+        uncolored[node / Long.SIZE] |= 1L << node;
+
+        for (int word = 0; word < words; word++) {
+            long remaining = adjacency[node][word] & uncolored[word];
+
+            while (remaining != 0) {
+                int adjacent = word * Long.SIZE + Long.numberOfTrailingZeros(remaining);
+
+                if (--neighborColorCounts[adjacent * colorsBound + color] == 0) {
+                    saturations[adjacent]--;
+                }
+
+                remaining &= remaining - 1;
+            }
+        }
+
+        colors[node] = NO_COLOR;
+    }
+
+    /*
+     *      Utility
+     */
+
+    private void buildAdjacency() {
+        NeighborCursor neighbors = new UndirectedView(compactGraph).cursor();
+
+        adjacency = new long[nodesCount][words];
+        degrees = new int[nodesCount];
+
+        for (int node = 0; node < nodesCount; node++) {
+            neighbors.reset(node);
+
+            for (int adjacent = neighbors.next(); adjacent != -1; adjacent = neighbors.next()) {
+                if (adjacent != node) {
+                    adjacency[node][adjacent / Long.SIZE] |= 1L << adjacent;
+                    degrees[node]++;
+                }
+            }
+        }
+    }
+
+    private void buildNeighbors() {
+        NeighborCursor cursor = new UndirectedView(compactGraph).cursor();
+
+        neighborOffsets = new int[nodesCount + 1];
+        degrees = new int[nodesCount];
+        int[] rows = new int[Math.max(1, 2 * compactGraph.arcsCount())];
+        int rowsSize = 0;
+
+        for (int node = 0; node < nodesCount; node++) {
+            cursor.reset(node);
+
+            for (int adjacent = cursor.next(); adjacent != -1; adjacent = cursor.next()) {
+                if (adjacent != node) {
+                    rows[rowsSize++] = adjacent;
+                    degrees[node]++;
+                }
+            }
+
+            neighborOffsets[node + 1] = rowsSize;
+        }
+
+        neighbors = Arrays.copyOf(rows, rowsSize);
+    }
+
+    // Index of the first set bit from 'from' on, NONE if there is none
+    private int nextBit(long[] bits, int from) {
+        int word = from / Long.SIZE;
+
+        if (word >= words) {
+            return NONE;
+        }
+
+        long remaining = bits[word] & (-1L << from);
+
+        while (remaining == 0) {
+            if (++word == words) {
+                return NONE;
+            }
+
+            remaining = bits[word];
+        }
+
+        return word * Long.SIZE + Long.numberOfTrailingZeros(remaining);
+    }
+
+    private int intersectionSize(long[] first, long[] second) {
+        int size = 0;
+
+        for (int word = 0; word < words; word++) {
+            size += Long.bitCount(first[word] & second[word]);
+        }
+
+        return size;
+    }
+
+    private boolean isEmpty(long[] bits) {
+        for (long word : bits) {
+            if (word != 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+}
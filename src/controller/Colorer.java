@@ -3,72 +3,507 @@ package controller;
 import model.*;
 
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 
 
+// Coloring of the graph with directions ignored, no two adjacent nodes get the same color. Loops are left out,
+// a node can't differ from itself. Neighbors are copied to int rows once and every strategy works on them
 public class Colorer {
     private static final int NO_COLOR = -1;
+    private static final int NONE = -1;
+    private static final int NODES_PER_TASK = 1024;
+    private static final long PRIORITIES_SEED = 0x5DEECE66DL;
+    private static final int PARALLEL_NODES_COUNT = 100_000;
 
-    private Graph graph;
-    private AdjacencyList adjacencyList;
+    public enum Strategy {
+        // Welsh-Powell: greedy, nodes of a larger degree go first
+        LARGEST_FIRST,
 
-    private Map<Node, String> nodesColors;
+        // Brélaz: the node seeing the most distinct colors goes next
+        DSATUR,
+
+        // Matula-Beck: greedy in the reversed order of removing a node of the smallest degree,
+        // no more than the degeneracy + 1 colors are used
+        SMALLEST_LAST,
+
+        // Jones-Plassmann: a node is colored as soon as its neighbors of a higher random priority are,
+        // the nodes ready at once are independent and are colored in parallel
+        JONES_PLASSMANN
+    }
+
+    private CompactGraph compactGraph;
+    private int nodesCount;
+
+    // Neighbors of node v take positions offsets[v] .. offsets[v + 1] - 1
+    private int[] offsets;
+    private int[] neighbors;
+    private int maxDegree;
 
 
     public Colorer(Graph graph) {
-        this.graph = graph.undirectedEquivalent();
-        this.adjacencyList = new AdjacencyList(this.graph);
+        this(graph.getCompactGraph());
+    }
 
-        nodesColors = new HashMap<>();
+    public Colorer(CompactGraph compactGraph) {
+        this.compactGraph = compactGraph;
+
+        nodesCount = compactGraph.nodesCount();
+        buildNeighbors();
     }
 
-    public Map<Node, String> colorizeNodes() {
-        boolean isFirstNodeColored = false;
-        int color = 0;
+    // DSatur, large graphs are colored in parallel when there are cores for it
+    public Coloring colorize() {
+        boolean isParallel = nodesCount >= PARALLEL_NODES_COUNT && Runtime.getRuntime().availableProcessors() > 1;
+
+        return colorize(isParallel ? Strategy.JONES_PLASSMANN : Strategy.DSATUR);
+    }
+
+    public Coloring colorize(Strategy strategy) {
+        switch (strategy) {
+            case LARGEST_FIRST:
+                return new Coloring(compactGraph, colorizeInOrder(largestFirstOrder()));
+            case SMALLEST_LAST:
+                return new Coloring(compactGraph, colorizeInOrder(smallestLastOrder()));
+            case JONES_PLASSMANN:
+                return new Coloring(compactGraph, verified(colorizeInParallel()));
+            default:
+                return new Coloring(compactGraph, colorizeBySaturation());
+        }
+    }
+
+    /*
+     *      Strategies
+     */
+
+    // Every node takes the smallest color none of its colored neighbors has
+    private int[] colorizeInOrder(int[] order) {
+        int[] colors = new int[nodesCount];
+        int[] takenMarks = new int[maxDegree + 1];
+
+        Arrays.fill(colors, NO_COLOR);
+        Arrays.fill(takenMarks, NONE);
+
+        for (int node : order) {
+            colors[node] = smallestFreeColor(node, colors, takenMarks);
+        }
+
+        return colors;
+    }
+
+    // Counting sort by degree
+    private int[] largestFirstOrder() {
+        int[] starts = new int[maxDegree + 2];
+
+        for (int node = 0; node < nodesCount; node++) {
+            starts[maxDegree - degreeOf(node) + 1]++;
+        }
+
+        for (int degree = 1; degree < starts.length; degree++) {
+            starts[degree] += starts[degree - 1];
+        }
+
+        int[] order = new int[nodesCount];
+
+        for (int node = 0; node < nodesCount; node++) {
+            order[starts[maxDegree - degreeOf(node)]++] = node;
+        }
+
+        return order;
+    }
+
+    // Nodes are kept in buckets by the count of neighbors not removed yet. The smallest count may drop
+    // by one only after each removal, so the search for it goes back a step at most
+    private int[] smallestLastOrder() {
+        BucketQueue buckets = new BucketQueue(nodesCount, maxDegree);
+        int[] degrees = new int[nodesCount];
+        boolean[] isRemoved = new boolean[nodesCount];
+        int[] order = new int[nodesCount];
+
+        for (int node = 0; node < nodesCount; node++) {
+            degrees[node] = degreeOf(node);
+            buckets.add(node, degrees[node]);
+        }
+
+        int minDegree = 0;
+
+        for (int removedCount = 0; removedCount < nodesCount; removedCount++) {
+            while (buckets.first(minDegree) == NONE) {
+                minDegree++;
+            }
+
+            int node = buckets.first(minDegree);
+
+            buckets.remove(node, minDegree);
+            isRemoved[node] = true;
+            order[nodesCount - 1 - removedCount] = node;
+
+            for (int position = offsets[node]; position < offsets[node + 1]; position++) {
+                int adjacent = neighbors[position];
+
+                if (!isRemoved[adjacent]) {
+                    buckets.remove(adjacent, degrees[adjacent]);
+                    buckets.add(adjacent, --degrees[adjacent]);
+                }
+            }
 
-        for (Node node : adjacencyList.getAdjacencyLists().keySet()) {
-            if (!isFirstNodeColored) {
-                nodesColors.put(node, String.valueOf(color));
-                isFirstNodeColored = true;
+            minDegree = Math.max(0, minDegree - 1);
+        }
+
+        return order;
+    }
+
+    // Nodes are kept in buckets by saturation, the count of distinct colors among their neighbors.
+    // Those colors are put into a small hash table per node, 2E slots for all of them together.
+    // Nodes of a larger degree are in front of their buckets at the start
+    private int[] colorizeBySaturation() {
+        int[] colors = new int[nodesCount];
+        int[] saturations = new int[nodesCount];
+        BucketQueue buckets = new BucketQueue(nodesCount, maxDegree);
+        NeighborColors neighborColors = new NeighborColors();
+
+        Arrays.fill(colors, NO_COLOR);
+
+        int[] order = largestFirstOrder();
+        for (int orderIndex = nodesCount - 1; orderIndex >= 0; orderIndex--) {
+            buckets.add(order[orderIndex], 0);
+        }
+
+        int maxSaturation = 0;
+
+        for (int coloredCount = 0; coloredCount < nodesCount; coloredCount++) {
+            while (buckets.first(maxSaturation) == NONE) {
+                maxSaturation--;
+            }
+
+            int node = buckets.first(maxSaturation);
+            buckets.remove(node, maxSaturation);
+
+            int color = 0;
+            while (neighborColors.contains(node, color)) {
                 color++;
+            }
+
+            colors[node] = color;
 
-                continue;
+            for (int position = offsets[node]; position < offsets[node + 1]; position++) {
+                int adjacent = neighbors[position];
+
+                if (colors[adjacent] == NO_COLOR && neighborColors.add(adjacent, color)) {
+                    buckets.remove(adjacent, saturations[adjacent]);
+                    buckets.add(adjacent, ++saturations[adjacent]);
+                    maxSaturation = Math.max(maxSaturation, saturations[adjacent]);
+                }
             }
+        }
 
-            nodesColors.put(node, String.valueOf(color));
-            color++;
+        return colors;
+    }
+
+    // Every node waits for the count of its neighbors of a higher priority to drop to zero. Rounds color
+    // the ready nodes on the fork-join pool and collect the nodes they make ready for the next round
+    private int[] colorizeInParallel() {
+        int[] colors = new int[nodesCount];
+        int[] priorities = new int[nodesCount];
+        AtomicIntegerArray waitingCounts = new AtomicIntegerArray(nodesCount);
+
+        SplittableRandom random = new SplittableRandom(PRIORITIES_SEED);
+        for (int node = 0; node < nodesCount; node++) {
+            priorities[node] = random.nextInt();
         }
 
-        Map<String, Boolean> availableColors = new HashMap<>();
+        int[] initialNodes = new int[nodesCount];
+        AtomicInteger readyCount = new AtomicInteger();
+        AtomicInteger nextReadyCount = new AtomicInteger();
+
+        Arrays.fill(colors, NO_COLOR);
+
+        forEachRange(nodesCount, (from, to) -> {
+            for (int node = from; node < to; node++) {
+                int waitingCount = 0;
+
+                for (int position = offsets[node]; position < offsets[node + 1]; position++) {
+                    if (isBefore(neighbors[position], node, priorities)) {
+                        waitingCount++;
+                    }
+                }
+
+                waitingCounts.set(node, waitingCount);
+
+                if (waitingCount == 0) {
+                    initialNodes[readyCount.getAndIncrement()] = node;
+                }
+            }
+        });
+
+        int[] readyNodes = initialNodes;
+        int[] nextReadyNodes = new int[nodesCount];
+
+        while (readyCount.get() != 0) {
+            int[] roundNodes = readyNodes;
+            int[] roundNextNodes = nextReadyNodes;
+
+            nextReadyCount.set(0);
+
+            forEachRange(readyCount.get(), (from, to) -> {
+                int chunkMaxDegree = 0;
+                for (int nodeIter = from; nodeIter < to; nodeIter++) {
+                    chunkMaxDegree = Math.max(chunkMaxDegree, degreeOf(roundNodes[nodeIter]));
+                }
+
+                int[] takenMarks = new int[chunkMaxDegree + 1];
+                Arrays.fill(takenMarks, NONE);
+
+                for (int nodeIter = from; nodeIter < to; nodeIter++) {
+                    int node = roundNodes[nodeIter];
+
+                    colors[node] = smallestFreeColor(node, colors, takenMarks);
+
+                    for (int position = offsets[node]; position < offsets[node + 1]; position++) {
+                        int adjacent = neighbors[position];
+
+                        if (isBefore(node, adjacent, priorities) && waitingCounts.decrementAndGet(adjacent) == 0) {
+                            roundNextNodes[nextReadyCount.getAndIncrement()] = adjacent;
+                        }
+                    }
+                }
+            });
 
-        for (String currentColor : nodesColors.values()) {
-            availableColors.put(currentColor, true);
+            readyNodes = nextReadyNodes;
+            nextReadyNodes = roundNodes;
+            readyCount.set(nextReadyCount.get());
         }
 
-        for (Node node : adjacencyList.getAdjacencyLists().keySet()) {
-            if (!nodesColors.get(node).equals(String.valueOf(NO_COLOR))) {
-                for (Node someAdjacentNode : adjacencyList.getAdjacencyLists().get(node)) {
-                    if (!nodesColors.get(someAdjacentNode).equals(String.valueOf(NO_COLOR)))
-                        availableColors.replace(nodesColors.get(someAdjacentNode), false);
+        return colors;
+    }
+
+    // No two adjacent nodes may share a color, the check is run on the pool too
+    private int[] verified(int[] colors) {
+        AtomicInteger conflictingNode = new AtomicInteger(NONE);
+
+        forEachRange(nodesCount, (from, to) -> {
+            for (int node = from; node < to; node++) {
+                for (int position = offsets[node]; position < offsets[node + 1]; position++) {
+                    if (colors[neighbors[position]] == colors[node]) {
+                        conflictingNode.set(node);
+                    }
                 }
+            }
+        });
+
+        if (conflictingNode.get() != NONE) {
+            throw new IllegalStateException(
+                    "Node " + compactGraph.nodeAt(conflictingNode.get()) + " shares its color with a neighbor"
+            );
+        }
+
+        return colors;
+    }
+
+    /*
+     *      Utility
+     */
+
+    // Degrees and rows of nodes are found in parallel, their offsets in between
+    private void buildNeighbors() {
+        UndirectedView undirectedView = new UndirectedView(compactGraph);
 
-                String currentColor = String.valueOf(0);
-                for (String someColor : availableColors.keySet()){
-                    if (availableColors.get(someColor)) {
-                        currentColor = someColor;
-                        break;
+        offsets = new int[nodesCount + 1];
+
+        forEachRange(nodesCount, (from, to) -> {
+            NeighborCursor cursor = undirectedView.cursor();
+
+            for (int node = from; node < to; node++) {
+                cursor.reset(node);
+
+                for (int adjacent = cursor.next(); adjacent != -1; adjacent = cursor.next()) {
+                    if (adjacent != node) {
+                        offsets[node + 1]++;
                     }
                 }
+            }
+        });
+
+        for (int node = 0; node < nodesCount; node++) {
+            maxDegree = Math.max(maxDegree, offsets[node + 1]);
+            offsets[node + 1] += offsets[node];
+        }
+
+        neighbors = new int[offsets[nodesCount]];
 
-                nodesColors.replace(node, currentColor);
+        forEachRange(nodesCount, (from, to) -> {
+            NeighborCursor cursor = undirectedView.cursor();
 
-                availableColors.clear();
+            for (int node = from; node < to; node++) {
+                int position = offsets[node];
+                cursor.reset(node);
 
-                for (String someColor : nodesColors.values()) {
-                    availableColors.put(someColor, true);
+                for (int adjacent = cursor.next(); adjacent != -1; adjacent = cursor.next()) {
+                    if (adjacent != node) {
+                        neighbors[position++] = adjacent;
+                    }
                 }
             }
+        });
+    }
+
+    // The color is never above the node's degree, so the marks don't need to cover larger ones
+    private int smallestFreeColor(int node, int[] colors, int[] takenMarks) {
+        for (int position = offsets[node]; position < offsets[node + 1]; position++) {
+            int color = colors[neighbors[position]];
+
+            if (color != NO_COLOR && color < takenMarks.length) {
+                takenMarks[color] = node;
+            }
+        }
+
+        int color = 0;
+        while (takenMarks[color] == node) {
+            color++;
+        }
+
+        return color;
+    }
+
+    // Priorities are random, equal ones are told apart by index
+    private static boolean isBefore(int first, int second, int[] priorities) {
+        return priorities[first] > priorities[second] || (priorities[first] == priorities[second] && first < second);
+    }
+
+    private static void forEachRange(int size, RangeAction action) {
+        ForkJoinPool.commonPool().invoke(new RangeTask(action, 0, size));
+    }
+
+    private int degreeOf(int node) {
+        return offsets[node + 1] - offsets[node];
+    }
+
+    // Doubly linked lists of nodes by an int key from 0 to the max degree
+    private static class BucketQueue {
+        private int[] heads;
+        private int[] nextNodes;
+        private int[] previousNodes;
+
+
+        BucketQueue(int nodesCount, int maxKey) {
+            heads = new int[maxKey + 1];
+            nextNodes = new int[nodesCount];
+            previousNodes = new int[nodesCount];
+
+            Arrays.fill(heads, NONE);
+        }
+
+        int first(int key) {
+            return heads[key];
+        }
+
+        void add(int node, int key) {
+            previousNodes[node] = NONE;
+            nextNodes[node] = heads[key];
+
+            if (heads[key] != NONE) {
+                previousNodes[heads[key]] = node;
+            }
+
+            heads[key] = node;
+        }
+
+        void remove(int node, int key) {
+            if (previousNodes[node] == NONE) {
+                heads[key] = nextNodes[node];
+            } else {
+                nextNodes[previousNodes[node]] = nextNodes[node];
+            }
+
+            if (nextNodes[node] != NONE) {
+                previousNodes[nextNodes[node]] = previousNodes[node];
+            }
+        }
+    }
+
+    // Open addressing table per node, sized to twice its degree rounded up to a power of two
+    private class NeighborColors {
+        private int[] tableOffsets;
+        private int[] tableMasks;
+        private int[] table;
+
+
+        NeighborColors() {
+            tableOffsets = new int[nodesCount];
+            tableMasks = new int[nodesCount];
+            int tablesSize = 0;
+
+            for (int node = 0; node < nodesCount; node++) {
+                int capacity = Integer.highestOneBit(Math.max(1, 2 * degreeOf(node) - 1)) << 1;
+
+                tableOffsets[node] = tablesSize;
+                tableMasks[node] = capacity - 1;
+                tablesSize += capacity;
+            }
+
+            table = new int[tablesSize];
+            Arrays.fill(table, NO_COLOR);
+        }
+
+        boolean contains(int node, int color) {
+            return table[slotOf(node, color)] == color;
+        }
+
+        // False if the color is there already
+        boolean add(int node, int color) {
+            int slot = slotOf(node, color);
+
+            if (table[slot] == color) {
+                return false;
+            }
+
+            table[slot] = color;
+
+            return true;
         }
 
-        return nodesColors;
+        // The slot holding the color or the empty one where it would go
+        private int slotOf(int node, int color) {
+            int mask = tableMasks[node];
+            int slot = (color * 0x9E3779B9) >>> 7 & mask;
+
+            while (table[tableOffsets[node] + slot] != NO_COLOR && table[tableOffsets[node] + slot] != color) {
+                slot = (slot + 1) & mask;
+            }
+
+            return tableOffsets[node] + slot;
+        }
+    }
+
+    private interface RangeAction {
+        void run(int from, int to);
+    }
+
+    // Splits the range in halves until it is small enough to be run in a single thread
+    @SuppressWarnings("serial")
+    private static class RangeTask extends RecursiveAction {
+        private RangeAction action;
+        private int from;
+        private int to;
+
+
+        RangeTask(RangeAction action, int from, int to) {
+            this.action = action;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= NODES_PER_TASK) {
+                action.run(from, to);
+                return;
+            }
+
+            int middle = (from + to) >>> 1;
+            invokeAll(new RangeTask(action, from, middle), new RangeTask(action, middle, to));
+        }
     }
 }
@@ -0,0 +1,54 @@
+package controller;
+
+import model.CompactGraph;
+import model.Node;
+
+import java.util.*;
+
+
+// Proper coloring of the graph's nodes by colors 0 .. colorsCount - 1, kept by node index of the snapshot
+public class Coloring {
+    private CompactGraph compactGraph;
+
+    private int[] colors;
+    private int colorsCount;
+
+
+    Coloring(CompactGraph compactGraph, int[] colors) {
+        this.compactGraph = compactGraph;
+        this.colors = colors;
+
+        for (int color : colors) {
+            colorsCount = Math.max(colorsCount, color + 1);
+        }
+    }
+
+    public CompactGraph getCompactGraph() {
+        return compactGraph;
+    }
+
+    public int getColorsCount() {
+        return colorsCount;
+    }
+
+    public int colorAt(int node) {
+        return colors[node];
+    }
+
+    // Null for a node the snapshot doesn't have
+    public Integer colorOf(Node node) {
+        int index = compactGraph.indexOf(node);
+
+        return index == -1 ? null : colors[index];
+    }
+
+    public Map<Node, Integer> toMap() {
+        Map<Node, Integer> nodesColors = new HashMap<>();
+
+        for (int node = 0; node < colors.length; node++) {
+            nodesColors.put(compactGraph.nodeAt(node), colors[node]);
+        }
+
+        return nodesColors;
+    }
+}
@@ -0,0 +1,371 @@
+package controller;
+
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import model.CompactGraph;
+import model.DistanceMatrix;
+import model.Graph;
+import model.Node;
+import model.ShortestPathFinder;
+
+import java.util.*;
+
+import static model.DistanceMatrix.INFINITY;
+
+
+// Diameter, radius and centers of a graph snapshot without the distance matrix. The eccentricity of a node
+// is the largest finite distance from it; the radius is the least eccentricity other than 0.
+// While distances are the same both ways, eccentricities are bounded after every search (Takes-Kosters):
+// for a searched node w, ecc(v) lies between max(d(v, w), ecc(w) - d(v, w)) and ecc(w) + d(v, w).
+// Searches go on only from nodes that may still change the result, which with the iFUB rule below
+// is a small part of the nodes on most graphs. Otherwise every node is searched, in parallel
+public class EccentricityBounds {
+    private CompactGraph compactGraph;
+    private int nodesCount;
+
+    // Bounds of every node's eccentricity, equal once it's known
+    private long[] lowerBounds;
+    private long[] upperBounds;
+
+    private int diameter;
+    private int radius;
+    private int searchesCount;
+
+    // Search state while the bounds are narrowed: distances of the nodes reached by the latest search,
+    // distances from the middle of every component and the largest eccentricity found so far with
+    // the least one other than 0
+    private ShortestPathFinder finder;
+    private int[] distances;
+    private int[] reached;
+    private int reachedCount;
+    private long[] middleDistances;
+    private long diameterFound;
+    private long radiusFound;
+
+
+    public EccentricityBounds(Graph graph) {
+        this(graph.getCompactGraph());
+    }
+
+    public EccentricityBounds(CompactGraph compactGraph) {
+        this.compactGraph = compactGraph;
+
+        nodesCount = compactGraph.nodesCount();
+        lowerBounds = new long[nodesCount];
+        upperBounds = new long[nodesCount];
+
+        if (isSymmetric()) {
+            boundEccentricities();
+        } else {
+            calculateEccentricities();
+        }
+
+        findDiameterAndRadius();
+    }
+
+    public int getDiameter() {
+        return diameter;
+    }
+
+    public int getRadius() {
+        return radius;
+    }
+
+    // Nodes of the least eccentricity other than 0, in index order. All of the nodes
+    // if every eccentricity is 0
+    public ObservableList<Node> centers() {
+        ObservableList<Node> centers = FXCollections.observableArrayList();
+
+        for (int node = 0; node < nodesCount; node++) {
+            if (isKnown(node) && lowerBounds[node] == radius) {
+                centers.add(compactGraph.nodeAt(node));
+            }
+        }
+
+        return centers;
+    }
+
+    // Count of the single source searches it has taken
+    public int getSearchesCount() {
+        return searchesCount;
+    }
+
+    /*
+     *      Bounding
+     */
+
+    // A double sweep over every component finds a node near its middle first. Then the node of the largest
+    // upper bound and the node of the least lower bound are searched by turns, ties go to the node of more arcs.
+    // A node is left alone once its eccentricity is known or it can change neither the diameter nor the radius
+    // and the centers. By iFUB the diameter can't come from a node within half of the diameter found
+    // from the middle of its component: any node farther than that from it is far from the middle too,
+    // so it's searched itself or its upper bound is no more than the diameter found
+    private void boundEccentricities() {
+        finder = new ShortestPathFinder(compactGraph);
+        distances = new int[nodesCount];
+        reached = new int[nodesCount];
+        middleDistances = new long[nodesCount];
+        radiusFound = Long.MAX_VALUE;
+
+        Arrays.fill(distances, INFINITY);
+        Arrays.fill(upperBounds, Long.MAX_VALUE);
+        Arrays.fill(middleDistances, -1);
+
+        for (int node = 0; node < nodesCount; node++) {
+            if (middleDistances[node] == -1) {
+                sweepComponent(node);
+            }
+        }
+
+        int[] candidates = new int[nodesCount];
+        int candidatesCount = 0;
+        boolean isUpperTurn = true;
+
+        for (int node = 0; node < nodesCount; node++) {
+            candidates[candidatesCount++] = node;
+        }
+
+        candidatesCount = keepUndecided(candidates, candidatesCount);
+
+        while (candidatesCount > 0) {
+            searchFrom(isUpperTurn
+                    ? mostOf(candidates, candidatesCount, upperBounds, 1)
+                    : mostOf(candidates, candidatesCount, lowerBounds, -1));
+            clearDistances();
+
+            isUpperTurn = !isUpperTurn;
+            candidatesCount = keepUndecided(candidates, candidatesCount);
+        }
+    }
+
+    // The middle node of a component is the one farthest from neither end of a double sweep.
+    // A node the sweep comes back to isn't searched again
+    private void sweepComponent(int start) {
+        searchFrom(start);
+
+        int[] component = Arrays.copyOf(reached, reachedCount);
+        Map<Integer, int[]> sweeps = new HashMap<>();
+        int[] startSweep = keepSweep(start, component, sweeps);
+        int[] farthestSweep = sweepFrom(component[farthestOf(startSweep)], component, sweeps);
+        int[] oppositeSweep = sweepFrom(component[farthestOf(farthestSweep)], component, sweeps);
+
+        int middle = component[0];
+        long middleEccentricity = Long.MAX_VALUE;
+
+        for (int nodeIter = 0; nodeIter < component.length; nodeIter++) {
+            long eccentricity = Math.max(farthestSweep[nodeIter], oppositeSweep[nodeIter]);
+
+            if (eccentricity < middleEccentricity) {
+                middle = component[nodeIter];
+                middleEccentricity = eccentricity;
+            }
+        }
+
+        int[] middleSweep = sweepFrom(middle, component, sweeps);
+
+        for (int nodeIter = 0; nodeIter < component.length; nodeIter++) {
+            middleDistances[component[nodeIter]] = middleSweep[nodeIter];
+        }
+    }
+
+    // Distances over the component from the source, searched unless they are among the sweeps already
+    private int[] sweepFrom(int source, int[] component, Map<Integer, int[]> sweeps) {
+        int[] sweep = sweeps.get(source);
+
+        if (sweep == null) {
+            searchFrom(source);
+            sweep = keepSweep(source, component, sweeps);
+        }
+
+        return sweep;
+    }
+
+    // The distances of the latest search over the component are kept as the source's sweep and cleared
+    private int[] keepSweep(int source, int[] component, Map<Integer, int[]> sweeps) {
+        int[] sweep = new int[component.length];
+
+        for (int nodeIter = 0; nodeIter < component.length; nodeIter++) {
+            sweep[nodeIter] = distances[component[nodeIter]];
+        }
+
+        clearDistances();
+        sweeps.put(source, sweep);
+
+        return sweep;
+    }
+
+    // Position of the largest distance, the last one of ties
+    private static int farthestOf(int[] sweep) {
+        int farthest = 0;
+
+        for (int nodeIter = 1; nodeIter < sweep.length; nodeIter++) {
+            if (sweep[nodeIter] >= sweep[farthest]) {
+                farthest = nodeIter;
+            }
+        }
+
+        return farthest;
+    }
+
+    // Candidates that may still change the result are moved to the front, their count is returned
+    private int keepUndecided(int[] candidates, int candidatesCount) {
+        int keptCount = 0;
+
+        for (int candidateIter = 0; candidateIter < candidatesCount; candidateIter++) {
+            int node = candidates[candidateIter];
+            boolean isDiameterDecided = upperBounds[node] <= diameterFound || 2 * middleDistances[node] <= diameterFound;
+            boolean isRadiusDecided = lowerBounds[node] > radiusFound;
+
+            if (!isKnown(node) && !(isDiameterDecided && isRadiusDecided)) {
+                candidates[keptCount++] = node;
+            }
+        }
+
+        return keptCount;
+    }
+
+    // The candidate of the largest bound for the sign 1, of the least one for the sign -1
+    private int mostOf(int[] candidates, int candidatesCount, long[] bounds, int sign) {
+        int most = candidates[0];
+
+        for (int candidateIter = 1; candidateIter < candidatesCount; candidateIter++) {
+            int node = candidates[candidateIter];
+            int comparison = Long.compare(bounds[node], bounds[most]) * sign;
+
+            if (comparison > 0 || (comparison == 0 && degreeOf(node) > degreeOf(most))) {
+                most = node;
+            }
+        }
+
+        return most;
+    }
+
+    // The eccentricity of the source is the distance of the node reached last. Bounds of the nodes reached
+    // are narrowed by it, the distances are kept until cleared
+    private void searchFrom(int source) {
+        reachedCount = finder.reachableFrom(source, distances, reached);
+        searchesCount++;
+
+        long eccentricity = distances[reached[reachedCount - 1]];
+
+        lowerBounds[source] = eccentricity;
+        upperBounds[source] = eccentricity;
+
+        for (int reachedIter = 0; reachedIter < reachedCount; reachedIter++) {
+            int node = reached[reachedIter];
+            long distance = distances[node];
+
+            lowerBounds[node] = Math.max(lowerBounds[node], Math.max(distance, eccentricity - distance));
+            upperBounds[node] = Math.min(upperBounds[node], eccentricity + distance);
+
+            if (isKnown(node)) {
+                diameterFound = Math.max(diameterFound, lowerBounds[node]);
+
+                if (lowerBounds[node] != 0) {
+                    radiusFound = Math.min(radiusFound, lowerBounds[node]);
+                }
+            }
+        }
+    }
+
+    private void clearDistances() {
+        for (int reachedIter = 0; reachedIter < reachedCount; reachedIter++) {
+            distances[reached[reachedIter]] = INFINITY;
+        }
+    }
+
+    /*
+     *      Calculations
+     */
+
+    // Eccentricities of all nodes by a search from each of them, run by the distance matrix's tasks
+    // without keeping the rows
+    private void calculateEccentricities() {
+        DistanceMatrix.forEachRow(compactGraph, (distances, source) -> {
+            lowerBounds[source] = eccentricityOf(distances);
+            upperBounds[source] = lowerBounds[source];
+        });
+        searchesCount = nodesCount;
+    }
+
+    // Of the nodes' eccentricities the largest one and the least one other than 0
+    private void findDiameterAndRadius() {
+        long largest = 0;
+        long least = Long.MAX_VALUE;
+
+        for (int node = 0; node < nodesCount; node++) {
+            if (isKnown(node)) {
+                largest = Math.max(largest, lowerBounds[node]);
+
+                if (lowerBounds[node] != 0) {
+                    least = Math.min(least, lowerBounds[node]);
+                }
+            }
+        }
+
+        diameter = (int) largest;
+        radius = least == Long.MAX_VALUE ? 0 : (int) least;
+    }
+
+    /*
+     *      Utility
+     */
+
+    // Distances are the same both ways if every arc has one of the same least weight back
+    private boolean isSymmetric() {
+        for (int node = 0; node < nodesCount; node++) {
+            for (int position = compactGraph.rowBegin(node); position < compactGraph.rowEnd(node); position++) {
+                int target = compactGraph.targetAt(position);
+
+                if (target != node && leastWeight(target, node) != leastWeight(node, target)) {
+                    return false;
+                }
+            }
+        }
+
+        return true;
+    }
+
+    // Parallel arcs lie next to each other in the row, -1 if there are none
+    private int leastWeight(int begin, int end) {
+        int found = compactGraph.arcPosition(begin, end);
+
+        if (found == -1) {
+            return -1;
+        }
+
+        int leastWeight = compactGraph.weightAt(found);
+
+        for (int position = found - 1; position >= compactGraph.rowBegin(begin)
+                && compactGraph.targetAt(position) == end; position--) {
+            leastWeight = Math.min(leastWeight, compactGraph.weightAt(position));
+        }
+
+        for (int position = found + 1; position < compactGraph.rowEnd(begin)
+                && compactGraph.targetAt(position) == end; position++) {
+            leastWeight = Math.min(leastWeight, compactGraph.weightAt(position));
+        }
+
+        return leastWeight;
+    }
+
+    private static long eccentricityOf(int[] distances) {
+        long eccentricity = 0;
+
+        for (int distance : distances) {
+            if (distance != INFINITY && distance > eccentricity) {
+                eccentricity = distance;
+            }
+        }
+
+        return eccentricity;
+    }
+
+    private int degreeOf(int node) {
+        return compactGraph.outDegree(node) + compactGraph.inDegree(node);
+    }
+
+    private boolean isKnown(int node) {
+        return lowerBounds[node] == upperBounds[node];
+    }
+}
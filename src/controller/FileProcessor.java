@@ -43,11 +43,12 @@ public class FileProcessor {
         private String identifier;
         private String centerX;
         private String centerY;
-        private Map<Integer, DrawableNode> identifiers;
+        private Map<Long, DrawableNode> identifiers;
 
         private String lastElementName;
         private String beginIdentifier;
         private String endIdentifier;
+        private String weight;
         private String isDirected;
         private boolean isNodesRead;
 
@@ -81,16 +82,16 @@ public class FileProcessor {
                         && (centerX != null)
                         && (centerY != null)) {
 
-                    int identifierInt;
+                    long identifierLong;
                     double centerXDouble;
                     double centerYDouble;
 
                     try {
-                        identifierInt = Integer.parseInt(identifier);
+                        identifierLong = Long.parseLong(identifier);
                         centerXDouble = Double.parseDouble(centerX);
                         centerYDouble = Double.parseDouble(centerY);
                     } catch (NumberFormatException ex) {
-                        identifierInt = -1; // gives an exception had token
+                        identifierLong = -1; // gives an exception had token
                         centerXDouble = -1;
                         centerYDouble = -1;
                     }
@@ -99,7 +100,7 @@ public class FileProcessor {
                     drawableNode.getShape().setCenterX(centerXDouble);
                     drawableNode.getShape().setCenterY(centerYDouble - 5 * CIRCLE_RADIUS);
                     drawableNodes.add(drawableNode);
-                    identifiers.put(identifierInt, drawableNode);
+                    identifiers.put(identifierLong, drawableNode);
 
                     name = null;
                     centerX = null;
@@ -108,32 +109,44 @@ public class FileProcessor {
                 }
             } else {
                 if (beginIdentifier != null && endIdentifier != null && isDirected != null) {
-                    int beginIdentifierInt;
-                    int endIdentifierInt;
+                    long beginIdentifierLong;
+                    long endIdentifierLong;
+                    int weightInt = Arc.WEIGHT;
                     boolean isDirectedBoolean = isDirected.equals(XMLConstant.TRUE);
 
                     try {
-                        beginIdentifierInt = Integer.parseInt(beginIdentifier);
-                        endIdentifierInt = Integer.parseInt(endIdentifier);
+                        beginIdentifierLong = Long.parseLong(beginIdentifier);
+                        endIdentifierLong = Long.parseLong(endIdentifier);
                     } catch (NumberFormatException ex) {
-                        beginIdentifierInt = -1; // gives an exception had token
-                        endIdentifierInt = -1;
+                        beginIdentifierLong = -1; // gives an exception had token
+                        endIdentifierLong = -1;
+                    }
+
+                    // Files written before arcs were weighted have no weights
+                    if (weight != null) {
+                        try {
+                            weightInt = Math.max(0, Integer.parseInt(weight));
+                        } catch (NumberFormatException ex) {
+                            weightInt = Arc.WEIGHT;
+                        }
                     }
 
                     Arc sourceArc = new Arc(
-                            identifiers.get(beginIdentifierInt).getSourceNode(),
-                            identifiers.get(endIdentifierInt).getSourceNode(),
-                            isDirectedBoolean
+                            identifiers.get(beginIdentifierLong).getSourceNode(),
+                            identifiers.get(endIdentifierLong).getSourceNode(),
+                            isDirectedBoolean,
+                            weightInt
                     );
                     DrawableArc drawableArc = new DrawableArc(
                             sourceArc,
-                            identifiers.get(beginIdentifierInt),
-                            identifiers.get(endIdentifierInt)
+                            identifiers.get(beginIdentifierLong),
+                            identifiers.get(endIdentifierLong)
                     );
                     drawableArcs.add(drawableArc);
 
                     beginIdentifier = null;
                     endIdentifier = null;
+                    weight = null;
                     isDirected = null;
                 }
             }
@@ -173,6 +186,10 @@ public class FileProcessor {
                         centerY = nodeText;
                         break;
                     }
+                    case XMLConstant.WEIGHT: {
+                        weight = nodeText;
+                        break;
+                    }
                     case XMLConstant.IS_DIRECTED: {
                         isDirected = nodeText;
                         break;
@@ -191,6 +208,8 @@ public class FileProcessor {
             graphPane.getDrawableNodes().addAll(drawableNodes);
             graphPane.getDrawableArcs().addAll(drawableArcs);
 
+            graph.beginBatch();
+
             for (DrawableNode drawableNode : drawableNodes) {
                 graph.getNodes().add(drawableNode.getSourceNode());
                 graphPane.getPane().getChildren().addAll(
@@ -203,6 +222,8 @@ public class FileProcessor {
                 graphPane.getPane().getChildren().addAll(drawableArc.getLine(), drawableArc.getArrow());
             }
 
+            graph.commitBatch();
+
             for (DrawableNode drawableNode : drawableNodes) {
                 drawableNode.getShape().toFront();
             }
@@ -273,12 +294,14 @@ public class FileProcessor {
 
             Element endNode = document.createElement(XMLConstant.END_NODE);
             Element endNodeIdentifier = document.createElement(XMLConstant.IDENTIFIER);
+            Element weight = document.createElement(XMLConstant.WEIGHT);
             Element isDirected = document.createElement(XMLConstant.IS_DIRECTED);
 
             beginNodeIdentifier.appendChild(
                     document.createTextNode(String.valueOf(arc.getSourceArc().getBegin().getIdentifier())));
             endNodeIdentifier.appendChild(
                     document.createTextNode(String.valueOf(arc.getSourceArc().getEnd().getIdentifier())));
+            weight.appendChild(document.createTextNode(String.valueOf(arc.getSourceArc().getWeight())));
             isDirected.appendChild(
                     document.createTextNode(arc.getSourceArc().isDirected() ? XMLConstant.TRUE : XMLConstant.FALSE)
             );
@@ -289,6 +312,8 @@ public class FileProcessor {
             Element drawableArc = document.createElement(XMLConstant.ARC);
             drawableArc.appendChild(beginNode);
             drawableArc.appendChild(endNode);
+            // The weight goes before the direction, the arc is made up once the direction is read
+            drawableArc.appendChild(weight);
             drawableArc.appendChild(isDirected);
 
             arcs.appendChild(drawableArc);
@@ -1,26 +1,49 @@
 package controller;
 
+import controller.verifier.KuratowskiSubgraph;
+import controller.verifier.PlanarEmbedding;
 import controller.verifier.PlanarityVerifier;
 import controller.verifier.TreeVerifier;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
+import javafx.geometry.Point2D;
 import model.*;
 
 import java.util.*;
+import java.util.function.Function;
 
 import static model.DistanceMatrix.INFINITY;
 
 
 public class GraphController {
+    // The distance matrix takes V * V ints, past this count of nodes distances are searched for instead
+    private static final int DISTANCE_MATRIX_NODES_LIMIT = 2048;
+
     private Graph graph;
+
+    // Built on the first request, then kept up to date by the graph's change listeners
     private DistanceMatrix distanceMatrix;
     private AdjacencyMatrix adjacencyMatrix;
 
+    // Recalculated on the first request after the graph has changed
+    private VersionedValue<EccentricityBounds> eccentricityBounds;
+    private VersionedValue<Coloring> nodesColors;
+    private VersionedValue<Boolean> planarity;
+    private VersionedValue<KuratowskiSubgraph> kuratowskiSubgraph;
+    private VersionedValue<ShortestPathFinder> shortestPathFinder;
+
+    // Coordinates of the latest A* query, kept for the next ones with the same positions
+    private NodeCoordinates nodeCoordinates;
+
 
     public GraphController(Graph graph) {
         this.graph = graph;
-        distanceMatrix = new DistanceMatrix(graph);
-        adjacencyMatrix = new AdjacencyMatrix(graph);
+
+        eccentricityBounds = new VersionedValue<>(graph, EccentricityBounds::new);
+        nodesColors = new VersionedValue<>(graph, snapshot -> new Colorer(snapshot).colorize());
+        planarity = new VersionedValue<>(graph, snapshot -> new PlanarityVerifier(snapshot).verify());
+        kuratowskiSubgraph = new VersionedValue<>(graph, snapshot -> new PlanarityVerifier(snapshot).kuratowskiSubgraph());
+        shortestPathFinder = new VersionedValue<>(graph, ShortestPathFinder::new);
     }
 
     public Graph getGraph() {
@@ -28,7 +51,7 @@ public class GraphController {
     }
 
     public AdjacencyMatrix adjacencyMatrix() {
-        return adjacencyMatrix;
+        return getAdjacencyMatrix();
     }
 
     public ObservableList<Node> getNodes() { return graph.getNodes(); }
@@ -36,10 +59,18 @@ public class GraphController {
     public ObservableList<Arc> getArcs() { return graph.getArcs(); }
 
     public AdjacencyMatrix getAdjacencyMatrix() {
+        if (adjacencyMatrix == null) {
+            adjacencyMatrix = new AdjacencyMatrix(graph);
+        }
+
         return adjacencyMatrix;
     }
 
     public DistanceMatrix getDistanceMatrix() {
+        if (distanceMatrix == null) {
+            distanceMatrix = new DistanceMatrix(graph);
+        }
+
         return distanceMatrix;
     }
 
@@ -48,17 +79,19 @@ public class GraphController {
     }
 
     public void removeNode(Node node) {
-        graph.getNodes().remove(node);
+        graph.batch(() -> {
+            graph.getNodes().remove(node);
 
-        ObservableList<Arc> arcsToRemove = FXCollections.observableArrayList();
+            Set<Arc> arcsToRemove = new HashSet<>();
 
-        for (Arc arc : graph.getArcs()) {
-            if (arc.getBegin().equals(node) || arc.getEnd().equals(node)) {
-                arcsToRemove.add(arc);
+            for (Arc arc : graph.getArcs()) {
+                if (arc.getBegin().equals(node) || arc.getEnd().equals(node)) {
+                    arcsToRemove.add(arc);
+                }
             }
-        }
 
-        graph.getArcs().removeAll(arcsToRemove);
+            graph.getArcs().removeAll(arcsToRemove);
+        });
     }
 
     public void addArc(Arc arc) {
@@ -69,6 +102,19 @@ public class GraphController {
         graph.getArcs().remove(arc);
     }
 
+    public void renameNode(Node node, String name) {
+        graph.renameNode(node, name);
+    }
+
+    public void setArcWeight(Arc arc, int weight) {
+        graph.setArcWeight(arc, weight);
+    }
+
+    // The arc is replaced, the one which is in the graph now is returned
+    public Arc changeArcDirection(Arc arc, boolean isDirected) {
+        return graph.changeArcDirection(arc, isDirected);
+    }
+
     /*
         Metrics
      */
@@ -86,80 +132,105 @@ public class GraphController {
         return degree;
     }
 
-    // Calculation of the nodes' eccentricities
-    private Map<Node, Integer> eccentricities() {
-        Map<Node, Integer> eccentricities = new HashMap<>();
+    // Distance between two nodes, read from the distance matrix while the graph is small enough to keep it
+    public int distance(Node begin, Node end) {
+        return distance(begin, end, null);
+    }
 
-        int eccentricity;
+    // A larger graph is searched for every query. With every node's position known the search is directed
+    // to the end node. The positions are read once per graph version, a changed layout comes as another map
+    public int distance(Node begin, Node end, Map<Node, Point2D> positions) {
+        if (graph.getNodes().size() <= DISTANCE_MATRIX_NODES_LIMIT) {
+            return getDistanceMatrix().distance(begin, end);
+        }
 
-        for (Node node : distanceMatrix.getDistancesMap().keySet()) {
-            eccentricity = 0;
+        ShortestPathFinder shortestPathFinder = this.shortestPathFinder.get();
+        CompactGraph compactGraph = shortestPathFinder.getCompactGraph();
 
-            for (Integer distance : distanceMatrix.getDistancesMap().get(node).values()) {
-                if ((distance > eccentricity) && (distance != INFINITY)) {
-                    eccentricity = distance;
-                }
-            }
+        int beginIndex = compactGraph.indexOf(begin);
+        int endIndex = compactGraph.indexOf(end);
 
-            eccentricities.put(node, eccentricity);
+        if (beginIndex == -1 || endIndex == -1) {
+            return INFINITY;
         }
 
-        return eccentricities;
-    }
+        if (positions == null) {
+            return shortestPathFinder.distance(beginIndex, endIndex);
+        }
 
-    // Calculation of a graph diameter
-    public int diameter() {
-        int diameter = 0;
+        if (nodeCoordinates == null || !nodeCoordinates.isFor(shortestPathFinder, positions)) {
+            nodeCoordinates = new NodeCoordinates(shortestPathFinder, positions);
+        }
 
-        for (Integer eccentricity : eccentricities().values()) {
-            if ((eccentricity > diameter) && (eccentricity != INFINITY)) {
-                diameter = eccentricity;
-            }
+        if (!nodeCoordinates.isComplete()) {
+            return shortestPathFinder.distance(beginIndex, endIndex);
         }
 
-        return diameter;
+        return shortestPathFinder.distance(
+                beginIndex, endIndex, nodeCoordinates.getXs(), nodeCoordinates.getYs(), nodeCoordinates.getScale()
+        );
+    }
+
+    // Calculation of a graph diameter
+    public int diameter() {
+        return eccentricityBounds.get().getDiameter();
     }
 
     // Calculation of a graph radius
     public int radius() {
-        int radius = INFINITY;
-
-        for (Integer eccentricity : eccentricities().values()) {
-            if ((eccentricity < radius) && (eccentricity != 0)) {
-                radius = eccentricity;
-            }
-        }
-
-        return radius == INFINITY ? 0 : radius;
+        return eccentricityBounds.get().getRadius();
     }
 
     // Taking of graph centers
     public ObservableList<Node> centers() {
-        ObservableList<Node> centres = FXCollections.observableArrayList();
-        int radius = radius();
-
-        for (Node node : eccentricities().keySet()) {
-            if (eccentricities().get(node) == radius) {
-                centres.add(node);
-            }
-        }
-
-        return centres;
+        return eccentricityBounds.get().centers();
     }
 
     // Check for graph planarity
     public boolean isPlanar() {
-        return new PlanarityVerifier(graph).verify();
+        return planarity.get();
+    }
+
+    // Subdivision of K5 or K3,3 proving the graph isn't planar, null for a planar graph
+    public KuratowskiSubgraph kuratowskiSubgraph() {
+        return kuratowskiSubgraph.get();
+    }
+
+    // Clockwise order of neighbors in a crossing-free drawing, null for a non-planar graph
+    public PlanarEmbedding planarEmbedding() {
+        return new PlanarityVerifier(graph).embedding();
     }
 
     // Check for graph complete
+    // Every ordered pair of different nodes is counted once, however many arcs lead between them
     public boolean isComplete() {
-        return !graph.containsLoop() && (graph.getArcs().size() == graph.getNodes().size() * (graph.getNodes().size() - 1));
+        if (graph.containsLoop()) {
+            return false;
+        }
+
+        CompactGraph compactGraph = graph.getCompactGraph();
+        long adjacentPairsCount = 0;
+
+        for (int node = 0; node < compactGraph.nodesCount(); node++) {
+            for (int position = compactGraph.rowBegin(node); position < compactGraph.rowEnd(node); position++) {
+                if (position == compactGraph.rowBegin(node)
+                        || compactGraph.targetAt(position) != compactGraph.targetAt(position - 1)) {
+                    adjacentPairsCount++;
+                }
+            }
+        }
+
+        return adjacentPairsCount == (long) compactGraph.nodesCount() * (compactGraph.nodesCount() - 1);
     }
 
     // Check is graph a tree
     public boolean isTree() {
-        return !graph.containsLoop() && new TreeVerifier(graph).verify();
+        return new TreeVerifier(graph).verify();
+    }
+
+    // An arc closing a cycle, null when there are no cycles
+    public Arc cycleArc() {
+        return new TreeVerifier(graph).cycleArc();
     }
 
     /*
@@ -168,104 +239,138 @@ public class GraphController {
 
     // Finding all of hamiltonian cycles in the graph
     public ObservableList<Path> hamiltonianCycles() {
-        ObservableList<Path> hamiltonianCycles = FXCollections.observableArrayList();
-
-        for (Node begin : graph.getNodes()) {
-            ObservableList<Path> cycles = findAllHamiltonianCyclesFrom(begin);
-            for (Path cycleFromThisNode : cycles) {
-                if (!hamiltonianCycles.contains(cycleFromThisNode)) {
-                    hamiltonianCycles.add(cycleFromThisNode);
-                }
-            }
-        }
-
-        return hamiltonianCycles;
+        return new HamiltonianCyclesFinder(graph).hamiltonianCycles();
     }
 
-    // Coloring of nodes
-    public Map<Node, String> colorizeNodes() {
-        return new Colorer(graph).colorizeNodes();
+    // Existence, a witness and the count of Hamiltonian cycles without enumerating them,
+    // for graphs of HamiltonianCycleSolver.MAX_NODES_COUNT nodes at most
+    public boolean hasHamiltonianCycle() {
+        return new HamiltonianCycleSolver(graph).hasCycle();
     }
 
-    // Making all nodes adjacent to all nodes
-    public void makeComplete() {
-        List<Arc> arcsToDelete = new ArrayList<>();
+    public Path hamiltonianCycle() {
+        return new HamiltonianCycleSolver(graph).cycle();
+    }
 
-        for (Node begin : graph.getNodes()) {
-            for (Node end : graph.getNodes()) {
-                if (begin.equals(end)) {
-                    continue;
-                }
+    public long hamiltonianCyclesCount() {
+        return new HamiltonianCycleSolver(graph).cyclesCount();
+    }
 
-                if (!graph.getArcs().contains(new Arc(begin, end))) {
-                    graph.getArcs().add(new Arc(begin, end));
-                }
-            }
-        }
+    // A Hamiltonian cycle of a graph of any size by rotations from several random starts at once,
+    // null if none is found within the time budget
+    public Path searchHamiltonianCycle(long timeBudgetMillis) {
+        return new HamiltonianCycleHeuristic(graph).findCycleInParallel(timeBudgetMillis);
+    }
 
-        for (Arc arc : graph.getArcs()) {
-            if (arc.getBegin().equals(arc.getEnd())) {
-                arcsToDelete.add(arc);
-                continue;
-            }
+    // Coloring of nodes by DSatur or, for a large graph, by Jones-Plassmann in parallel
+    public Coloring colorizeNodes() {
+        return nodesColors.get();
+    }
 
-            arc.setDirected(false);
-        }
+    public Coloring colorizeNodes(Colorer.Strategy strategy) {
+        return new Colorer(graph).colorize(strategy);
+    }
 
-        graph.getArcs().removeAll(arcsToDelete);
+    // Coloring by the least count of colors, the search is cut off after the time budget
+    public ChromaticNumber chromaticNumber(long timeBudgetMillis) {
+        return new ChromaticNumberSolver(graph).solve(timeBudgetMillis);
     }
 
     /*
-     *      Utility
+     *      Background analysis
      */
 
-    // Finds all possible Hamiltonian cycles begins with the node given
-    private ObservableList<Path> findAllHamiltonianCyclesFrom(Node begin) {
-        Map<Node, Boolean> visitedNodes = new HashMap<>();
-        ObservableList<Path> hamiltonianCyclesBeginsWithThisNode = FXCollections.observableArrayList();
-        Path trackingCycle = new Path();
+    // Runs the analysis against a snapshot of the current graph on a worker thread
+    public <T> AnalysisTask<T> analyze(Function<CompactGraph, T> analysis) {
+        return new AnalysisTask<>(graph.getCompactGraph(), analysis).start();
+    }
 
-        for (Node node : graph.getNodes()) {
-            visitedNodes.put(node, false);
-        }
+    // Whether the graph is still of the version the task's result belongs to
+    public boolean isActual(AnalysisTask<?> task) {
+        return task.getVersion() == graph.getVersion();
+    }
 
-        dfsHamiltonianCycle(begin, trackingCycle, visitedNodes, hamiltonianCyclesBeginsWithThisNode);
+    // Diameter, radius and centers at once, kept until the graph changes
+    public AnalysisTask<EccentricityBounds> eccentricityBoundsInBackground() {
+        return eccentricityBounds.calculateInBackground();
+    }
 
-        return hamiltonianCyclesBeginsWithThisNode;
+    public AnalysisTask<ObservableList<Node>> centersInBackground() {
+        return analyze(snapshot -> new EccentricityBounds(snapshot).centers());
     }
 
-    private void dfsHamiltonianCycle(Node begin, Path trackingCycle,
-                                     Map<Node, Boolean> visitedNodes,
-                                     ObservableList<Path> hamiltonianCyclesBeginsWithThisNode) {
+    public AnalysisTask<Boolean> isPlanarInBackground() {
+        return planarity.calculateInBackground();
+    }
 
-        if (trackingCycle.getPath().size() == graph.getNodes().size()) {
-            if (graph.getArcs().contains(new Arc(trackingCycle.getPath().get(trackingCycle.getPath().size() - 1),
-                    trackingCycle.getPath().get(0)))) {
-                Path hamiltonianCycle = new Path(trackingCycle);
-                hamiltonianCycle.getPath().add(trackingCycle.getPath().get(0));
+    public AnalysisTask<KuratowskiSubgraph> kuratowskiSubgraphInBackground() {
+        return kuratowskiSubgraph.calculateInBackground();
+    }
 
-                for (Path cycle : hamiltonianCyclesBeginsWithThisNode) {
-                    if (hamiltonianCycle.getPath().contains(cycle.getPath())) {
-                        return;
-                    }
-                }
+    public AnalysisTask<Coloring> colorizeNodesInBackground() {
+        return nodesColors.calculateInBackground();
+    }
 
-                hamiltonianCyclesBeginsWithThisNode.add(hamiltonianCycle);
+    public AnalysisTask<Coloring> colorizeNodesInBackground(Colorer.Strategy strategy) {
+        return analyze(snapshot -> new Colorer(snapshot).colorize(strategy));
+    }
 
-                return;
-            }
-        }
+    public AnalysisTask<ChromaticNumber> chromaticNumberInBackground(long timeBudgetMillis) {
+        return analyze(snapshot -> new ChromaticNumberSolver(snapshot).solve(timeBudgetMillis));
+    }
+
+    public AnalysisTask<Path> hamiltonianCycleInBackground() {
+        return analyze(snapshot -> new HamiltonianCycleSolver(snapshot).cycle());
+    }
+
+    public AnalysisTask<Path> searchHamiltonianCycleInBackground(long timeBudgetMillis) {
+        return analyze(snapshot -> new HamiltonianCycleHeuristic(snapshot).findCycleInParallel(timeBudgetMillis));
+    }
 
-        for (Node adjacentNode : adjacencyMatrix.adjacentNodesOf(begin)) {
-            if (!visitedNodes.get(adjacentNode)) {
-                visitedNodes.replace(adjacentNode, true);
-                trackingCycle.getPath().add(adjacentNode);
+    public AnalysisTask<Long> hamiltonianCyclesCountInBackground() {
+        return analyze(snapshot -> new HamiltonianCycleSolver(snapshot).cyclesCount());
+    }
 
-                dfsHamiltonianCycle(adjacentNode, trackingCycle, visitedNodes, hamiltonianCyclesBeginsWithThisNode);
+    public AnalysisTask<ObservableList<Path>> hamiltonianCyclesInBackground() {
+        return analyze(snapshot -> new HamiltonianCyclesFinder(snapshot).hamiltonianCycles());
+    }
 
-                visitedNodes.replace(adjacentNode, false);
-                trackingCycle.getPath().remove(trackingCycle.getPath().size() - 1);
+    // Cycles go into the stream while the search runs, the task's value is their count
+    public AnalysisTask<Long> hamiltonianCyclesInBackground(HamiltonianCyclesStream stream) {
+        return analyze(snapshot -> new HamiltonianCyclesFinder(snapshot).streamCycles(stream));
+    }
+
+    /*
+     *      Modifications
+     */
+
+    // Making all nodes adjacent to all nodes: a single undirected arc is left between every two of them,
+    // the first one found is kept if there is any. The arcs list is rebuilt and set at once
+    public void makeComplete() {
+        graph.batch(() -> {
+            Set<Arc> linkedPairs = new HashSet<>();
+            List<Arc> arcs = new ArrayList<>();
+
+            for (Arc arc : graph.getArcs()) {
+                if (arc.getBegin().equals(arc.getEnd()) || !linkedPairs.add(arc)) {
+                    continue;
+                }
+
+                linkedPairs.add(new Arc(arc.getEnd(), arc.getBegin()));
+                arcs.add(arc.isDirected() ? new Arc(arc.getBegin(), arc.getEnd(), false, arc.getWeight()) : arc);
             }
-        }
+
+            List<Node> nodes = graph.getNodes();
+
+            for (int beginIter = 0; beginIter < nodes.size(); beginIter++) {
+                for (int endIter = beginIter + 1; endIter < nodes.size(); endIter++) {
+                    if (!linkedPairs.contains(new Arc(nodes.get(beginIter), nodes.get(endIter)))) {
+                        arcs.add(new Arc(nodes.get(beginIter), nodes.get(endIter), false));
+                    }
+                }
+            }
+
+            graph.getArcs().setAll(arcs);
+        });
     }
 }
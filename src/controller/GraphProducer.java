@@ -29,37 +29,43 @@ public class GraphProducer { // holy fuck what the name
 
     public Graph cartesianProduct() {
         Graph product = new Graph();
+        product.beginBatch();
         initNodesMatching(product);
 
-        for (Pair<Node, Node> uv : nodePairs) {
-            for (Pair<Node, Node> u1v1 : nodePairs) {
-                if ((uv.getKey().equals(u1v1.getKey()) && (hGraph.getArc(uv.getValue(), u1v1.getValue()) != null))
-                        || (uv.getValue().equals(u1v1.getValue()) && (gGraph.getArc(uv.getKey(), u1v1.getKey()) != null))) {
-                    product.getArcs().add(new Arc(nodePairsMatching.get(uv), nodePairsMatching.get(u1v1)));
+        for (int uvIter = 0; uvIter < nodePairs.size(); uvIter++) {
+            for (int u1v1Iter = 0; u1v1Iter < nodePairs.size(); u1v1Iter++) {
+                Pair<Node, Node> uv = nodePairs.get(uvIter);
+                Pair<Node, Node> u1v1 = nodePairs.get(u1v1Iter);
+
+                if (isCartesianAdjacent(uv, u1v1)) {
+                    addProductArc(product, uvIter, u1v1Iter, isCartesianAdjacent(u1v1, uv));
                 }
             }
         }
 
+        product.commitBatch();
+
         return product;
     }
 
     public Graph tensorProduct() {
         Graph product = new Graph();
+        product.beginBatch();
         initNodesMatching(product);
 
+        for (int uvIter = 0; uvIter < nodePairs.size(); uvIter++) {
+            for (int u1v1Iter = 0; u1v1Iter < nodePairs.size(); u1v1Iter++) {
+                Pair<Node, Node> uv = nodePairs.get(uvIter);
+                Pair<Node, Node> u1v1 = nodePairs.get(u1v1Iter);
 
-        for (Pair<Node, Node> uv : nodePairs) {
-            for (Pair<Node, Node> u1v1 : nodePairs) {
-                if ((gGraph.getArc(uv.getKey(), u1v1.getKey()) != null)
-                        && (hGraph.getArc(uv.getValue(), u1v1.getValue()) != null)) {
-
-                    if (product.getArc(nodePairsMatching.get(u1v1), nodePairsMatching.get(uv)) == null) {
-                        product.getArcs().add(new Arc(nodePairsMatching.get(uv), nodePairsMatching.get(u1v1)));
-                    }
+                if (isTensorAdjacent(uv, u1v1)) {
+                    addProductArc(product, uvIter, u1v1Iter, isTensorAdjacent(u1v1, uv));
                 }
             }
         }
 
+        product.commitBatch();
+
         return product;
     }
 
@@ -67,6 +73,30 @@ public class GraphProducer { // holy fuck what the name
      *      Util
      */
 
+    private boolean isCartesianAdjacent(Pair<Node, Node> uv, Pair<Node, Node> u1v1) {
+        return (uv.getKey().equals(u1v1.getKey()) && (hGraph.getArc(uv.getValue(), u1v1.getValue()) != null))
+                || (uv.getValue().equals(u1v1.getValue()) && (gGraph.getArc(uv.getKey(), u1v1.getKey()) != null));
+    }
+
+    // Asking the factors keeps the product from being reindexed on every check
+    private boolean isTensorAdjacent(Pair<Node, Node> uv, Pair<Node, Node> u1v1) {
+        return (gGraph.getArc(uv.getKey(), u1v1.getKey()) != null)
+                && (hGraph.getArc(uv.getValue(), u1v1.getValue()) != null);
+    }
+
+    // Pairs linked both ways get a single undirected arc, added when the first of them is visited
+    private void addProductArc(Graph product, int uvIter, int u1v1Iter, boolean isLinkedBack) {
+        if (isLinkedBack && u1v1Iter < uvIter) {
+            return;
+        }
+
+        product.getArcs().add(new Arc(
+                nodePairsMatching.get(nodePairs.get(uvIter)),
+                nodePairsMatching.get(nodePairs.get(u1v1Iter)),
+                !isLinkedBack
+        ));
+    }
+
     private void initNodesMatching(Graph product) {
         for (Node u : gGraph.getNodes()) {
             for (Node v : hGraph.getNodes()) {
@@ -0,0 +1,390 @@
+package controller;
+
+import model.CompactGraph;
+import model.Graph;
+import model.NeighborCursor;
+import model.Path;
+
+import java.util.*;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicReference;
+
+
+// Search of a single Hamiltonian cycle in a graph too large for the exact one: Pósa rotation-extension
+// with random restarts. Only nodes with arcs both ways between them count as adjacent, the path is reversed
+// in parts. A cycle returned is checked along the arcs of the graph, null means none was found in time
+public class HamiltonianCycleHeuristic {
+    private static final int NONE = -1;
+    private static final int STEPS_PER_TIME_CHECK = 256;
+
+    // A restart follows when the path hasn't grown for this many steps per node
+    private static final int STALLED_STEPS_PER_NODE = 4;
+
+    // Rotations that haven't helped for long are given up, a short end part of the path is searched anew
+    private static final int STALLED_STEPS_PER_REPAIR = 1024;
+    private static final int PATH_PARTS_PER_TRUNCATION = 1000;
+    private static final long SEED = 0x2545F4914F6CDD1DL;
+
+    private CompactGraph compactGraph;
+    private int nodesCount;
+
+    // Neighbors of node v take positions offsets[v] .. offsets[v + 1] - 1, sorted
+    private int[] offsets;
+    private int[] neighbors;
+
+
+    public HamiltonianCycleHeuristic(Graph graph) {
+        this(graph.getCompactGraph());
+    }
+
+    public HamiltonianCycleHeuristic(CompactGraph compactGraph) {
+        this.compactGraph = compactGraph;
+
+        nodesCount = compactGraph.nodesCount();
+        buildNeighbors();
+    }
+
+    public Path findCycle(long timeBudgetMillis) {
+        long deadline = System.nanoTime() + timeBudgetMillis * 1_000_000;
+
+        return pathOf(new Search(new SplittableRandom(SEED), deadline, new AtomicReference<>()).run());
+    }
+
+    // Searches from different seeds run on the fork-join pool, the first cycle found stops the rest
+    public Path findCycleInParallel(long timeBudgetMillis) {
+        long deadline = System.nanoTime() + timeBudgetMillis * 1_000_000;
+        AtomicReference<int[]> found = new AtomicReference<>();
+        SplittableRandom seeds = new SplittableRandom(SEED);
+        List<RecursiveAction> searches = new ArrayList<>();
+
+        for (int searchIter = 0; searchIter < Runtime.getRuntime().availableProcessors(); searchIter++) {
+            Search search = new Search(seeds.split(), deadline, found);
+
+            searches.add(new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    search.run();
+                }
+            });
+        }
+
+        RecursiveAction.invokeAll(searches);
+
+        return pathOf(found.get());
+    }
+
+    /*
+     *      Utility
+     */
+
+    private void buildNeighbors() {
+        NeighborCursor successors = compactGraph.cursor();
+
+        offsets = new int[nodesCount + 1];
+        int[] rows = new int[compactGraph.arcsCount() + 1];
+        int rowsSize = 0;
+
+        for (int node = 0; node < nodesCount; node++) {
+            successors.reset(node);
+
+            for (int successor = successors.next(); successor != -1; successor = successors.next()) {
+                boolean isRepeated = rowsSize > offsets[node] && rows[rowsSize - 1] == successor;
+
+                if (successor != node && !isRepeated && compactGraph.arcPosition(successor, node) != -1) {
+                    if (rowsSize == rows.length) {
+                        rows = Arrays.copyOf(rows, 2 * rows.length);
+                    }
+                    rows[rowsSize++] = successor;
+                }
+            }
+
+            offsets[node + 1] = rowsSize;
+        }
+
+        neighbors = Arrays.copyOf(rows, rowsSize);
+    }
+
+    private boolean isAdjacent(int first, int second) {
+        return Arrays.binarySearch(neighbors, offsets[first], offsets[first + 1], second) >= 0;
+    }
+
+    // Every step of the cycle and the way back to its start must be an arc
+    private boolean isCycle(int[] cycle) {
+        if (cycle.length != nodesCount) {
+            return false;
+        }
+
+        boolean[] isMet = new boolean[nodesCount];
+
+        for (int position = 0; position < nodesCount; position++) {
+            int next = cycle[(position + 1) % nodesCount];
+
+            if (isMet[cycle[position]] || compactGraph.arcPosition(cycle[position], next) == -1) {
+                return false;
+            }
+
+            isMet[cycle[position]] = true;
+        }
+
+        return true;
+    }
+
+    private Path pathOf(int[] cycle) {
+        if (cycle == null) {
+            return null;
+        }
+
+        Path path = new Path();
+
+        for (int node : cycle) {
+            path.getPath().add(compactGraph.nodeAt(node));
+        }
+        path.getPath().add(compactGraph.nodeAt(cycle[0]));
+
+        return path;
+    }
+
+    // Path kept in an array with the position of every node on it. The path grows from its end to an unvisited
+    // neighbor; a stuck end is rotated: for a neighbor w of the end, the part after w is reversed and the node
+    // that followed w becomes the end. A path closing into a cycle is opened next to a node with an unvisited
+    // neighbor, a Hamiltonian path is closed by an exchange of two steps
+    private class Search {
+        private SplittableRandom random;
+        private long deadline;
+        private AtomicReference<int[]> found;
+
+        private int[] path;
+        private int[] positions;
+        private int length;
+
+        // Count of the neighbors not on the path yet, for every node
+        private int[] freeDegrees;
+
+
+        Search(SplittableRandom random, long deadline, AtomicReference<int[]> found) {
+            this.random = random;
+            this.deadline = deadline;
+            this.found = found;
+
+            path = new int[nodesCount];
+            positions = new int[nodesCount];
+            freeDegrees = new int[nodesCount];
+        }
+
+        int[] run() {
+            if (nodesCount == 0) {
+                return null;
+            }
+
+            if (nodesCount == 1) {
+                return compactGraph.arcPosition(0, 0) != -1 ? new int[]{0} : null;
+            }
+
+            long steps = 0;
+
+            while (found.get() == null) {
+                restart();
+
+                int longest = length;
+                long stalledSteps = 0;
+
+                while (stalledSteps < (long) STALLED_STEPS_PER_NODE * nodesCount) {
+                    if (++steps % STEPS_PER_TIME_CHECK == 0 && (System.nanoTime() > deadline || found.get() != null)) {
+                        return found.get();
+                    }
+
+                    if (step()) {
+                        int[] cycle = Arrays.copyOf(path, nodesCount);
+
+                        if (!isCycle(cycle)) {
+                            throw new IllegalStateException("Hamiltonian cycle found is broken");
+                        }
+
+                        found.compareAndSet(null, cycle);
+                        return found.get();
+                    }
+
+                    if (length > longest) {
+                        longest = length;
+                        stalledSteps = 0;
+                    } else if (++stalledSteps % STALLED_STEPS_PER_REPAIR == 0) {
+                        truncate();
+                    }
+                }
+            }
+
+            return found.get();
+        }
+
+        private void restart() {
+            Arrays.fill(positions, NONE);
+
+            for (int node = 0; node < nodesCount; node++) {
+                freeDegrees[node] = offsets[node + 1] - offsets[node];
+            }
+
+            length = 0;
+            append(random.nextInt(nodesCount));
+        }
+
+        // True once the path is a Hamiltonian cycle
+        private boolean step() {
+            int end = path[length - 1];
+            int unvisited = unvisitedNeighbor(end);
+
+            if (unvisited != NONE) {
+                append(unvisited);
+                return false;
+            }
+
+            if (isAdjacent(end, path[0])) {
+                if (length == nodesCount) {
+                    return true;
+                }
+
+                if (openCycle()) {
+                    return false;
+                }
+            }
+
+            if (length == nodesCount && closeByExchange()) {
+                return true;
+            }
+
+            rotate(end);
+
+            return false;
+        }
+
+        // Of the unvisited neighbors the one with the fewest unvisited neighbors of its own is taken, so nodes
+        // about to be cut off come first. Ties are broken by a random start of the scan
+        private int unvisitedNeighbor(int node) {
+            int degree = offsets[node + 1] - offsets[node];
+
+            if (degree == 0 || freeDegrees[node] == 0) {
+                return NONE;
+            }
+
+            int first = random.nextInt(degree);
+            int best = NONE;
+
+            for (int shift = 0; shift < degree; shift++) {
+                int neighbor = neighbors[offsets[node] + (first + shift) % degree];
+
+                if (positions[neighbor] == NONE && (best == NONE || freeDegrees[neighbor] < freeDegrees[best])) {
+                    best = neighbor;
+                }
+            }
+
+            return best;
+        }
+
+        // The path closes into a cycle, it's opened right after a node with an unvisited neighbor,
+        // so that node becomes the end
+        private boolean openCycle() {
+            for (int position = 0; position < length; position++) {
+                if (freeDegrees[path[position]] > 0) {
+                    reverse(0, position);
+                    reverse(position + 1, length - 1);
+                    reverse(0, length - 1);
+
+                    return true;
+                }
+            }
+
+            return false;
+        }
+
+        // For a neighbor path[i + 1] of the start with path[i] next to the end, the path
+        // path[0] .. path[i], path[n - 1] .. path[i + 1] closes into a cycle
+        private boolean closeByExchange() {
+            int start = path[0];
+            int end = path[length - 1];
+
+            for (int position = offsets[start]; position < offsets[start + 1]; position++) {
+                int next = positions[neighbors[position]];
+
+                if (next > 1 && isAdjacent(path[next - 1], end)) {
+                    reverse(next, length - 1);
+                    return true;
+                }
+            }
+
+            return false;
+        }
+
+        // The end is joined to a neighbor other than the node before it, the part after that neighbor
+        // is reversed. A rotation that brings an end with unvisited neighbors is preferred, a random one
+        // is taken otherwise. Now and then the whole path is reversed to work on the other end
+        private void rotate(int end) {
+            int degree = offsets[end + 1] - offsets[end];
+
+            if (degree < 2 || random.nextInt(STALLED_STEPS_PER_NODE * 2) == 0) {
+                reverse(0, length - 1);
+                return;
+            }
+
+            int first = random.nextInt(degree);
+            int pivot = NONE;
+
+            for (int shift = 0; shift < degree; shift++) {
+                int position = positions[neighbors[offsets[end] + (first + shift) % degree]];
+
+                if (position < length - 2) {
+                    pivot = position;
+
+                    if (freeDegrees[path[position + 1]] > 0) {
+                        break;
+                    }
+                }
+            }
+
+            if (pivot == NONE) {
+                reverse(0, length - 1);
+                return;
+            }
+
+            reverse(pivot + 1, length - 1);
+        }
+
+        // Up to a thousandth of the path, one node at least, is cut off its end but the start is kept.
+        // The nodes cut off become unvisited again
+        private void truncate() {
+            int newLength = Math.max(1, length - 1 - random.nextInt(Math.max(1, length / PATH_PARTS_PER_TRUNCATION)));
+
+            while (length > newLength) {
+                int node = path[--length];
+
+                positions[node] = NONE;
+
+                for (int position = offsets[node]; position < offsets[node + 1]; position++) {
+                    freeDegrees[neighbors[position]]++;
+                }
+            }
+        }
+
+        private void append(int node) {
+            path[length] = node;
+            positions[node] = length;
+            length++;
+
+            for (int position = offsets[node]; position < offsets[node + 1]; position++) {
+                freeDegrees[neighbors[position]]--;
+            }
+        }
+
+        private void reverse(int from, int to) {
+            while (from < to) {
+                int node = path[from];
+
+                path[from] = path[to];
+                path[to] = node;
+                positions[path[from]] = from;
+                positions[path[to]] = to;
+
+                from++;
+                to--;
+            }
+        }
+    }
+}
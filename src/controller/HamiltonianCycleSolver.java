@@ -0,0 +1,265 @@
+package controller;
+
+import model.CompactGraph;
+import model.Graph;
+import model.NeighborCursor;
+import model.Path;
+
+import java.util.*;
+
+
+// Held-Karp dynamic programming over subsets for the Hamiltonian cycles of a graph snapshot, arcs are followed
+// along their directions. Cycles are taken from node 0: a table row per subset of the other nodes keeps
+// the nodes a path from node 0 through exactly that subset may end at, or the counts of such paths
+public class HamiltonianCycleSolver {
+    // 2^25 ints of ends and 2^20 * 20 longs of counts, both tables fit into a few hundred megabytes
+    public static final int MAX_NODES_COUNT = 26;
+    public static final int MAX_COUNTING_NODES_COUNT = 21;
+
+    private static final int START = 0;
+
+    private CompactGraph compactGraph;
+    private int nodesCount;
+
+    // Nodes but the start are bits 0 .. nodesCount - 2, bit i stands for node i + 1
+    private int otherNodesCount;
+    private int[] predecessors;
+    private int startSuccessors;
+    private int startPredecessors;
+
+    private int[] ends;
+
+
+    public HamiltonianCycleSolver(Graph graph) {
+        this(graph.getCompactGraph());
+    }
+
+    public HamiltonianCycleSolver(CompactGraph compactGraph) {
+        this.compactGraph = compactGraph;
+
+        nodesCount = compactGraph.nodesCount();
+        otherNodesCount = Math.max(0, nodesCount - 1);
+        buildMasks();
+    }
+
+    public boolean hasCycle() {
+        return cycle() != null;
+    }
+
+    // A Hamiltonian cycle from node 0 back to it, null if there is none
+    public Path cycle() {
+        checkNodesCount(MAX_NODES_COUNT);
+
+        if (nodesCount == 0) {
+            return null;
+        }
+
+        if (nodesCount == 1) {
+            return isLoopAtStart() ? pathOf(new int[]{START, START}) : null;
+        }
+
+        fillEnds();
+
+        int fullMask = (1 << otherNodesCount) - 1;
+        int closingEnds = ends[fullMask] & startPredecessors;
+
+        if (closingEnds == 0) {
+            return null;
+        }
+
+        // The path is restored backwards, every subset row tells which node may come before the last one
+        int[] cycle = new int[nodesCount + 1];
+        int mask = fullMask;
+        int last = Integer.numberOfTrailingZeros(closingEnds);
+
+        cycle[0] = START;
+        cycle[nodesCount] = START;
+
+        for (int position = nodesCount - 1; position > 0; position--) {
+            cycle[position] = last + 1;
+            mask ^= 1 << last;
+
+            if (mask != 0) {
+                last = Integer.numberOfTrailingZeros(ends[mask] & predecessors[last]);
+            }
+        }
+
+        return pathOf(cycle);
+    }
+
+    // Count of Hamiltonian cycles the way HamiltonianCyclesFinder counts them: a cycle and its reversal
+    // are one cycle when both exist, so a cycle of undirected arcs is counted once
+    public long cyclesCount() {
+        checkNodesCount(MAX_COUNTING_NODES_COUNT);
+
+        if (nodesCount == 0) {
+            return 0;
+        }
+
+        if (nodesCount == 1) {
+            return isLoopAtStart() ? 1 : 0;
+        }
+
+        long[] counts = new long[(1 << otherNodesCount) * otherNodesCount];
+        long cyclesCount = countCycles(counts, predecessors, startSuccessors, startPredecessors);
+
+        // Two nodes make a single cycle that is its own reversal
+        if (nodesCount == 2) {
+            return cyclesCount;
+        }
+
+        // A reversible cycle goes along two-way pairs only and is counted once in either direction
+        if (isSymmetric()) {
+            return cyclesCount / 2;
+        }
+
+        int[] twoWayPredecessors = new int[otherNodesCount];
+
+        for (int node = 0; node < otherNodesCount; node++) {
+            for (int previous = predecessors[node]; previous != 0; previous &= previous - 1) {
+                int predecessor = Integer.numberOfTrailingZeros(previous);
+
+                if ((predecessors[predecessor] & (1 << node)) != 0) {
+                    twoWayPredecessors[node] |= 1 << predecessor;
+                }
+            }
+        }
+
+        int twoWayStart = startSuccessors & startPredecessors;
+
+        return cyclesCount - countCycles(counts, twoWayPredecessors, twoWayStart, twoWayStart) / 2;
+    }
+
+    /*
+     *      Utility
+     */
+
+    // Cycles from node 0 as sequences of nodes, the counts table is of paths through a subset ending at a node
+    private long countCycles(long[] counts, int[] predecessors, int startSuccessors, int startPredecessors) {
+        Arrays.fill(counts, 0);
+
+        for (int node = 0; node < otherNodesCount; node++) {
+            if ((startSuccessors & (1 << node)) != 0) {
+                counts[(1 << node) * otherNodesCount + node] = 1;
+            }
+        }
+
+        for (int mask = 1; mask < 1 << otherNodesCount; mask++) {
+            if (Integer.bitCount(mask) < 2) {
+                continue;
+            }
+
+            for (int remaining = mask; remaining != 0; remaining &= remaining - 1) {
+                int last = Integer.numberOfTrailingZeros(remaining);
+                int previousMask = mask ^ (1 << last);
+                long count = 0;
+
+                for (int previous = previousMask & predecessors[last]; previous != 0; previous &= previous - 1) {
+                    count += counts[previousMask * otherNodesCount + Integer.numberOfTrailingZeros(previous)];
+                }
+
+                counts[mask * otherNodesCount + last] = count;
+            }
+        }
+
+        int fullMask = (1 << otherNodesCount) - 1;
+        long cyclesCount = 0;
+
+        for (int last = startPredecessors; last != 0; last &= last - 1) {
+            cyclesCount += counts[fullMask * otherNodesCount + Integer.numberOfTrailingZeros(last)];
+        }
+
+        return cyclesCount;
+    }
+
+    // Every arc between two distinct nodes has its reverse
+    private boolean isSymmetric() {
+        if (startSuccessors != startPredecessors) {
+            return false;
+        }
+
+        for (int node = 0; node < otherNodesCount; node++) {
+            for (int previous = predecessors[node]; previous != 0; previous &= previous - 1) {
+                if ((predecessors[Integer.numberOfTrailingZeros(previous)] & (1 << node)) == 0) {
+                    return false;
+                }
+            }
+        }
+
+        return true;
+    }
+
+    private void buildMasks() {
+        NeighborCursor successors = compactGraph.cursor();
+
+        predecessors = new int[otherNodesCount];
+
+        if (nodesCount > MAX_NODES_COUNT) {
+            return;
+        }
+
+        for (int node = 0; node < nodesCount; node++) {
+            successors.reset(node);
+
+            for (int successor = successors.next(); successor != -1; successor = successors.next()) {
+                if (node == START && successor != START) {
+                    startSuccessors |= 1 << (successor - 1);
+                } else if (successor == START && node != START) {
+                    startPredecessors |= 1 << (node - 1);
+                } else if (node != successor) {
+                    predecessors[successor - 1] |= 1 << (node - 1);
+                }
+            }
+        }
+    }
+
+    // A node may end the path through a subset when a node it is reachable from ends the path through the rest
+    private void fillEnds() {
+        if (ends != null) {
+            return;
+        }
+
+        ends = new int[1 << otherNodesCount];
+
+        for (int mask = 1; mask < ends.length; mask++) {
+            if (Integer.bitCount(mask) == 1) {
+                ends[mask] = mask & startSuccessors;
+                continue;
+            }
+
+            int maskEnds = 0;
+
+            for (int remaining = mask; remaining != 0; remaining &= remaining - 1) {
+                int last = Integer.numberOfTrailingZeros(remaining);
+
+                if ((ends[mask ^ (1 << last)] & predecessors[last]) != 0) {
+                    maskEnds |= 1 << last;
+                }
+            }
+
+            ends[mask] = maskEnds;
+        }
+    }
+
+    private boolean isLoopAtStart() {
+        return compactGraph.cursor().reset(START).next() == START;
+    }
+
+    private void checkNodesCount(int maxNodesCount) {
+        if (nodesCount > maxNodesCount) {
+            throw new IllegalArgumentException(
+                    "Graph of " + nodesCount + " nodes is too large, " + maxNodesCount + " nodes at most are supported"
+            );
+        }
+    }
+
+    private Path pathOf(int[] nodes) {
+        Path path = new Path();
+
+        for (int node : nodes) {
+            path.getPath().add(compactGraph.nodeAt(node));
+        }
+
+        return path;
+    }
+}
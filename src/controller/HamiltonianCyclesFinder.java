@@ -0,0 +1,359 @@
+package controller;
+
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import model.CompactGraph;
+import model.Graph;
+import model.NeighborCursor;
+import model.Path;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+
+// Search of the Hamiltonian cycles of a graph snapshot, arcs are followed along their directions. Every cycle
+// is found once: it starts at node 0, and of a cycle and its reversal only the one with the smaller second
+// node is taken. When every arc has its reverse, branches that can't end at a larger neighbor of node 0
+// than the second node are cut. The search tree is split into tasks on the fork-join pool while there are idle workers
+public class HamiltonianCyclesFinder {
+    private static final int START = 0;
+
+    // Subtrees of the last levels are too small to be worth a task of their own
+    private static final int SEQUENTIAL_DEPTH = 6;
+    private static final int MAX_SURPLUS_TASKS = 2;
+    private static final int STEPS_PER_STOP_CHECK = 1024;
+
+    private CompactGraph compactGraph;
+    private int nodesCount;
+
+    // Every cycle has its reversal, the one taken ends at a larger node than it starts with
+    private boolean isReversible;
+    private boolean[] isStartPredecessor;
+
+
+    public HamiltonianCyclesFinder(Graph graph) {
+        this(graph.getCompactGraph());
+    }
+
+    public HamiltonianCyclesFinder(CompactGraph compactGraph) {
+        this.compactGraph = compactGraph;
+
+        nodesCount = compactGraph.nodesCount();
+        isReversible = nodesCount >= 3 && isSymmetric();
+
+        if (isReversible) {
+            isStartPredecessor = new boolean[nodesCount];
+
+            for (int position = compactGraph.inRowBegin(START); position < compactGraph.inRowEnd(START); position++) {
+                isStartPredecessor[compactGraph.sourceAt(position)] = true;
+            }
+        }
+    }
+
+    // Finding all of hamiltonian cycles in the graph
+    public ObservableList<Path> hamiltonianCycles() {
+        ObservableList<Path> hamiltonianCycles = FXCollections.observableArrayList();
+
+        for (int[] cycle : cycles()) {
+            hamiltonianCycles.add(pathOf(cycle));
+        }
+
+        return hamiltonianCycles;
+    }
+
+    // Cycles as node indices from node 0 on, the closing arc back to it is implied.
+    // They come in the lexicographic order
+    public List<int[]> cycles() {
+        SearchTask search = startSearch(true);
+
+        return search == null ? new ArrayList<>() : search.cycles;
+    }
+
+    public long cyclesCount() {
+        SearchTask search = startSearch(false);
+
+        return search == null ? 0 : search.cyclesCount;
+    }
+
+    // Cycles are put into the stream as soon as they are found, in no particular order. The search ends
+    // when the stream wants no more of them, the count of cycles put is returned
+    public long streamCycles(HamiltonianCyclesStream stream) {
+        startSearch(stream);
+
+        return stream.getCount();
+    }
+
+    // The closed path of the cycle, node 0 ends it again
+    public Path pathOf(int[] cycle) {
+        Path path = new Path();
+
+        for (int node : cycle) {
+            path.getPath().add(compactGraph.nodeAt(node));
+        }
+        path.getPath().add(compactGraph.nodeAt(cycle[0]));
+
+        return path;
+    }
+
+    /*
+     *      Utility
+     */
+
+    private SearchTask startSearch(boolean isCollecting) {
+        return startSearch(new SearchTask(isCollecting, null));
+    }
+
+    private SearchTask startSearch(HamiltonianCyclesStream stream) {
+        return startSearch(new SearchTask(false, stream));
+    }
+
+    private SearchTask startSearch(SearchTask search) {
+        if (nodesCount == 0) {
+            return null;
+        }
+
+        int[] path = new int[nodesCount];
+        boolean[] isVisited = new boolean[nodesCount];
+
+        path[0] = START;
+        isVisited[START] = true;
+
+        search.setPrefix(path, 1, isVisited);
+        ForkJoinPool.commonPool().invoke(search);
+
+        return search;
+    }
+
+    private boolean isArc(int begin, int end) {
+        return compactGraph.arcPosition(begin, end) != -1;
+    }
+
+    // Every arc between two distinct nodes has its reverse
+    private boolean isSymmetric() {
+        for (int node = 0; node < nodesCount; node++) {
+            for (int position = compactGraph.rowBegin(node); position < compactGraph.rowEnd(node); position++) {
+                int target = compactGraph.targetAt(position);
+
+                if (target != node && !isArc(target, node)) {
+                    return false;
+                }
+            }
+        }
+
+        return true;
+    }
+
+    // The full path closes into a cycle that is the one taken of it and its reversal
+    private boolean isCanonicalCycle(int[] path) {
+        if (!isArc(path[nodesCount - 1], START)) {
+            return false;
+        }
+
+        if (nodesCount < 3 || path[1] < path[nodesCount - 1]) {
+            return true;
+        }
+
+        if (!isArc(START, path[nodesCount - 1]) || !isArc(path[1], START)) {
+            return true;
+        }
+
+        for (int position = 1; position + 1 < nodesCount; position++) {
+            if (!isArc(path[position + 1], path[position])) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    // The subtree of the path prefix given: forked by the next node while the pool has idle workers
+    // and the subtree is deep enough, searched in place otherwise. Cycles are collected, only counted
+    // or put into the stream
+    @SuppressWarnings("serial")
+    private class SearchTask extends RecursiveAction {
+        private int[] path;
+        private int depth;
+        private boolean[] isVisited;
+        private boolean isCollecting;
+        private HamiltonianCyclesStream stream;
+
+        private List<int[]> cycles;
+        private long cyclesCount;
+
+        // Unvisited nodes the path may still end at, when the cycles are reversible
+        private int closersLeft;
+
+
+        SearchTask(boolean isCollecting, HamiltonianCyclesStream stream) {
+            this.isCollecting = isCollecting;
+            this.stream = stream;
+
+            cycles = new ArrayList<>();
+        }
+
+        void setPrefix(int[] path, int depth, boolean[] isVisited) {
+            this.path = path;
+            this.depth = depth;
+            this.isVisited = isVisited;
+
+            if (isReversible && depth >= 2) {
+                closersLeft = countClosers();
+            }
+        }
+
+        @Override
+        protected void compute() {
+            if (stream != null && stream.isDone()) {
+                return;
+            }
+
+            if (depth == nodesCount) {
+                addIfCanonical();
+                return;
+            }
+
+            if (isCutOff()) {
+                return;
+            }
+
+            if (depth >= nodesCount - SEQUENTIAL_DEPTH || getSurplusQueuedTaskCount() > MAX_SURPLUS_TASKS) {
+                search();
+                return;
+            }
+
+            List<SearchTask> subtasks = new ArrayList<>();
+            NeighborCursor successors = compactGraph.cursor().reset(path[depth - 1]);
+
+            for (int successor = successors.next(); successor != -1; successor = successors.next()) {
+                if (!isVisited[successor]) {
+                    int[] subtaskPath = Arrays.copyOf(path, nodesCount);
+                    boolean[] subtaskVisited = Arrays.copyOf(isVisited, nodesCount);
+
+                    subtaskPath[depth] = successor;
+                    subtaskVisited[successor] = true;
+
+                    SearchTask subtask = new SearchTask(isCollecting, stream);
+                    subtask.setPrefix(subtaskPath, depth + 1, subtaskVisited);
+                    subtasks.add(subtask);
+                }
+            }
+
+            invokeAll(subtasks);
+
+            for (SearchTask subtask : subtasks) {
+                cycles.addAll(subtask.cycles);
+                cyclesCount += subtask.cyclesCount;
+            }
+        }
+
+        // Depth-first search with a cursor per level of the path, nothing is allocated per step
+        private void search() {
+            NeighborCursor[] successors = new NeighborCursor[nodesCount];
+            int prefixDepth = depth;
+            long steps = 0;
+
+            successors[depth - 1] = compactGraph.cursor().reset(path[depth - 1]);
+
+            while (depth >= prefixDepth) {
+                if (stream != null && ++steps % STEPS_PER_STOP_CHECK == 0 && stream.isDone()) {
+                    return;
+                }
+
+                if (depth == nodesCount) {
+                    addIfCanonical();
+                    leave(--depth);
+                    continue;
+                }
+
+                int successor = successors[depth - 1].next();
+
+                while (successor != -1 && isVisited[successor]) {
+                    successor = successors[depth - 1].next();
+                }
+
+                if (successor == -1) {
+                    if (--depth >= prefixDepth) {
+                        leave(depth);
+                    }
+                    continue;
+                }
+
+                enter(depth, successor);
+                depth++;
+
+                if (isCutOff()) {
+                    leave(--depth);
+                    continue;
+                }
+
+                if (depth < nodesCount) {
+                    if (successors[depth - 1] == null) {
+                        successors[depth - 1] = compactGraph.cursor();
+                    }
+                    successors[depth - 1].reset(successor);
+                }
+            }
+        }
+
+        private void enter(int position, int node) {
+            path[position] = node;
+            isVisited[node] = true;
+
+            if (isReversible) {
+                if (position == 1) {
+                    closersLeft = countClosers();
+                } else if (isCloser(node)) {
+                    closersLeft--;
+                }
+            }
+        }
+
+        private void leave(int position) {
+            isVisited[path[position]] = false;
+
+            if (isReversible && position >= 2 && isCloser(path[position])) {
+                closersLeft++;
+            }
+        }
+
+        // The reversal of any cycle through the path has the smaller second node, if it closes at all
+        private boolean isCutOff() {
+            return isReversible && depth >= 2 && depth < nodesCount && closersLeft == 0;
+        }
+
+        private boolean isCloser(int node) {
+            return node > path[1] && isStartPredecessor[node];
+        }
+
+        private int countClosers() {
+            int closers = 0;
+
+            for (int node = path[1] + 1; node < nodesCount; node++) {
+                if (!isVisited[node] && isStartPredecessor[node]) {
+                    closers++;
+                }
+            }
+
+            return closers;
+        }
+
+        private void addIfCanonical() {
+            if (!isCanonicalCycle(path)) {
+                return;
+            }
+
+            if (stream != null) {
+                if (stream.isWanted() && !stream.isCountOnly()) {
+                    stream.put(pathOf(path));
+                }
+            } else {
+                cyclesCount++;
+
+                if (isCollecting) {
+                    cycles.add(Arrays.copyOf(path, nodesCount));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package controller;
+
+import model.Path;
+
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+// Bounded channel the Hamiltonian cycles search puts cycles into as they are found. The search waits while
+// the channel is full, so cycles nobody has taken yet don't pile up. It ends after the first 'limit' cycles
+// or when stopped; a count only stream keeps no cycles at all
+public class HamiltonianCyclesStream {
+    public static final long UNLIMITED = Long.MAX_VALUE;
+
+    private static final int CAPACITY = 1024;
+    private static final long PUT_TIMEOUT_MILLIS = 50;
+
+    private BlockingQueue<Path> channel;
+    private long limit;
+    private boolean isCountOnly;
+
+    private AtomicLong count;
+    private volatile boolean isStopped;
+
+
+    private HamiltonianCyclesStream(long limit, boolean isCountOnly) {
+        this.limit = limit;
+        this.isCountOnly = isCountOnly;
+
+        channel = new ArrayBlockingQueue<>(CAPACITY);
+        count = new AtomicLong();
+    }
+
+    public static HamiltonianCyclesStream firstCycles(long limit) {
+        return new HamiltonianCyclesStream(limit, false);
+    }
+
+    public static HamiltonianCyclesStream countOnly() {
+        return new HamiltonianCyclesStream(UNLIMITED, true);
+    }
+
+    public boolean isCountOnly() {
+        return isCountOnly;
+    }
+
+    // Cycles found so far, some of them may still be in the channel
+    public long getCount() {
+        return count.get();
+    }
+
+    public boolean isStopped() {
+        return isStopped;
+    }
+
+    // No more cycles are wanted, the search may end
+    public boolean isDone() {
+        return isStopped || count.get() >= limit;
+    }
+
+    public void stop() {
+        isStopped = true;
+    }
+
+    // Moves the cycles waiting in the channel to the collection given, their count is returned
+    public int drainTo(Collection<Path> cycles, int maxCount) {
+        return channel.drainTo(cycles, maxCount);
+    }
+
+    /*
+     *      Search side
+     */
+
+    // The cycle is counted only if it's within the limit
+    boolean isWanted() {
+        while (!isStopped) {
+            long current = count.get();
+
+            if (current >= limit) {
+                return false;
+            }
+
+            if (count.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    // Waits for room in the channel, gives up only if the stream is stopped meanwhile. The wait is managed,
+    // so the fork-join pool may make up for the worker it blocks with another thread
+    void put(Path cycle) {
+        try {
+            ForkJoinPool.managedBlock(new Putting(cycle));
+        } catch (InterruptedException ex) {
+            isStopped = true;
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private class Putting implements ForkJoinPool.ManagedBlocker {
+        private Path cycle;
+        private boolean isPut;
+
+
+        Putting(Path cycle) {
+            this.cycle = cycle;
+        }
+
+        @Override
+        public boolean block() throws InterruptedException {
+            while (!isReleasable()) {
+                isPut = channel.offer(cycle, PUT_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+            }
+
+            return true;
+        }
+
+        @Override
+        public boolean isReleasable() {
+            return isPut || isStopped || (isPut = channel.offer(cycle));
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package controller;
+
+import javafx.geometry.Point2D;
+import model.CompactGraph;
+import model.Node;
+import model.ShortestPathFinder;
+
+import java.util.Map;
+
+
+// Coordinates of a snapshot's nodes by their indices with the scale of the A* estimate over them.
+// Built once for a positions map, then kept while the same map comes for the same snapshot
+class NodeCoordinates {
+    private CompactGraph compactGraph;
+    private Map<Node, Point2D> positions;
+
+    // Null if some node has no position
+    private double[] xs;
+    private double[] ys;
+    private double scale;
+
+
+    NodeCoordinates(ShortestPathFinder finder, Map<Node, Point2D> positions) {
+        this.compactGraph = finder.getCompactGraph();
+        this.positions = positions;
+
+        double[] xs = new double[compactGraph.nodesCount()];
+        double[] ys = new double[compactGraph.nodesCount()];
+
+        for (int index = 0; index < compactGraph.nodesCount(); index++) {
+            Point2D position = positions.get(compactGraph.nodeAt(index));
+
+            if (position == null) {
+                return;
+            }
+
+            xs[index] = position.getX();
+            ys[index] = position.getY();
+        }
+
+        this.xs = xs;
+        this.ys = ys;
+        scale = finder.heuristicScale(xs, ys);
+    }
+
+    boolean isFor(ShortestPathFinder finder, Map<Node, Point2D> positions) {
+        return compactGraph == finder.getCompactGraph() && this.positions == positions;
+    }
+
+    boolean isComplete() {
+        return xs != null;
+    }
+
+    double[] getXs() {
+        return xs;
+    }
+
+    double[] getYs() {
+        return ys;
+    }
+
+    double getScale() {
+        return scale;
+    }
+}
@@ -0,0 +1,65 @@
+package controller;
+
+import javafx.concurrent.WorkerStateEvent;
+import model.CompactGraph;
+import model.Graph;
+
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+
+// Value derived from a graph, calculated on the first request and again only after the graph has changed
+public class VersionedValue<T> {
+    private static final long NOT_CALCULATED = -1;
+
+    private Graph graph;
+    private Supplier<T> calculation;
+    private Function<CompactGraph, T> snapshotCalculation;
+
+    private T value;
+    private long version;
+
+
+    public VersionedValue(Graph graph, Function<CompactGraph, T> snapshotCalculation) {
+        this(graph, () -> snapshotCalculation.apply(graph.getCompactGraph()), snapshotCalculation);
+    }
+
+    // The live calculation may use structures kept up to date with the graph, the snapshot one is run on workers
+    public VersionedValue(Graph graph, Supplier<T> calculation, Function<CompactGraph, T> snapshotCalculation) {
+        this.graph = graph;
+        this.calculation = calculation;
+        this.snapshotCalculation = snapshotCalculation;
+
+        version = NOT_CALCULATED;
+    }
+
+    public T get() {
+        if (version != graph.getVersion()) {
+            value = calculation.get();
+            version = graph.getVersion();
+        }
+
+        return value;
+    }
+
+    // Calculation against the current snapshot on a worker thread. The result is kept
+    // unless the graph has changed before it's ready
+    public AnalysisTask<T> calculateInBackground() {
+        if (version == graph.getVersion()) {
+            T actualValue = value;
+
+            return new AnalysisTask<>(graph.getCompactGraph(), snapshot -> actualValue).start();
+        }
+
+        AnalysisTask<T> task = new AnalysisTask<>(graph.getCompactGraph(), snapshotCalculation);
+
+        task.addEventHandler(WorkerStateEvent.WORKER_STATE_SUCCEEDED, event -> {
+            if (task.getVersion() == graph.getVersion()) {
+                value = task.getValue();
+                version = task.getVersion();
+            }
+        });
+
+        return task.start();
+    }
+}
@@ -12,6 +12,7 @@ public class XMLConstant {
     public static final String ARC = "arc";
     public static final String BEGIN_NODE = "begin_node";
     public static final String END_NODE = "end_node";
+    public static final String WEIGHT = "weight";
     public static final String IS_DIRECTED = "is_directed";
     public static final String TRUE = "true";
     public static final String FALSE = "false";
@@ -0,0 +1,43 @@
+package controller.verifier;
+
+import model.Arc;
+import model.Node;
+
+import java.util.List;
+import java.util.Set;
+
+
+// Subdivision of K5 or K3,3 found in a non-planar graph: its branch nodes are joined
+// by paths which have no other nodes in common
+public class KuratowskiSubgraph {
+    private boolean isK5;
+    private List<Node> branchNodes;
+    private Set<Node> nodes;
+    private List<Arc> arcs;
+
+
+    KuratowskiSubgraph(boolean isK5, List<Node> branchNodes, Set<Node> nodes, List<Arc> arcs) {
+        this.isK5 = isK5;
+        this.branchNodes = branchNodes;
+        this.nodes = nodes;
+        this.arcs = arcs;
+    }
+
+    // K3,3 otherwise
+    public boolean isK5() {
+        return isK5;
+    }
+
+    public List<Node> getBranchNodes() {
+        return branchNodes;
+    }
+
+    public Set<Node> getNodes() {
+        return nodes;
+    }
+
+    // Every arc of the graph between the subgraph's adjacent nodes, parallel ones included
+    public List<Arc> getArcs() {
+        return arcs;
+    }
+}
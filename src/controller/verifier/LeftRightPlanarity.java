@@ -0,0 +1,627 @@
+package controller.verifier;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+
+
+// Left-right planarity test of de Fraysseix and Rosenstiehl as formulated by Brandes, linear in V + E.
+// The graph is simple and undirected, edge i links edgeEnds[2 * i] and edgeEnds[2 * i + 1].
+// The embedding of a planar graph is built from the sides the test has given to the edges.
+// The depth-first searches run on explicit stacks, so long paths don't overflow the thread's stack
+class LeftRightPlanarity {
+    private static final int NONE = -1;
+
+    private int nodesCount;
+    private int edgesCount;
+    private int[] edgeEnds;
+
+    // Undirected adjacency: positions offsets[v] .. offsets[v + 1] - 1 of adjacentNodes/adjacentEdges
+    private int[] offsets;
+    private int[] adjacentNodes;
+    private int[] adjacentEdges;
+
+    // Depth-first orientation: every edge leads from 'sources' to 'targets', tree edges downwards
+    private int[] heights;
+    private int[] parentEdges;
+    private int[] sources;
+    private int[] targets;
+    private int[] lowpoints;
+    private int[] secondLowpoints;
+    private int[] nestingDepths;
+    private int[] roots;
+    private int rootsCount;
+
+    // Oriented edges of every node sorted by nesting depth, in the same layout as the adjacency
+    private int[] orderedOffsets;
+    private int[] orderedEdges;
+
+    // Constraints of the testing phase
+    private Deque<ConflictPair> conflictPairs;
+    private ConflictPair[] stackBottoms;
+    private int[] lowpointEdges;
+    private int[] references;
+    private int[] sides;
+
+    // Rotation system being built: half-edge 2e leads from sources[e] to targets[e], 2e + 1 back.
+    // Half-edges around the same node are linked both ways
+    private int[] clockwise;
+    private int[] counterclockwise;
+    private int[] firstHalfEdges;
+    private int[] leftReferences;
+    private int[] rightReferences;
+
+    // State of the iterative searches: the next adjacency position of a node
+    // and whether the node waits for the subtree of that position's edge
+    private int[] nextPositions;
+    private boolean[] isReturning;
+    private int[] nodesStack;
+
+
+    LeftRightPlanarity(int nodesCount, int[] edgeEnds) {
+        this.nodesCount = nodesCount;
+        this.edgeEnds = edgeEnds;
+
+        edgesCount = edgeEnds.length / 2;
+    }
+
+    boolean isPlanar() {
+        // Euler's bound, every planar graph with 3 nodes and more has at most 3V - 6 edges
+        if (nodesCount > 2 && edgesCount > 3 * nodesCount - 6) {
+            return false;
+        }
+
+        buildAdjacency();
+        orient();
+        sortByNestingDepth();
+
+        conflictPairs = new ArrayDeque<>();
+        stackBottoms = new ConflictPair[edgesCount];
+        lowpointEdges = new int[edgesCount];
+        references = new int[edgesCount];
+        sides = new int[edgesCount];
+
+        Arrays.fill(references, NONE);
+        Arrays.fill(sides, 1);
+        nextPositions = Arrays.copyOf(orderedOffsets, nodesCount);
+        Arrays.fill(isReturning, false);
+
+        for (int rootIter = 0; rootIter < rootsCount; rootIter++) {
+            if (!test(roots[rootIter])) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    // Neighbors of every node in clockwise order, node v's ones are at positions offsets()[v] .. offsets()[v + 1] - 1.
+    // To be called once the graph has been found planar
+    int[] clockwiseNeighbors() {
+        int[] chain = new int[edgesCount];
+
+        for (int edge = 0; edge < edgesCount; edge++) {
+            nestingDepths[edge] *= sign(edge, chain);
+        }
+
+        sortByNestingDepth();
+
+        clockwise = new int[2 * edgesCount];
+        counterclockwise = new int[2 * edgesCount];
+        firstHalfEdges = new int[nodesCount];
+        leftReferences = new int[nodesCount];
+        rightReferences = new int[nodesCount];
+
+        Arrays.fill(firstHalfEdges, NONE);
+
+        for (int node = 0; node < nodesCount; node++) {
+            int previousHalfEdge = NONE;
+
+            for (int position = orderedOffsets[node]; position < orderedOffsets[node + 1]; position++) {
+                addHalfEdgeClockwise(node, 2 * orderedEdges[position], previousHalfEdge);
+                previousHalfEdge = 2 * orderedEdges[position];
+            }
+        }
+
+        nextPositions = Arrays.copyOf(orderedOffsets, nodesCount);
+
+        for (int rootIter = 0; rootIter < rootsCount; rootIter++) {
+            embedFrom(roots[rootIter]);
+        }
+
+        int[] neighbors = new int[2 * edgesCount];
+
+        for (int node = 0; node < nodesCount; node++) {
+            int position = offsets[node];
+            int halfEdge = firstHalfEdges[node];
+
+            if (halfEdge == NONE) {
+                continue;
+            }
+
+            do {
+                neighbors[position++] = targetOf(halfEdge);
+                halfEdge = clockwise[halfEdge];
+            } while (halfEdge != firstHalfEdges[node]);
+        }
+
+        return neighbors;
+    }
+
+    int[] offsets() {
+        return offsets;
+    }
+
+    /*
+     *      Orientation
+     */
+
+    private void buildAdjacency() {
+        offsets = new int[nodesCount + 1];
+
+        for (int end : edgeEnds) {
+            offsets[end + 1]++;
+        }
+
+        for (int node = 0; node < nodesCount; node++) {
+            offsets[node + 1] += offsets[node];
+        }
+
+        adjacentNodes = new int[2 * edgesCount];
+        adjacentEdges = new int[2 * edgesCount];
+        int[] fillPositions = Arrays.copyOf(offsets, nodesCount);
+
+        for (int edge = 0; edge < edgesCount; edge++) {
+            int first = edgeEnds[2 * edge];
+            int second = edgeEnds[2 * edge + 1];
+
+            adjacentNodes[fillPositions[first]] = second;
+            adjacentEdges[fillPositions[first]++] = edge;
+            adjacentNodes[fillPositions[second]] = first;
+            adjacentEdges[fillPositions[second]++] = edge;
+        }
+    }
+
+    private void orient() {
+        heights = new int[nodesCount];
+        parentEdges = new int[nodesCount];
+        sources = new int[edgesCount];
+        targets = new int[edgesCount];
+        lowpoints = new int[edgesCount];
+        secondLowpoints = new int[edgesCount];
+        nestingDepths = new int[edgesCount];
+        roots = new int[nodesCount];
+
+        nextPositions = Arrays.copyOf(offsets, nodesCount);
+        isReturning = new boolean[nodesCount];
+        nodesStack = new int[nodesCount + 1];
+
+        Arrays.fill(heights, NONE);
+        Arrays.fill(parentEdges, NONE);
+        Arrays.fill(sources, NONE);
+
+        for (int node = 0; node < nodesCount; node++) {
+            if (heights[node] == NONE) {
+                heights[node] = 0;
+                roots[rootsCount++] = node;
+                orientFrom(node);
+            }
+        }
+    }
+
+    private void orientFrom(int root) {
+        int top = 0;
+        nodesStack[top++] = root;
+
+        while (top > 0) {
+            int node = nodesStack[--top];
+            int parentEdge = parentEdges[node];
+
+            for (; nextPositions[node] < offsets[node + 1]; nextPositions[node]++) {
+                int edge = adjacentEdges[nextPositions[node]];
+
+                if (!isReturning[node]) {
+                    if (sources[edge] != NONE) {
+                        continue;
+                    }
+
+                    int adjacent = adjacentNodes[nextPositions[node]];
+
+                    sources[edge] = node;
+                    targets[edge] = adjacent;
+                    lowpoints[edge] = heights[node];
+                    secondLowpoints[edge] = heights[node];
+
+                    // Tree edge, the node is resumed at the same position once the subtree is oriented
+                    if (heights[adjacent] == NONE) {
+                        parentEdges[adjacent] = edge;
+                        heights[adjacent] = heights[node] + 1;
+                        isReturning[node] = true;
+
+                        nodesStack[top++] = node;
+                        nodesStack[top++] = adjacent;
+                        break;
+                    }
+
+                    lowpoints[edge] = heights[adjacent];
+                }
+
+                isReturning[node] = false;
+
+                // Chordal edges are nested deeper than the ones with a single return point
+                nestingDepths[edge] = 2 * lowpoints[edge] + (secondLowpoints[edge] < heights[node] ? 1 : 0);
+
+                if (parentEdge != NONE) {
+                    updateLowpoints(parentEdge, edge);
+                }
+            }
+        }
+    }
+
+    private void updateLowpoints(int parentEdge, int edge) {
+        if (lowpoints[edge] < lowpoints[parentEdge]) {
+            secondLowpoints[parentEdge] = Math.min(lowpoints[parentEdge], secondLowpoints[edge]);
+            lowpoints[parentEdge] = lowpoints[edge];
+        } else if (lowpoints[edge] > lowpoints[parentEdge]) {
+            secondLowpoints[parentEdge] = Math.min(secondLowpoints[parentEdge], lowpoints[edge]);
+        } else {
+            secondLowpoints[parentEdge] = Math.min(secondLowpoints[parentEdge], secondLowpoints[edge]);
+        }
+    }
+
+    // Counting sort, nesting depths are below 2V + 2 in magnitude. They are signed by the sides for the embedding
+    private void sortByNestingDepth() {
+        int depthOffset = 2 * nodesCount + 2;
+        int[] depthCounts = new int[2 * depthOffset + 2];
+
+        for (int edge = 0; edge < edgesCount; edge++) {
+            depthCounts[nestingDepths[edge] + depthOffset + 1]++;
+        }
+
+        for (int depth = 0; depth + 1 < depthCounts.length; depth++) {
+            depthCounts[depth + 1] += depthCounts[depth];
+        }
+
+        int[] edgesByDepth = new int[edgesCount];
+
+        for (int edge = 0; edge < edgesCount; edge++) {
+            edgesByDepth[depthCounts[nestingDepths[edge] + depthOffset]++] = edge;
+        }
+
+        orderedOffsets = new int[nodesCount + 1];
+
+        for (int edge = 0; edge < edgesCount; edge++) {
+            orderedOffsets[sources[edge] + 1]++;
+        }
+
+        for (int node = 0; node < nodesCount; node++) {
+            orderedOffsets[node + 1] += orderedOffsets[node];
+        }
+
+        orderedEdges = new int[edgesCount];
+        int[] fillPositions = Arrays.copyOf(orderedOffsets, nodesCount);
+
+        for (int edge : edgesByDepth) {
+            orderedEdges[fillPositions[sources[edge]]++] = edge;
+        }
+    }
+
+    /*
+     *      Testing
+     */
+
+    private boolean test(int root) {
+        int top = 0;
+        nodesStack[top++] = root;
+
+        while (top > 0) {
+            int node = nodesStack[--top];
+            int parentEdge = parentEdges[node];
+            boolean isDescending = false;
+
+            for (; nextPositions[node] < orderedOffsets[node + 1]; nextPositions[node]++) {
+                int position = nextPositions[node];
+                int edge = orderedEdges[position];
+
+                if (!isReturning[node]) {
+                    stackBottoms[edge] = conflictPairs.peek();
+
+                    if (edge == parentEdges[targets[edge]]) {
+                        isReturning[node] = true;
+
+                        nodesStack[top++] = node;
+                        nodesStack[top++] = targets[edge];
+                        isDescending = true;
+                        break;
+                    }
+
+                    lowpointEdges[edge] = edge;
+                    conflictPairs.push(new ConflictPair(new Interval(), new Interval(edge, edge)));
+                }
+
+                isReturning[node] = false;
+
+                // The edge has return edges, they are to be integrated with the ones of its siblings
+                if (lowpoints[edge] < heights[node]) {
+                    if (position == orderedOffsets[node]) {
+                        lowpointEdges[parentEdge] = lowpointEdges[edge];
+                    } else if (!addConstraints(edge, parentEdge)) {
+                        return false;
+                    }
+                }
+            }
+
+            if (!isDescending && parentEdge != NONE) {
+                removeBackEdges(parentEdge);
+            }
+        }
+
+        return true;
+    }
+
+    private boolean addConstraints(int edge, int parentEdge) {
+        ConflictPair merged = new ConflictPair(new Interval(), new Interval());
+
+        // Return edges of the edge itself go to the right side
+        do {
+            ConflictPair pair = conflictPairs.pop();
+
+            if (!pair.left.isEmpty()) {
+                pair.swap();
+            }
+
+            if (!pair.left.isEmpty()) {
+                return false;
+            }
+
+            if (lowpoints[pair.right.low] > lowpoints[parentEdge]) {
+                if (merged.right.isEmpty()) {
+                    merged.right.high = pair.right.high;
+                } else {
+                    references[merged.right.low] = pair.right.high;
+                }
+
+                merged.right.low = pair.right.low;
+            } else {
+                references[pair.right.low] = lowpointEdges[parentEdge];
+            }
+        } while (conflictPairs.peek() != stackBottoms[edge]);
+
+        // Return edges of the earlier siblings conflicting with the edge go to the left side
+        while (!conflictPairs.isEmpty()
+                && (isConflicting(conflictPairs.peek().left, edge) || isConflicting(conflictPairs.peek().right, edge))) {
+            ConflictPair pair = conflictPairs.pop();
+
+            if (isConflicting(pair.right, edge)) {
+                pair.swap();
+            }
+
+            if (isConflicting(pair.right, edge)) {
+                return false;
+            }
+
+            if (merged.right.low != NONE) {
+                references[merged.right.low] = pair.right.high;
+            }
+
+            if (pair.right.low != NONE) {
+                merged.right.low = pair.right.low;
+            }
+
+            if (merged.left.isEmpty()) {
+                merged.left.high = pair.left.high;
+            } else {
+                references[merged.left.low] = pair.left.high;
+            }
+
+            merged.left.low = pair.left.low;
+        }
+
+        if (!merged.left.isEmpty() || !merged.right.isEmpty()) {
+            conflictPairs.push(merged);
+        }
+
+        return true;
+    }
+
+    // Back edges ending at the parent edge's source are dropped once its subtree is done
+    private void removeBackEdges(int parentEdge) {
+        int parent = sources[parentEdge];
+
+        while (!conflictPairs.isEmpty() && lowest(conflictPairs.peek()) == heights[parent]) {
+            ConflictPair pair = conflictPairs.pop();
+
+            if (pair.left.low != NONE) {
+                sides[pair.left.low] = -1;
+            }
+        }
+
+        if (!conflictPairs.isEmpty()) {
+            ConflictPair pair = conflictPairs.pop();
+
+            while (pair.left.high != NONE && targets[pair.left.high] == parent) {
+                pair.left.high = references[pair.left.high];
+            }
+
+            if (pair.left.high == NONE && pair.left.low != NONE) {
+                references[pair.left.low] = pair.right.low;
+                sides[pair.left.low] = -1;
+                pair.left.low = NONE;
+            }
+
+            while (pair.right.high != NONE && targets[pair.right.high] == parent) {
+                pair.right.high = references[pair.right.high];
+            }
+
+            if (pair.right.high == NONE && pair.right.low != NONE) {
+                references[pair.right.low] = pair.left.low;
+                sides[pair.right.low] = -1;
+                pair.right.low = NONE;
+            }
+
+            conflictPairs.push(pair);
+        }
+
+        // The parent edge lies on the side of its highest return edge
+        if (lowpoints[parentEdge] < heights[parent]) {
+            int leftHigh = conflictPairs.peek().left.high;
+            int rightHigh = conflictPairs.peek().right.high;
+
+            if (leftHigh != NONE && (rightHigh == NONE || lowpoints[leftHigh] > lowpoints[rightHigh])) {
+                references[parentEdge] = leftHigh;
+            } else {
+                references[parentEdge] = rightHigh;
+            }
+        }
+    }
+
+    private boolean isConflicting(Interval interval, int edge) {
+        return !interval.isEmpty() && lowpoints[interval.high] > lowpoints[edge];
+    }
+
+    private int lowest(ConflictPair pair) {
+        if (pair.left.isEmpty()) {
+            return lowpoints[pair.right.low];
+        }
+
+        if (pair.right.isEmpty()) {
+            return lowpoints[pair.left.low];
+        }
+
+        return Math.min(lowpoints[pair.left.low], lowpoints[pair.right.low]);
+    }
+
+    /*
+     *      Embedding
+     */
+
+    // Sides are relative to the referenced edges, the whole chain of references is resolved at once
+    private int sign(int edge, int[] chain) {
+        int chainLength = 0;
+
+        for (int chained = edge; references[chained] != NONE; chained = references[chained]) {
+            chain[chainLength++] = chained;
+        }
+
+        while (chainLength > 0) {
+            int chained = chain[--chainLength];
+
+            sides[chained] *= sides[references[chained]];
+            references[chained] = NONE;
+        }
+
+        return sides[edge];
+    }
+
+    // Back edges are put next to the outermost edges of the subtrees they come from, on their sides
+    private void embedFrom(int root) {
+        int top = 0;
+        nodesStack[top++] = root;
+
+        while (top > 0) {
+            int node = nodesStack[--top];
+
+            while (nextPositions[node] < orderedOffsets[node + 1]) {
+                int edge = orderedEdges[nextPositions[node]++];
+                int target = targets[edge];
+
+                if (edge == parentEdges[target]) {
+                    addHalfEdgeFirst(target, 2 * edge + 1);
+                    leftReferences[node] = 2 * edge;
+                    rightReferences[node] = 2 * edge;
+
+                    nodesStack[top++] = node;
+                    nodesStack[top++] = target;
+                    break;
+                }
+
+                if (sides[edge] == 1) {
+                    addHalfEdgeClockwise(target, 2 * edge + 1, rightReferences[target]);
+                } else {
+                    addHalfEdgeCounterclockwise(target, 2 * edge + 1, leftReferences[target]);
+                    leftReferences[target] = 2 * edge + 1;
+                }
+            }
+        }
+    }
+
+    // The half-edge goes right after the reference clockwise, or becomes the only one of the node
+    private void addHalfEdgeClockwise(int node, int halfEdge, int reference) {
+        if (reference == NONE) {
+            clockwise[halfEdge] = halfEdge;
+            counterclockwise[halfEdge] = halfEdge;
+            firstHalfEdges[node] = halfEdge;
+            return;
+        }
+
+        int next = clockwise[reference];
+
+        clockwise[reference] = halfEdge;
+        counterclockwise[halfEdge] = reference;
+        clockwise[halfEdge] = next;
+        counterclockwise[next] = halfEdge;
+    }
+
+    private void addHalfEdgeCounterclockwise(int node, int halfEdge, int reference) {
+        if (reference == NONE) {
+            addHalfEdgeClockwise(node, halfEdge, NONE);
+            return;
+        }
+
+        addHalfEdgeClockwise(node, halfEdge, counterclockwise[reference]);
+
+        if (reference == firstHalfEdges[node]) {
+            firstHalfEdges[node] = halfEdge;
+        }
+    }
+
+    private void addHalfEdgeFirst(int node, int halfEdge) {
+        addHalfEdgeCounterclockwise(node, halfEdge, firstHalfEdges[node]);
+    }
+
+    private int targetOf(int halfEdge) {
+        return halfEdge % 2 == 0 ? targets[halfEdge / 2] : sources[halfEdge / 2];
+    }
+
+    /*
+     *      Constraints
+     */
+
+    // Return edges low .. high of one side, chained through the references
+    private static class Interval {
+        private int low;
+        private int high;
+
+
+        Interval() {
+            this(NONE, NONE);
+        }
+
+        Interval(int low, int high) {
+            this.low = low;
+            this.high = high;
+        }
+
+        boolean isEmpty() {
+            return low == NONE && high == NONE;
+        }
+    }
+
+    // Intervals which have to lie on different sides
+    private static class ConflictPair {
+        private Interval left;
+        private Interval right;
+
+
+        ConflictPair(Interval left, Interval right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        void swap() {
+            Interval interval = left;
+            left = right;
+            right = interval;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package controller.verifier;
+
+import model.CompactGraph;
+import model.Node;
+
+
+// Combinatorial embedding of a planar graph: the neighbors of every node in the clockwise order
+// of a crossing-free drawing. Directions, loops and parallel arcs are left out
+public class PlanarEmbedding {
+    private CompactGraph compactGraph;
+
+    // Node v's neighbors take positions offsets[v] .. offsets[v + 1] - 1
+    private int[] offsets;
+    private int[] neighbors;
+
+
+    PlanarEmbedding(CompactGraph compactGraph, int[] offsets, int[] neighbors) {
+        this.compactGraph = compactGraph;
+        this.offsets = offsets;
+        this.neighbors = neighbors;
+    }
+
+    public CompactGraph getCompactGraph() {
+        return compactGraph;
+    }
+
+    public int nodesCount() {
+        return offsets.length - 1;
+    }
+
+    public Node nodeAt(int index) {
+        return compactGraph.nodeAt(index);
+    }
+
+    public int degree(int node) {
+        return offsets[node + 1] - offsets[node];
+    }
+
+    // Neighbors are counted clockwise from an arbitrary first one
+    public int neighborAt(int node, int position) {
+        return neighbors[offsets[node] + position];
+    }
+}
@@ -1,191 +1,292 @@
 package controller.verifier;
 
-import model.AdjacencyMatrix;
+import model.Arc;
+import model.CompactGraph;
 import model.Graph;
+import model.NeighborCursor;
 import model.Node;
+import model.UndirectedView;
 
 import java.util.*;
 
 
+// Planarity of the graph with directions and loops ignored
 public class PlanarityVerifier {
-    private static final int COUNT_OF_NODES_K5 = 5;
-    private static final int COUNT_OF_ARCS_IN_UNDIRECTED_K5 = 20;
-    private static final int COUNT_OF_NODES_K33 = 6;
-    private static final int COUNT_OF_ARCS_IN_UNDIRECTED_K33 = 18;
+    private static final int COUNT_OF_BRANCH_NODES_K5 = 5;
 
-    private Graph graph;
-    private AdjacencyMatrix adjacencyMatrix;
+    private CompactGraph compactGraph;
+    private int nodesCount;
+
+    // Edge i links edgeEnds[2 * i] and edgeEnds[2 * i + 1], parallel arcs give a single edge
+    private int[] edgeEnds;
 
 
     public PlanarityVerifier(Graph graph) {
-        this.graph = graph.undirectedEquivalent();
-        this.adjacencyMatrix = new AdjacencyMatrix(this.graph);
+        this(graph.getCompactGraph());
+    }
+
+    public PlanarityVerifier(CompactGraph compactGraph) {
+        this.compactGraph = compactGraph;
+
+        UndirectedView undirectedView = new UndirectedView(compactGraph);
+        NeighborCursor neighbors = undirectedView.cursor();
+
+        nodesCount = compactGraph.nodesCount();
+        edgeEnds = new int[undirectedView.adjacentPairsCount()];
+        int edgeEndsCount = 0;
+
+        for (int node = 0; node < nodesCount; node++) {
+            neighbors.reset(node);
+
+            for (int adjacent = neighbors.next(); adjacent != -1; adjacent = neighbors.next()) {
+                if (adjacent > node) {
+                    edgeEnds[edgeEndsCount++] = node;
+                    edgeEnds[edgeEndsCount++] = adjacent;
+                }
+            }
+        }
     }
 
     public boolean verify() {
-        if (graph.getNodes().size() >= COUNT_OF_NODES_K5
-                && graph.getArcs().size() == graph.getNodes().size() * (graph.getNodes().size() - 1)) {
-            return false;
+        return new LeftRightPlanarity(nodesCount, edgeEnds).isPlanar();
+    }
+
+    // Rotation system of a crossing-free drawing, null for a non-planar graph
+    public PlanarEmbedding embedding() {
+        LeftRightPlanarity leftRightPlanarity = new LeftRightPlanarity(nodesCount, edgeEnds);
+
+        if (!leftRightPlanarity.isPlanar()) {
+            return null;
         }
 
-        List<Node> someKuratowskiGraph = permute();
+        int[] neighbors = leftRightPlanarity.clockwiseNeighbors();
+
+        return new PlanarEmbedding(compactGraph, leftRightPlanarity.offsets(), neighbors);
+    }
 
-        if (someKuratowskiGraph.size() == COUNT_OF_NODES_K5
-                && graph.getArcs().size() >= COUNT_OF_ARCS_IN_UNDIRECTED_K5) {
-            return false;
-        } else if (someKuratowskiGraph.size() == COUNT_OF_NODES_K33
-                && graph.getArcs().size() >= COUNT_OF_ARCS_IN_UNDIRECTED_K33) {
-            return false;
+    // Null for a planar graph. Every chain of nodes of degree 2 is contracted to a single edge first,
+    // so the count of planarity tests depends on the branch nodes and the chains between them only
+    public KuratowskiSubgraph kuratowskiSubgraph() {
+        if (verify()) {
+            return null;
         }
 
-        return true;
+        int edgesCount = edgeEnds.length / 2;
+        int[] edgeChains = new int[edgesCount];
+        int[] chainEnds = contractChains(edgeChains);
+
+        // Chains between the same nodes are parallel edges, one of them stands for all
+        int[] reducedIndices = new int[nodesCount];
+        int[] chainEdges = new int[chainEnds.length / 2];
+        int[] reducedEdgeEnds = new int[chainEnds.length];
+        int reducedNodesCount = 0;
+        int reducedEdgesCount = 0;
+        Map<Long, Integer> reducedEdges = new HashMap<>();
+
+        Arrays.fill(reducedIndices, -1);
+        Arrays.fill(chainEdges, -1);
+
+        for (int chain = 0; chain < chainEdges.length; chain++) {
+            int first = Math.min(chainEnds[2 * chain], chainEnds[2 * chain + 1]);
+            int second = Math.max(chainEnds[2 * chain], chainEnds[2 * chain + 1]);
+
+            if (first == second || reducedEdges.putIfAbsent((long) first * nodesCount + second, chain) != null) {
+                continue;
+            }
+
+            for (int end : new int[]{first, second}) {
+                if (reducedIndices[end] == -1) {
+                    reducedIndices[end] = reducedNodesCount++;
+                }
+            }
+
+            chainEdges[chain] = reducedEdgesCount;
+            reducedEdgeEnds[2 * reducedEdgesCount] = reducedIndices[first];
+            reducedEdgeEnds[2 * reducedEdgesCount + 1] = reducedIndices[second];
+            reducedEdgesCount++;
+        }
+
+        boolean[] isReducedKept = minimalNonPlanar(
+                reducedNodesCount, Arrays.copyOf(reducedEdgeEnds, 2 * reducedEdgesCount)
+        );
+        boolean[] isKept = new boolean[edgesCount];
+
+        for (int edge = 0; edge < edgesCount; edge++) {
+            int chain = edgeChains[edge];
+
+            isKept[edge] = chain != -1 && chainEdges[chain] != -1 && isReducedKept[chainEdges[chain]];
+        }
+
+        return kuratowskiSubgraphOf(isKept);
     }
 
     /*
      *      Util
      */
 
-    /*private Graph undirectedEquivalentOf(Graph graph) {
-        Graph undirectedGraph = new Graph();
+    // Every path through nodes of degree 2 between two other nodes becomes a chain, the ends of chain c
+    // are returned at 2c and 2c + 1 and the chain of every edge is written to 'edgeChains'. Cycles made
+    // of nodes of degree 2 only are components of their own, they have no chain and are marked with -1
+    private int[] contractChains(int[] edgeChains) {
+        int edgesCount = edgeEnds.length / 2;
+        int[] offsets = new int[nodesCount + 1];
 
-        undirectedGraph.getNodes().addAll(graph.getNodes());
+        for (int end : edgeEnds) {
+            offsets[end + 1]++;
+        }
+        for (int node = 0; node < nodesCount; node++) {
+            offsets[node + 1] += offsets[node];
+        }
 
-        for (Arc arc : graph.getArcs()) {
-            undirectedGraph.getArcs().add(arc);
+        int[] incidentEdges = new int[edgeEnds.length];
+        int[] filled = Arrays.copyOf(offsets, nodesCount);
 
-            if (arc.isDirected()) {
-                undirectedGraph.getArcs().add(new Arc(arc.getEnd(), arc.getBegin()));
-            }
+        for (int edge = 0; edge < edgesCount; edge++) {
+            incidentEdges[filled[edgeEnds[2 * edge]]++] = edge;
+            incidentEdges[filled[edgeEnds[2 * edge + 1]]++] = edge;
         }
 
-        return undirectedGraph;
-    }*/
+        int[] chainEnds = new int[edgeEnds.length];
+        int chainsCount = 0;
 
-    private List<Node> permute() {
-        List<Node> permutation = new ArrayList<>();
+        Arrays.fill(edgeChains, -1);
+
+        for (int node = 0; node < nodesCount; node++) {
+            if (offsets[node + 1] - offsets[node] == 2) {
+                continue;
+            }
 
-        for (Node one : graph.getNodes()) {
-            permutation.clear();
-            permutation.add(one);
+            for (int position = offsets[node]; position < offsets[node + 1]; position++) {
+                int edge = incidentEdges[position];
 
-            for (Node two : graph.getNodes()) {
-                if (permutation.contains(two)) {
+                if (edgeChains[edge] != -1) {
                     continue;
                 }
-                permutation.add(two);
-
-                for (Node three : graph.getNodes()) {
-                    if (permutation.contains(three)) {
-                        continue;
-                    }
-                    permutation.add(three);
-
-                    for (Node four : graph.getNodes()) {
-                        if (permutation.contains(four)) {
-                            continue;
-                        }
-                        permutation.add(four);
-
-                        for (Node five : graph.getNodes()) {
-                            if (permutation.contains(five)) {
-                                continue;
-                            }
-                            permutation.add(five);
-
-                            for (Node six : graph.getNodes()) {
-                                if (permutation.contains(six)) {
-                                    continue;
-                                }
-                                permutation.add(six);
-
-                                for (int i = 0; i < permutation.size(); i++) {
-                                    for (int j = 0; j < permutation.size(); j++) {
-                                        Collections.swap(permutation, i, j);
-
-                                        if (isK33(permutation)) {
-                                            return permutation;
-                                        }
-                                    }
-                                }
-
-                                permutation.remove(six);
-                            }
-
-                            if (isK5(permutation)) {
-                                return permutation;
-                            }
-
-                            permutation.remove(five);
-                        }
-                        permutation.remove(four);
-                    }
-                    permutation.remove(three);
+
+                int current = otherEnd(edge, node);
+                edgeChains[edge] = chainsCount;
+
+                while (offsets[current + 1] - offsets[current] == 2) {
+                    int first = incidentEdges[offsets[current]];
+                    edge = first != edge ? first : incidentEdges[offsets[current] + 1];
+
+                    edgeChains[edge] = chainsCount;
+                    current = otherEnd(edge, current);
                 }
-                permutation.remove(two);
+
+                chainEnds[2 * chainsCount] = node;
+                chainEnds[2 * chainsCount + 1] = current;
+                chainsCount++;
             }
         }
 
-        return permutation;
+        return Arrays.copyOf(chainEnds, 2 * chainsCount);
     }
 
-    private boolean isK5(List<Node> permutation) {
-        boolean isK5 = true;
+    private int otherEnd(int edge, int end) {
+        return edgeEnds[2 * edge] == end ? edgeEnds[2 * edge + 1] : edgeEnds[2 * edge];
+    }
 
-        for (Node begin : permutation) {
-            for (Node end : permutation) {
-                if (begin.equals(end)) {
-                    continue;
-                }
+    // Edges are dropped while the rest stays non-planar, what is left at the end is minimal and so
+    // a Kuratowski subdivision. Blocks of edges are tried at once and halved when one of them
+    // can't be dropped, so only a few tests fall on every edge of the subdivision
+    private static boolean[] minimalNonPlanar(int nodesCount, int[] edgeEnds) {
+        int edgesCount = edgeEnds.length / 2;
+        boolean[] isKept = new boolean[edgesCount];
+        Arrays.fill(isKept, true);
+
+        int position = 0;
+        int blockSize = Math.max(1, edgesCount / 2);
 
-                isK5 &= isPathExist(begin, end);
+        while (position < edgesCount) {
+            int blockEnd = Math.min(edgesCount, position + blockSize);
+
+            Arrays.fill(isKept, position, blockEnd, false);
+
+            if (!isPlanar(nodesCount, edgeEnds, isKept)) {
+                position = blockEnd;
+                blockSize = Math.min(2 * blockSize, edgesCount);
+            } else {
+                Arrays.fill(isKept, position, blockEnd, true);
+
+                if (blockSize == 1) {
+                    position++;
+                } else {
+                    blockSize /= 2;
+                }
             }
         }
 
-        return isK5;
+        return isKept;
     }
 
-    private boolean isK33(List<Node> permutation) {
-        boolean isK33 = true;
+    private static boolean isPlanar(int nodesCount, int[] edgeEnds, boolean[] isKept) {
+        int keptCount = 0;
 
-        List<Node> homes = permutation.subList(0, COUNT_OF_NODES_K33 / 2);
-        List<Node> wells = permutation.subList(COUNT_OF_NODES_K33 / 2, COUNT_OF_NODES_K33);
+        for (boolean isEdgeKept : isKept) {
+            if (isEdgeKept) {
+                keptCount++;
+            }
+        }
 
-        for (Node home : homes) {
-            for (Node well : wells) {
-                isK33 &= isPathExist(home, well);
+        int[] keptEdgeEnds = new int[2 * keptCount];
+        keptCount = 0;
+
+        for (int edge = 0; edge < isKept.length; edge++) {
+            if (isKept[edge]) {
+                keptEdgeEnds[keptCount++] = edgeEnds[2 * edge];
+                keptEdgeEnds[keptCount++] = edgeEnds[2 * edge + 1];
             }
         }
 
-        return isK33;
+        return new LeftRightPlanarity(nodesCount, keptEdgeEnds).isPlanar();
     }
 
-    private boolean isPathExist(Node source, Node destination) {
-        Map<Node, Boolean> visitedNodes = new HashMap<>();
+    // Branch nodes are the ones of degree 4 in a K5 subdivision and of degree 3 in a K3,3 one
+    private KuratowskiSubgraph kuratowskiSubgraphOf(boolean[] isKept) {
+        int[] degrees = new int[nodesCount];
+        Set<Node> nodes = new LinkedHashSet<>();
+        List<Arc> arcs = new ArrayList<>();
 
-        for (Node node : graph.getNodes()) {
-            visitedNodes.put(node, false);
-        }
+        for (int edge = 0; edge < isKept.length; edge++) {
+            if (!isKept[edge]) {
+                continue;
+            }
 
-        LinkedList<Node> queue = new LinkedList<>();
+            int first = edgeEnds[2 * edge];
+            int second = edgeEnds[2 * edge + 1];
 
-        visitedNodes.replace(source, true);
-        queue.add(source);
+            degrees[first]++;
+            degrees[second]++;
+            nodes.add(compactGraph.nodeAt(first));
+            nodes.add(compactGraph.nodeAt(second));
 
-        while (queue.size() != 0) {
-            source = queue.poll();
+            addArcsBetween(first, second, arcs);
+        }
 
-            for (Node adjacent : adjacencyMatrix.adjacentNodesOf(source)) {
-                if (adjacent.equals(destination)) {
-                    return true;
-                }
+        List<Node> branchNodes = new ArrayList<>();
 
-                if (!visitedNodes.get(adjacent)) {
-                    visitedNodes.replace(adjacent, true);
-                    queue.add(adjacent);
-                }
+        for (int node = 0; node < nodesCount; node++) {
+            if (degrees[node] > 2) {
+                branchNodes.add(compactGraph.nodeAt(node));
             }
         }
 
-        return false;
+        return new KuratowskiSubgraph(branchNodes.size() == COUNT_OF_BRANCH_NODES_K5, branchNodes, nodes, arcs);
+    }
+
+    // Arcs of both rows, a two-way arc is in both of them but is taken once
+    private void addArcsBetween(int first, int second, List<Arc> arcs) {
+        for (int position = compactGraph.rowBegin(first); position < compactGraph.rowEnd(first); position++) {
+            if (compactGraph.targetAt(position) == second) {
+                arcs.add(compactGraph.arcAt(position));
+            }
+        }
+
+        for (int position = compactGraph.rowBegin(second); position < compactGraph.rowEnd(second); position++) {
+            if (compactGraph.targetAt(position) == first && !compactGraph.arcAt(position).isTwoWay()) {
+                arcs.add(compactGraph.arcAt(position));
+            }
+        }
     }
 }
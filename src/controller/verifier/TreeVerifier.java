@@ -1,62 +1,122 @@
 package controller.verifier;
 
-import model.AdjacencyMatrix;
+import model.Arc;
+import model.CompactGraph;
 import model.Graph;
-import model.Node;
-
-import java.util.HashMap;
-import java.util.Map;
+import model.NeighborCursor;
+import model.UndirectedView;
 
 
+// Trees and forests of the graph with directions ignored, parallel arcs count as a single edge
+// and a loop is a cycle. Edges are joined into components by a union-find, nothing is recursive
 public class TreeVerifier {
-    private Graph graph;
-    private AdjacencyMatrix adjacencyMatrix;
+    private CompactGraph compactGraph;
+    private UndirectedView undirectedView;
+
+    // Union-find forest over node indices, a root keeps the size of its component
+    private int[] parents;
+    private int[] sizes;
 
 
     public TreeVerifier(Graph graph) {
-        this.graph = graph.undirectedEquivalent();
-        adjacencyMatrix = new AdjacencyMatrix(this.graph);
+        this(graph.getCompactGraph());
+    }
+
+    public TreeVerifier(CompactGraph compactGraph) {
+        this.compactGraph = compactGraph;
+
+        undirectedView = new UndirectedView(compactGraph);
     }
 
+    // A tree is connected, acyclic and has a node at least. With E = V - 1 edges the first two mean the same
     public boolean verify() {
-        Map<Node, Boolean> visitedNodes = new HashMap<>();
+        int nodesCount = undirectedView.nodesCount();
 
-        for (Node node : graph.getNodes()) {
-            visitedNodes.put(node, false);
+        if (nodesCount == 0 || undirectedView.adjacentPairsCount() / 2 != nodesCount - 1) {
+            return false;
         }
 
-        if (dfsIsCyclic(graph.getNodes().get(0), new Node(), visitedNodes)) {
-            return false;
+        return cycleArc() == null;
+    }
+
+    public boolean verifyForest() {
+        return cycleArc() == null;
+    }
+
+    // An arc closing a cycle of the graph, null for a forest
+    public Arc cycleArc() {
+        int nodesCount = undirectedView.nodesCount();
+        NeighborCursor neighbors = undirectedView.cursor();
+
+        parents = new int[nodesCount];
+        sizes = new int[nodesCount];
+
+        for (int node = 0; node < nodesCount; node++) {
+            parents[node] = node;
+            sizes[node] = 1;
         }
 
-        for (Node node : graph.getNodes()) {
-            if (!visitedNodes.get(node)) {
-                return false;
+        for (int node = 0; node < nodesCount; node++) {
+            neighbors.reset(node);
+
+            for (int adjacent = neighbors.next(); adjacent != -1; adjacent = neighbors.next()) {
+                if (adjacent == node || (adjacent > node && !union(node, adjacent))) {
+                    return arcBetween(node, adjacent);
+                }
             }
         }
 
-        return true;
+        return null;
     }
 
     /*
      *      Utility
      */
 
-    private Boolean dfsIsCyclic(Node currentNode, Node parent, Map<Node, Boolean> visitedNodes) {
-        visitedNodes.replace(currentNode, true);
+    // Path halving, every node on the way is hung onto its grandparent
+    private int find(int node) {
+        while (parents[node] != node) {
+            parents[node] = parents[parents[node]];
+            node = parents[node];
+        }
 
-        for (Node adjacent : adjacencyMatrix.adjacentNodesOf(currentNode)) {
-            if (!visitedNodes.get(adjacent)) {
-                if (dfsIsCyclic(adjacent, currentNode, visitedNodes)) {
-                    return true;
-                }
+        return node;
+    }
+
+    // False when the nodes are in the same component already
+    private boolean union(int first, int second) {
+        int firstRoot = find(first);
+        int secondRoot = find(second);
+
+        if (firstRoot == secondRoot) {
+            return false;
+        }
+
+        if (sizes[firstRoot] < sizes[secondRoot]) {
+            int root = firstRoot;
+            firstRoot = secondRoot;
+            secondRoot = root;
+        }
+
+        parents[secondRoot] = firstRoot;
+        sizes[firstRoot] += sizes[secondRoot];
+
+        return true;
+    }
+
+    private Arc arcBetween(int first, int second) {
+        for (int position = compactGraph.rowBegin(first); position < compactGraph.rowEnd(first); position++) {
+            if (compactGraph.targetAt(position) == second) {
+                return compactGraph.arcAt(position);
             }
+        }
 
-            else if (!adjacent.equals(parent)) {
-                return true;
+        for (int position = compactGraph.rowBegin(second); position < compactGraph.rowEnd(second); position++) {
+            if (compactGraph.targetAt(position) == first) {
+                return compactGraph.arcAt(position);
             }
         }
 
-        return false;
+        return null;
     }
 }
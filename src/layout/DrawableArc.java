@@ -110,6 +110,11 @@ public class DrawableArc {
         return sourceArc;
     }
 
+    // The graph replaces an arc whose direction changes, the drawable follows the new one
+    public void setSourceArc(Arc sourceArc) {
+        this.sourceArc = sourceArc;
+    }
+
     public boolean isFocused() {
         return isFocused;
     }
@@ -0,0 +1,538 @@
+package layout;
+
+import controller.verifier.PlanarEmbedding;
+import javafx.geometry.Point2D;
+import model.Node;
+
+import java.util.*;
+
+
+// Straight-line drawing of a planar graph without crossings on a (2V - 4) x (V - 2) grid: the shift method
+// of de Fraysseix, Pach and Pollack in the linear time form of Chrobak and Payne. The embedding is made connected,
+// biconnected and triangulated first, then the nodes are put in a canonical order and every one of them is placed
+// above the contour of the ones before it
+public class PlanarLayout {
+    private static final int NONE = -1;
+
+    private int nodesCount;
+
+    // Half-edges of the embedding being triangulated: 2k and 2k + 1 are twins, the ones with the same origin
+    // are linked clockwise and counterclockwise. A face lies on the left of its half-edges
+    private int[] origins;
+    private int[] clockwise;
+    private int[] counterclockwise;
+    private int[] firstHalfEdges;
+    private int halfEdgesCount;
+    private Set<Long> edges;
+
+    private int[] xs;
+    private int[] ys;
+    private int width;
+    private int height;
+
+    private PlanarEmbedding embedding;
+
+
+    public PlanarLayout(PlanarEmbedding embedding) {
+        this.embedding = embedding;
+
+        nodesCount = embedding.nodesCount();
+        xs = new int[nodesCount];
+        ys = new int[nodesCount];
+
+        if (nodesCount > 3) {
+            buildHalfEdges();
+            connectComponents();
+            place(triangulate());
+        } else {
+            placeFewNodes();
+        }
+
+        for (int node = 0; node < nodesCount; node++) {
+            width = Math.max(width, xs[node]);
+            height = Math.max(height, ys[node]);
+        }
+    }
+
+    // Grid coordinates, the y axis points up
+    public int x(int node) {
+        return xs[node];
+    }
+
+    public int y(int node) {
+        return ys[node];
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    // The grid stretched over the rectangle given, the y axis points down as on the screen
+    public Map<Node, Point2D> positions(double width, double height) {
+        Map<Node, Point2D> positions = new HashMap<>();
+
+        double xScale = width / Math.max(1, this.width);
+        double yScale = height / Math.max(1, this.height);
+
+        for (int node = 0; node < nodesCount; node++) {
+            positions.put(embedding.nodeAt(node), new Point2D(xs[node] * xScale, height - ys[node] * yScale));
+        }
+
+        return positions;
+    }
+
+    /*
+     *      Augmentation
+     */
+
+    // A triangulated planar graph has 3V - 6 edges
+    private void buildHalfEdges() {
+        int capacity = 2 * (3 * nodesCount - 6);
+
+        origins = new int[capacity];
+        clockwise = new int[capacity];
+        counterclockwise = new int[capacity];
+        firstHalfEdges = new int[nodesCount];
+        edges = new HashSet<>();
+
+        Arrays.fill(firstHalfEdges, NONE);
+
+        Map<Long, Integer> halfEdges = new HashMap<>();
+
+        for (int node = 0; node < nodesCount; node++) {
+            int previousHalfEdge = NONE;
+
+            for (int position = 0; position < embedding.degree(node); position++) {
+                int adjacent = embedding.neighborAt(node, position);
+                Integer pair = halfEdges.get(edgeKey(node, adjacent));
+
+                if (pair == null) {
+                    pair = newEdge(Math.min(node, adjacent), Math.max(node, adjacent));
+                    halfEdges.put(edgeKey(node, adjacent), pair);
+                }
+
+                int halfEdge = node < adjacent ? pair : pair + 1;
+
+                if (previousHalfEdge == NONE) {
+                    insertFirst(node, halfEdge);
+                } else {
+                    insertAfter(previousHalfEdge, halfEdge);
+                }
+
+                previousHalfEdge = halfEdge;
+            }
+        }
+    }
+
+    // Components are chained by edges between their first nodes, any component fits into any face of another
+    private void connectComponents() {
+        boolean[] isReached = new boolean[nodesCount];
+        int[] queue = new int[nodesCount];
+        int previousComponent = NONE;
+
+        for (int node = 0; node < nodesCount; node++) {
+            if (isReached[node]) {
+                continue;
+            }
+
+            if (previousComponent != NONE) {
+                int edge = newEdge(previousComponent, node);
+
+                insertFirst(previousComponent, edge);
+                insertFirst(node, edge + 1);
+            }
+
+            previousComponent = node;
+
+            int head = 0;
+            int tail = 0;
+            isReached[node] = true;
+            queue[tail++] = node;
+
+            while (head < tail) {
+                int reached = queue[head++];
+                int halfEdge = firstHalfEdges[reached];
+
+                if (halfEdge == NONE) {
+                    continue;
+                }
+
+                do {
+                    int adjacent = targetOf(halfEdge);
+
+                    if (!isReached[adjacent]) {
+                        isReached[adjacent] = true;
+                        queue[tail++] = adjacent;
+                    }
+
+                    halfEdge = clockwise[halfEdge];
+                } while (halfEdge != firstHalfEdges[reached]);
+            }
+        }
+    }
+
+    // Every face is made a simple cycle and then split into triangles. A half-edge of the former largest face
+    // is returned, the triangle on its left becomes the outer face
+    private int triangulate() {
+        boolean[] isCounted = new boolean[origins.length];
+        int[] faceMarks = new int[nodesCount];
+        int faceMark = 0;
+
+        int[] faces = new int[origins.length];
+        int facesCount = 0;
+        int outerHalfEdge = NONE;
+        int outerFaceSize = 0;
+
+        for (int halfEdge = 0; halfEdge < halfEdgesCount; halfEdge++) {
+            if (isCounted[halfEdge]) {
+                continue;
+            }
+
+            int faceSize = biconnectFace(halfEdge, isCounted, faceMarks, ++faceMark);
+            faces[facesCount++] = halfEdge;
+
+            if (faceSize > outerFaceSize) {
+                outerFaceSize = faceSize;
+                outerHalfEdge = halfEdge;
+            }
+        }
+
+        for (int faceIter = 0; faceIter < facesCount; faceIter++) {
+            triangulateFace(faces[faceIter]);
+        }
+
+        return outerHalfEdge;
+    }
+
+    // A node met twice around the face cuts the graph, it's bypassed by an edge between its neighbors on the face
+    private int biconnectFace(int start, boolean[] isCounted, int[] faceMarks, int faceMark) {
+        int halfEdge = start;
+        int faceSize = 1;
+
+        isCounted[halfEdge] = true;
+        faceMarks[origins[halfEdge]] = faceMark;
+
+        while (true) {
+            int nextHalfEdge = nextOnFace(halfEdge);
+
+            if (nextHalfEdge == start) {
+                return faceSize;
+            }
+
+            if (faceMarks[origins[nextHalfEdge]] == faceMark) {
+                int chord = addChord(halfEdge, nextHalfEdge);
+
+                // The triangle cut off has all of its half-edges counted
+                isCounted[nextHalfEdge] = true;
+                isCounted[chord + 1] = true;
+                isCounted[chord] = true;
+                halfEdge = chord;
+                continue;
+            }
+
+            faceMarks[origins[nextHalfEdge]] = faceMark;
+            faceSize++;
+
+            halfEdge = nextHalfEdge;
+            isCounted[halfEdge] = true;
+        }
+    }
+
+    // Fan of chords from the first node, it moves on where a chord would double an existing edge
+    private void triangulateFace(int halfEdge) {
+        int first = halfEdge;
+        int second = nextOnFace(first);
+        int third = nextOnFace(second);
+        int begin = origins[first];
+
+        if (targetOf(first) == begin || targetOf(second) == begin) {
+            return;
+        }
+
+        while (targetOf(third) != begin) {
+            if (edges.contains(edgeKey(begin, targetOf(second)))) {
+                first = second;
+                begin = origins[first];
+            } else {
+                first = addChord(first, second);
+            }
+
+            second = third;
+            third = nextOnFace(second);
+        }
+    }
+
+    // Edge from the origin of 'first' to the target of 'second' inside their face, its half-edge from that origin
+    // is returned. The face on the left of the two is cut into a triangle and the rest
+    private int addChord(int first, int second) {
+        int chord = newEdge(origins[first], targetOf(second));
+
+        insertBefore(first, chord);
+        insertAfter(second + (second % 2 == 0 ? 1 : -1), chord + 1);
+
+        return chord;
+    }
+
+    /*
+     *      Placement
+     */
+
+    // Nodes are removed from the outer face in the reversed canonical order: a node with no chords
+    // is taken off the contour and its inner neighbors take its place there
+    private void place(int outerHalfEdge) {
+        int leftmost = origins[outerHalfEdge];
+        int top = targetOf(outerHalfEdge);
+        int rightmost = targetOf(nextOnFace(outerHalfEdge));
+
+        int[] leftOnContour = new int[nodesCount];
+        int[] rightOnContour = new int[nodesCount];
+        boolean[] isOnContour = new boolean[nodesCount];
+        int[] chordsCounts = new int[nodesCount];
+        int[] newMarks = new int[nodesCount];
+
+        // Contour neighbors of the k-th node from left to right, all of them together take O(E) space
+        int[] canonicalOrder = new int[nodesCount];
+        int[] contourOffsets = new int[nodesCount + 1];
+        int[] contours = new int[2 * halfEdgesCount + 2 * nodesCount];
+        int contoursSize = 0;
+
+        rightOnContour[leftmost] = top;
+        leftOnContour[top] = leftmost;
+        rightOnContour[top] = rightmost;
+        leftOnContour[rightmost] = top;
+        isOnContour[leftmost] = true;
+        isOnContour[top] = true;
+        isOnContour[rightmost] = true;
+
+        int[] readyNodes = new int[halfEdgesCount + nodesCount];
+        int readyNodesCount = 0;
+        readyNodes[readyNodesCount++] = top;
+
+        canonicalOrder[0] = leftmost;
+        canonicalOrder[1] = rightmost;
+
+        for (int order = nodesCount - 1; order > 1; order--) {
+            int node;
+
+            do {
+                node = readyNodes[--readyNodesCount];
+            } while (!isOnContour[node] || chordsCounts[node] != 0 || node == leftmost || node == rightmost);
+
+            int leftNeighbor = leftOnContour[node];
+            int rightNeighbor = rightOnContour[node];
+
+            canonicalOrder[order] = node;
+            isOnContour[node] = false;
+
+            // Inner neighbors follow counterclockwise from the left contour neighbor to the right one
+            int halfEdge = firstHalfEdges[node];
+            while (targetOf(halfEdge) != leftNeighbor) {
+                halfEdge = clockwise[halfEdge];
+            }
+
+            int contourBegin = contoursSize;
+            contours[contoursSize++] = leftNeighbor;
+
+            do {
+                halfEdge = counterclockwise[halfEdge];
+                contours[contoursSize++] = targetOf(halfEdge);
+            } while (targetOf(halfEdge) != rightNeighbor);
+
+            contourOffsets[order] = contourBegin;
+
+            if (contoursSize - contourBegin == 2) {
+                // The edge between the contour neighbors was a chord
+                for (int neighbor : new int[]{leftNeighbor, rightNeighbor}) {
+                    if (--chordsCounts[neighbor] == 0) {
+                        readyNodes[readyNodesCount++] = neighbor;
+                    }
+                }
+
+                rightOnContour[leftNeighbor] = rightNeighbor;
+                leftOnContour[rightNeighbor] = leftNeighbor;
+                continue;
+            }
+
+            for (int position = contourBegin; position + 1 < contoursSize; position++) {
+                rightOnContour[contours[position]] = contours[position + 1];
+                leftOnContour[contours[position + 1]] = contours[position];
+            }
+
+            for (int position = contourBegin + 1; position + 1 < contoursSize; position++) {
+                isOnContour[contours[position]] = true;
+                newMarks[contours[position]] = order;
+            }
+
+            for (int position = contourBegin + 1; position + 1 < contoursSize; position++) {
+                int newNode = contours[position];
+                int newHalfEdge = firstHalfEdges[newNode];
+
+                do {
+                    int adjacent = targetOf(newHalfEdge);
+
+                    if (isOnContour[adjacent]
+                            && adjacent != leftOnContour[newNode] && adjacent != rightOnContour[newNode]) {
+                        chordsCounts[newNode]++;
+
+                        // Chords between two new nodes are counted from both of their ends anyway
+                        if (newMarks[adjacent] != order) {
+                            chordsCounts[adjacent]++;
+                        }
+                    }
+
+                    newHalfEdge = clockwise[newHalfEdge];
+                } while (newHalfEdge != firstHalfEdges[newNode]);
+
+                if (chordsCounts[newNode] == 0) {
+                    readyNodes[readyNodesCount++] = newNode;
+                }
+            }
+        }
+
+        contourOffsets[nodesCount] = contoursSize;
+        shift(canonicalOrder, contourOffsets, contours);
+    }
+
+    // Every node keeps its x offset from its parent in a binary tree: the left child is the node covered first
+    // on the contour, the right one is its right neighbor there. Shifting a node shifts its whole subtree
+    private void shift(int[] canonicalOrder, int[] contourOffsets, int[] contours) {
+        int[] xOffsets = new int[nodesCount];
+        int[] leftChildren = new int[nodesCount];
+        int[] rightChildren = new int[nodesCount];
+
+        Arrays.fill(leftChildren, NONE);
+        Arrays.fill(rightChildren, NONE);
+
+        int first = canonicalOrder[0];
+        int second = canonicalOrder[1];
+        int third = canonicalOrder[2];
+
+        xOffsets[second] = 1;
+        xOffsets[third] = 1;
+        ys[third] = 1;
+        rightChildren[first] = third;
+        rightChildren[third] = second;
+
+        for (int order = 3; order < nodesCount; order++) {
+            int node = canonicalOrder[order];
+            int contourBegin = contourOffsets[order];
+            int contourEnd = contourBegin + contourLength(contourOffsets, contours, order);
+
+            int leftNeighbor = contours[contourBegin];
+            int nextToLeft = contours[contourBegin + 1];
+            int rightNeighbor = contours[contourEnd - 1];
+            int previousToRight = contours[contourEnd - 2];
+
+            xOffsets[nextToLeft]++;
+            xOffsets[rightNeighbor]++;
+
+            int distance = 0;
+            for (int position = contourBegin + 1; position < contourEnd; position++) {
+                distance += xOffsets[contours[position]];
+            }
+
+            // The node goes where the lines of slopes 1 and -1 from its contour neighbors meet
+            xOffsets[node] = (distance - ys[leftNeighbor] + ys[rightNeighbor]) / 2;
+            ys[node] = (distance + ys[leftNeighbor] + ys[rightNeighbor]) / 2;
+            xOffsets[rightNeighbor] = distance - xOffsets[node];
+
+            if (contourEnd - contourBegin > 2) {
+                xOffsets[nextToLeft] -= xOffsets[node];
+                leftChildren[node] = nextToLeft;
+                rightChildren[previousToRight] = NONE;
+            }
+
+            rightChildren[leftNeighbor] = node;
+            rightChildren[node] = rightNeighbor;
+        }
+
+        int[] stack = new int[nodesCount];
+        int stackSize = 0;
+
+        xs[first] = 0;
+        stack[stackSize++] = first;
+
+        while (stackSize != 0) {
+            int parent = stack[--stackSize];
+
+            for (int child : new int[]{leftChildren[parent], rightChildren[parent]}) {
+                if (child != NONE) {
+                    xs[child] = xs[parent] + xOffsets[child];
+                    stack[stackSize++] = child;
+                }
+            }
+        }
+    }
+
+    // Contours were stored from the last node down to the third one, so each ends where the one stored next begins
+    private int contourLength(int[] contourOffsets, int[] contours, int order) {
+        int contourEnd = order == 2 ? contourOffsets[nodesCount] : contourOffsets[order - 1];
+        return contourEnd - contourOffsets[order];
+    }
+
+    private void placeFewNodes() {
+        int[][] positions = {{0, 0}, {2, 0}, {1, 1}};
+
+        for (int node = 0; node < nodesCount; node++) {
+            xs[node] = positions[node][0];
+            ys[node] = positions[node][1];
+        }
+    }
+
+    /*
+     *      Utility
+     */
+
+    private int newEdge(int begin, int end) {
+        int halfEdge = halfEdgesCount;
+
+        origins[halfEdge] = begin;
+        origins[halfEdge + 1] = end;
+        halfEdgesCount += 2;
+
+        edges.add(edgeKey(begin, end));
+
+        return halfEdge;
+    }
+
+    private int targetOf(int halfEdge) {
+        return origins[halfEdge % 2 == 0 ? halfEdge + 1 : halfEdge - 1];
+    }
+
+    // The face goes on along the next half-edge clockwise around the target
+    private int nextOnFace(int halfEdge) {
+        return clockwise[halfEdge % 2 == 0 ? halfEdge + 1 : halfEdge - 1];
+    }
+
+    private void insertFirst(int node, int halfEdge) {
+        if (firstHalfEdges[node] == NONE) {
+            clockwise[halfEdge] = halfEdge;
+            counterclockwise[halfEdge] = halfEdge;
+        } else {
+            insertBefore(firstHalfEdges[node], halfEdge);
+        }
+
+        firstHalfEdges[node] = halfEdge;
+    }
+
+    private void insertAfter(int reference, int halfEdge) {
+        int next = clockwise[reference];
+
+        clockwise[reference] = halfEdge;
+        counterclockwise[halfEdge] = reference;
+        clockwise[halfEdge] = next;
+        counterclockwise[next] = halfEdge;
+    }
+
+    private void insertBefore(int reference, int halfEdge) {
+        insertAfter(counterclockwise[reference], halfEdge);
+    }
+
+    private static long edgeKey(int first, int second) {
+        return ((long) Math.min(first, second) << Integer.SIZE) | Math.max(first, second);
+    }
+}
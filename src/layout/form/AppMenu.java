@@ -1,13 +1,18 @@
 package layout.form;
 
+import controller.AnalysisTask;
+import controller.ChromaticNumber;
+import controller.Coloring;
 import controller.FileProcessor;
 import controller.GraphController;
 import controller.GraphProducer;
+import controller.verifier.PlanarEmbedding;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.event.ActionEvent;
 import javafx.event.EventHandler;
 import javafx.geometry.Insets;
+import javafx.geometry.Point2D;
 import javafx.scene.control.*;
 import javafx.scene.layout.GridPane;
 import javafx.scene.paint.Color;
@@ -16,6 +21,7 @@ import javafx.stage.Stage;
 import javafx.util.Pair;
 import layout.DrawableArc;
 import layout.DrawableNode;
+import layout.PlanarLayout;
 import model.*;
 
 import java.io.File;
@@ -28,6 +34,7 @@ import static sample.Main.MAIN_FORM_WIDTH;
 
 public class AppMenu {
     private static final String FILE_FORMAT = "*.graph";
+    private static final long CHROMATIC_NUMBER_TIME_BUDGET_MILLIS = 10_000;
 
     private GraphTabPane graphTabPane;
 
@@ -112,12 +119,14 @@ public class AppMenu {
         MenuItem distanceBetweenNodes = new MenuItem("Distance between nodes");
         Menu coloring = new Menu("Coloring");
         MenuItem coloringNodes = new MenuItem("Coloring of nodes");
+        MenuItem minimalColoring = new MenuItem("Minimal coloring");
 
         hamiltonianCycles.setOnAction(findHamiltonianCyclesEventHandler);
         coloringNodes.setOnAction(coloringNodesEventHandler);
+        minimalColoring.setOnAction(minimalColoringEventHandler);
         distanceBetweenNodes.setOnAction(distanceBetweenNodesEventHandler);
 
-        coloring.getItems().add(coloringNodes);
+        coloring.getItems().addAll(coloringNodes, minimalColoring);
         algorithm.getItems().addAll(hamiltonianCycles, distanceBetweenNodes, coloring);
 
         return algorithm;
@@ -162,6 +171,18 @@ public class AppMenu {
         return alert;
     }
 
+    // An analysis that has thrown is reported with its exception instead of the result
+    private void showFailure(String title, AnalysisTask<?> task) {
+        Alert failure = createEmptyDialog(new Label(title + " has failed: " + task.getException()), "Error");
+        failure.getButtonTypes().add(ButtonType.OK);
+        failure.show();
+    }
+
+    // Results of a graph which has been changed since the analysis began are marked in the dialog title
+    private String analysisTitle(String title, GraphController graphController, AnalysisTask<?> task) {
+        return graphController.isActual(task) ? title : title + " (before the latest changes)";
+    }
+
     private File createSaveFileDialog() {
         FileChooser saveFileChooser = new FileChooser();
         saveFileChooser.setTitle("Save graph");
@@ -195,14 +216,26 @@ public class AppMenu {
 
         Random nodePositionRandom = new Random(System.currentTimeMillis());
 
+        // A planar graph is drawn without crossings, the nodes of any other are scattered
+        PlanarEmbedding planarEmbedding = graphController.planarEmbedding();
+        Map<Node, Point2D> planarPositions = planarEmbedding == null
+                ? null
+                : new PlanarLayout(planarEmbedding).positions(MAIN_FORM_WIDTH - 100, MAIN_FORM_HEIGHT - 300);
+
         for (Node node : graphController.getNodes()) {
             DrawableNode drawableNode = new DrawableNode(node);
-            drawableNode.getShape().setCenterX(
-                    nodePositionRandom.nextInt((int) MAIN_FORM_WIDTH - 100) + 50
-            );
-            drawableNode.getShape().setCenterY(
-                    nodePositionRandom.nextInt((int) MAIN_FORM_HEIGHT - 300) + 50
-            );
+
+            if (planarPositions != null) {
+                drawableNode.getShape().setCenterX(planarPositions.get(node).getX() + 50);
+                drawableNode.getShape().setCenterY(planarPositions.get(node).getY() + 50);
+            } else {
+                drawableNode.getShape().setCenterX(
+                        nodePositionRandom.nextInt((int) MAIN_FORM_WIDTH - 100) + 50
+                );
+                drawableNode.getShape().setCenterY(
+                        nodePositionRandom.nextInt((int) MAIN_FORM_HEIGHT - 300) + 50
+                );
+            }
 
             graphPane.getPane().getChildren().addAll(
                     drawableNode.getShape(), drawableNode.getName(), drawableNode.getIdentifier()
@@ -211,33 +244,27 @@ public class AppMenu {
             drawableNode.getShape().toFront();
         }
 
-        for (DrawableNode begin : graphPane.getDrawableNodes()) {
-            for (DrawableNode end : graphPane.getDrawableNodes()) {
-                Arc arc = graphController.getGraph().getArc(begin.getSourceNode(), end.getSourceNode());
+        Map<Node, DrawableNode> drawableNodes = new HashMap<>();
 
-                if (arc != null) {
-                    DrawableArc newInverse = new DrawableArc(
-                            new Arc(arc.getEnd(), arc.getBegin(),
-                                    false),
-                            new DrawableNode(arc.getEnd()),
-                            new DrawableNode(arc.getBegin())
-                    );
-
-                    if (graphPane.getDrawableArcs().indexOf(newInverse) != -1) {
-                        DrawableArc inverseFound = graphPane.getDrawableArcs()
-                                .get(graphPane.getDrawableArcs().indexOf(newInverse));
+        for (DrawableNode drawableNode : graphPane.getDrawableNodes()) {
+            drawableNodes.put(drawableNode.getSourceNode(), drawableNode);
+        }
 
-                        graphPane.getPane().getChildren()
-                                .remove(inverseFound.getArrow()); // kaef
+        // Undirected arcs are stored once, so every arc gets a drawable of its own
+        for (Arc arc : graphController.getArcs()) {
+            DrawableArc drawableArc = new DrawableArc(
+                    arc,
+                    drawableNodes.get(arc.getBegin()),
+                    drawableNodes.get(arc.getEnd())
+            );
 
-                        continue;
-                    }
+            graphPane.getPane().getChildren().addAll(drawableArc.getLine(), drawableArc.getLoop());
 
-                    DrawableArc drawableArc = new DrawableArc(arc, begin, end);
-                    graphPane.getPane().getChildren().addAll(drawableArc.getLine(), drawableArc.getArrow());
-                    graphPane.getDrawableArcs().add(drawableArc);
-                }
+            if (arc.isDirected()) {
+                graphPane.getPane().getChildren().add(drawableArc.getArrow());
             }
+
+            graphPane.getDrawableArcs().add(drawableArc);
         }
 
         for (DrawableNode drawableNode : graphPane.getDrawableNodes()) {
@@ -346,24 +373,33 @@ public class AppMenu {
 
     // Taking all graph's centers
     private EventHandler<ActionEvent> getCentersEventHandler = e -> {
-        ObservableList<String> graphCenters = FXCollections.observableArrayList();
+        GraphController graphController;
 
         try {
-            for (Node node : graphTabPane.currentGraphPane().getGraphController().centers()) {
-                graphCenters.add(node.toString());
-            }
+            graphController = graphTabPane.currentGraphPane().getGraphController();
         } catch (NullPointerException ex) {
             return;
         }
 
-        ListView<String> listView = new ListView<>();
-        listView.getItems().addAll(graphCenters);
-        listView.setPrefSize(MAIN_FORM_WIDTH / 10,MAIN_FORM_HEIGHT / 8);
-        listView.setEditable(false);
+        AnalysisTask<ObservableList<Node>> centers = graphController.centersInBackground();
+
+        centers.setOnSucceeded(event -> {
+            ObservableList<String> graphCenters = FXCollections.observableArrayList();
 
-        Alert centersDialog = createEmptyDialog(listView, "Centers");
-        centersDialog.getButtonTypes().add(ButtonType.OK);
-        centersDialog.show();
+            for (Node node : centers.getValue()) {
+                graphCenters.add(node.toString());
+            }
+
+            ListView<String> listView = new ListView<>();
+            listView.getItems().addAll(graphCenters);
+            listView.setPrefSize(MAIN_FORM_WIDTH / 10,MAIN_FORM_HEIGHT / 8);
+            listView.setEditable(false);
+
+            Alert centersDialog = createEmptyDialog(listView, analysisTitle("Centers", graphController, centers));
+            centersDialog.getButtonTypes().add(ButtonType.OK);
+            centersDialog.show();
+        });
+        centers.setOnFailed(event -> showFailure("Centers", centers));
     };
 
     // Clearing the graph pane with the source graph
@@ -372,8 +408,10 @@ public class AppMenu {
             graphTabPane.currentGraphPane().getPane().getChildren().clear();
             graphTabPane.currentGraphPane().getDrawableArcs().clear();
             graphTabPane.currentGraphPane().getDrawableNodes().clear();
-            graphTabPane.currentGraphPane().getGraphController().getArcs().clear();
-            graphTabPane.currentGraphPane().getGraphController().getNodes().clear();
+            graphTabPane.currentGraphPane().getGraphController().getGraph().batch(() -> {
+                graphTabPane.currentGraphPane().getGraphController().getArcs().clear();
+                graphTabPane.currentGraphPane().getGraphController().getNodes().clear();
+            });
         } finally {
             return;
         }
@@ -474,24 +512,35 @@ public class AppMenu {
     // Making graph complete
     private EventHandler<ActionEvent> makeCompleteEventHandler = e -> {
         GraphPane currentGraphPane = graphTabPane.currentGraphPane();
+        GraphController graphController = currentGraphPane.getGraphController();
         currentGraphPane.removeLoops();
-        currentGraphPane.getGraphController().makeComplete();
+        graphController.makeComplete();
 
-        for (Arc arc : currentGraphPane.getGraphController().getArcs()) {
-            DrawableArc newInverse = new DrawableArc(
-                    new Arc(arc.getEnd(), arc.getBegin(),
-                            false),
-                    new DrawableNode(arc.getEnd()),
-                    new DrawableNode(arc.getBegin())
-            );
+        // Every drawn arc follows the undirected arc left between its nodes, the extra ones are erased
+        Set<Arc> drawnArcs = Collections.newSetFromMap(new IdentityHashMap<>());
+        Set<DrawableArc> drawableArcsToRemove = Collections.newSetFromMap(new IdentityHashMap<>());
 
-            if (currentGraphPane.getDrawableArcs().indexOf(newInverse) != -1) {
-                DrawableArc inverseFound = currentGraphPane.getDrawableArcs()
-                        .get(currentGraphPane.getDrawableArcs().indexOf(newInverse));
+        for (DrawableArc drawableArc : currentGraphPane.getDrawableArcs()) {
+            Arc arc = graphController.getGraph().getArc(
+                    drawableArc.getSourceArc().getBegin(),
+                    drawableArc.getSourceArc().getEnd()
+            );
 
+            if (arc == null || !drawnArcs.add(arc)) {
+                drawableArcsToRemove.add(drawableArc);
                 currentGraphPane.getPane().getChildren()
-                        .remove(inverseFound.getArrow()); // kaef
+                        .removeAll(drawableArc.getLine(), drawableArc.getArrow(), drawableArc.getLoop());
+                continue;
+            }
 
+            drawableArc.setSourceArc(arc);
+            currentGraphPane.getPane().getChildren().remove(drawableArc.getArrow());
+        }
+
+        currentGraphPane.getDrawableArcs().removeIf(drawableArcsToRemove::contains);
+
+        for (Arc arc : graphController.getArcs()) {
+            if (drawnArcs.contains(arc)) {
                 continue;
             }
 
@@ -506,10 +555,6 @@ public class AppMenu {
                     newEnd
             );
 
-            if (currentGraphPane.getDrawableArcs().indexOf(newPrime) != -1) {
-                continue;
-            }
-
             currentGraphPane.getPane().getChildren().add(newPrime.getLine());
             currentGraphPane.getDrawableArcs().add(newPrime);
         }
@@ -529,57 +574,88 @@ public class AppMenu {
 
     // Finding of hamiltonian cycles
     private EventHandler<ActionEvent> findHamiltonianCyclesEventHandler = e -> {
-        ObservableList<String> cycles = FXCollections.observableArrayList();
+        GraphController graphController;
 
         try {
-            for (Path cycle : graphTabPane.currentGraphPane().getGraphController().hamiltonianCycles()) {
-                cycles.add(cycle.toString());
-            }
+            graphController = graphTabPane.currentGraphPane().getGraphController();
         } catch (NullPointerException ex){
             return;
         }
 
-        ListView<String> listView = new ListView<>();
-        listView.getItems().addAll(cycles);
-        listView.setPrefSize(MAIN_FORM_WIDTH / 3,MAIN_FORM_HEIGHT / 5);
-        listView.setEditable(false);
-
-        Alert hamiltonianCyclesDialog = createEmptyDialog(listView, "Hamiltonian cycles");
-        hamiltonianCyclesDialog.getButtonTypes().add(ButtonType.OK);
-        hamiltonianCyclesDialog.show();
+        new HamiltonianCyclesDialog(graphController).show();
     };
 
     // Coloring the graph nodes
     private EventHandler<ActionEvent> coloringNodesEventHandler = e -> {
-        Map<Node, String> stringColors = graphTabPane.currentGraphPane().getGraphController().colorizeNodes();
-        Map<String, Color> colors = new HashMap<>();
+        GraphPane graphPane = graphTabPane.currentGraphPane();
+        AnalysisTask<Coloring> nodesColors = graphPane.getGraphController().colorizeNodesInBackground();
 
-        Random random = new Random(System.currentTimeMillis());
+        nodesColors.setOnSucceeded(event -> fillNodes(graphPane, nodesColors.getValue()));
+        nodesColors.setOnFailed(event -> showFailure("Coloring", nodesColors));
+    };
 
-        for (String stringColor : stringColors.values()) {
-            colors.put(
-                    stringColor,
-                    Color.color(random.nextDouble(),
-                            random.nextDouble(),
-                            random.nextDouble())
+    // Coloring by the least count of colors, the bounds are shown when the time budget has run out
+    private EventHandler<ActionEvent> minimalColoringEventHandler = e -> {
+        GraphPane graphPane = graphTabPane.currentGraphPane();
+        GraphController graphController = graphPane.getGraphController();
+        AnalysisTask<ChromaticNumber> chromaticNumber =
+                graphController.chromaticNumberInBackground(CHROMATIC_NUMBER_TIME_BUDGET_MILLIS);
+
+        chromaticNumber.setOnSucceeded(event -> {
+            ChromaticNumber result = chromaticNumber.getValue();
+            fillNodes(graphPane, result.getColoring());
+
+            String message = result.isExact()
+                    ? "Chromatic number is " + result.getUpperBound()
+                    : "Chromatic number is from " + result.getLowerBound() + " to " + result.getUpperBound()
+                            + (result.isSearched()
+                                    ? ", the search ran out of time"
+                                    : ", the graph is too large for the exact search");
+
+            Alert minimalColoringDialog = createEmptyDialog(
+                    new Label(message), analysisTitle("Minimal coloring", graphController, chromaticNumber)
             );
+            minimalColoringDialog.getButtonTypes().add(ButtonType.OK);
+            minimalColoringDialog.show();
+        });
+        chromaticNumber.setOnFailed(event -> showFailure("Minimal coloring", chromaticNumber));
+    };
+
+    // Nodes added while the coloring was in progress keep their fill
+    private void fillNodes(GraphPane graphPane, Coloring coloring) {
+        Color[] colors = new Color[coloring.getColorsCount()];
+
+        Random random = new Random(System.currentTimeMillis());
+
+        for (int color = 0; color < colors.length; color++) {
+            colors[color] = Color.color(random.nextDouble(), random.nextDouble(), random.nextDouble());
         }
 
-        List<DrawableNode> drawableNodes = graphTabPane.currentGraphPane().getDrawableNodes();
+        for (DrawableNode drawableNode : graphPane.getDrawableNodes()) {
+            Integer color = coloring.colorOf(drawableNode.getSourceNode());
 
-        for (DrawableNode drawableNode : drawableNodes) {
-            drawableNode.getShape().setFill(colors.get(stringColors.get(drawableNode.getSourceNode())));
+            if (color != null) {
+                drawableNode.getShape().setFill(colors[color]);
+            }
         }
-    };
+    }
 
     // Distance between two specified nodes
     private EventHandler<ActionEvent> distanceBetweenNodesEventHandler = e -> {
         ComboBox<String> firstNodeName = new ComboBox<>();
         ComboBox<String> secondNodeName = new ComboBox<>();
 
+        // The dialog is modal, so the nodes stay where they are and one map serves all of its queries
+        Map<Node, Point2D> positions = new HashMap<>();
+
         for (DrawableNode drawableNode : graphTabPane.currentGraphPane().getDrawableNodes()) {
             firstNodeName.getItems().add(drawableNode.getSourceNode().toString());
             secondNodeName.getItems().add(drawableNode.getSourceNode().toString());
+
+            positions.put(
+                    drawableNode.getSourceNode(),
+                    new Point2D(drawableNode.getShape().getCenterX(), drawableNode.getShape().getCenterY())
+            );
         }
 
         GridPane gridPane = new GridPane();
@@ -611,9 +687,7 @@ public class AppMenu {
                 }
             }
 
-            Integer distance = graphTabPane.currentGraphPane().getGraphController()
-                    .getDistanceMatrix().getDistancesMap()
-                    .get(begin).get(end);
+            int distance = graphTabPane.currentGraphPane().getGraphController().distance(begin, end, positions);
 
             Label distanceText = new Label();
             Alert distanceAsItIs = createEmptyDialog(distanceText, "Distance");
@@ -622,10 +696,7 @@ public class AppMenu {
             if (distance == DistanceMatrix.INFINITY) {
                 distanceText.setText("Node way from " + begin + " to " + end + " found");
             } else {
-                distanceText.setText("Distance between " + begin + " and " + end + " is " +
-                                graphTabPane.currentGraphPane().getGraphController()
-                                        .getDistanceMatrix().getDistancesMap()
-                                        .get(begin).get(end));
+                distanceText.setText("Distance between " + begin + " and " + end + " is " + distance);
             }
 
             distanceAsItIs.show();
@@ -11,15 +11,17 @@ import javafx.scene.input.MouseButton;
 import javafx.scene.input.MouseEvent;
 import javafx.scene.layout.GridPane;
 import javafx.scene.layout.Pane;
+import javafx.scene.paint.Color;
 import javafx.scene.shape.Rectangle;
 import layout.DrawableArc;
 import layout.DrawableNode;
 import model.Arc;
 import model.Node;
+import controller.AnalysisTask;
 import controller.GraphController;
+import controller.verifier.KuratowskiSubgraph;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
 
 import static layout.DrawableNode.CIRCLE_RADIUS;
 import static sample.Main.MAIN_FORM_HEIGHT;
@@ -31,6 +33,7 @@ public class GraphPane {
 
     private static final ColorPicker colorPicker = new ColorPicker();
     private static final int DOUBLE_MOUSE_CLICK_COUNT = 2;
+    private static final Color HIGHLIGHT_COLOR = Color.RED;
 
     private GraphController graphController;
     private ActionType actionType;
@@ -153,6 +156,10 @@ public class GraphPane {
                     getNodeDegreeEventHandler.handle(event);
                 }
 
+                if (event.getCode().equals(KeyCode.W)) {
+                    arcWeightingEventHandler.handle(event);
+                }
+
                 if (event.getCode().equals(KeyCode.T)) {
                     for (DrawableArc drawableArc : drawableArcs) {
                         if (drawableArc.isFocused()) {
@@ -180,6 +187,13 @@ public class GraphPane {
         return alert;
     }
 
+    // An analysis that has thrown is reported with its exception instead of the result
+    private void showFailure(String title, AnalysisTask<?> task) {
+        Alert failure = createEmptyDialog(new Label(title + " has failed: " + task.getException()), "Error");
+        failure.getButtonTypes().add(ButtonType.OK);
+        failure.show();
+    }
+
     public DrawableNode focusedNode() {
         for (DrawableNode drawableNode : drawableNodes) {
             if (drawableNode.isFocused()) {
@@ -190,6 +204,26 @@ public class GraphPane {
         return null;
     }
 
+    // Marking the nodes and arcs of a subgraph proving the graph isn't planar
+    public void highlight(KuratowskiSubgraph kuratowskiSubgraph) {
+        Set<Arc> arcs = Collections.newSetFromMap(new IdentityHashMap<>());
+        arcs.addAll(kuratowskiSubgraph.getArcs());
+
+        for (DrawableNode drawableNode : drawableNodes) {
+            if (kuratowskiSubgraph.getNodes().contains(drawableNode.getSourceNode())) {
+                drawableNode.getShape().setFill(HIGHLIGHT_COLOR);
+            }
+        }
+
+        for (DrawableArc drawableArc : drawableArcs) {
+            if (arcs.contains(drawableArc.getSourceArc())) {
+                drawableArc.getLine().setStroke(HIGHLIGHT_COLOR);
+                drawableArc.getArrow().setStroke(HIGHLIGHT_COLOR);
+                drawableArc.getArrow().setFill(HIGHLIGHT_COLOR);
+            }
+        }
+    }
+
     public void removeLoops() {
         if (graphController.getGraph().containsLoop()) {
             List<DrawableArc> drawableArcsToRemove = new ArrayList<>();
@@ -260,11 +294,15 @@ public class GraphPane {
             if ((beginForArc != null)
                     && (endForArc != null)) {
 
-                Arc arc = new Arc(beginForArc.getSourceNode(), endForArc.getSourceNode());
-                Arc inverseArc = new Arc(endForArc.getSourceNode(), beginForArc.getSourceNode());
+                // A loop has no direction to show
+                Arc arc = new Arc(
+                        beginForArc.getSourceNode(),
+                        endForArc.getSourceNode(),
+                        !beginForArc.getSourceNode().equals(endForArc.getSourceNode())
+                );
 
-                if ((graphController.getArcs().contains(arc))
-                        || (graphController.getArcs().contains(inverseArc))) {
+                if ((graphController.getGraph().containsArc(arc.getBegin(), arc.getEnd()))
+                        || (graphController.getGraph().containsArc(arc.getEnd(), arc.getBegin()))) {
                     isNodesForArcSelected = false;
                     beginForArc = null;
                     endForArc = null;
@@ -273,11 +311,6 @@ public class GraphPane {
 
                 graphController.addArc(arc);
 
-                if (arc.getBegin().equals(arc.getEnd())) {
-                    arc.setDirected(false);
-                    graphController.addArc(new Arc(arc.getEnd(), arc.getBegin(), false));
-                }
-
                 DrawableArc arcShape = new DrawableArc(arc, beginForArc, endForArc);
 
                 drawableArcs.add(arcShape);
@@ -324,11 +357,6 @@ public class GraphPane {
 
         for (DrawableArc drawableArc : drawableArcs) {
             if (drawableArc.isFocused()) {
-                if (!drawableArc.getSourceArc().isDirected()){
-                    graphController.removeArc(new Arc(drawableArc.getSourceArc().getEnd(),
-                            drawableArc.getSourceArc().getBegin()));
-                }
-
                 graphController.removeArc(drawableArc.getSourceArc());
                 drawableArcs.remove(drawableArc);
                 pane.getChildren().removeAll(drawableArc.getLine(), drawableArc.getArrow(), drawableArc.getLoop());
@@ -386,7 +414,7 @@ public class GraphPane {
                 renameDialog.getButtonTypes().add(RENAME);
 
                 ((Button) renameDialog.getDialogPane().lookupButton(RENAME)).setOnAction(actionEvent -> {
-                    drawableNode.getSourceNode().setName(newName.getText());
+                    graphController.renameNode(drawableNode.getSourceNode(), newName.getText());
                     drawableNode.setName(newName.getText());
                 });
 
@@ -408,42 +436,113 @@ public class GraphPane {
         }
     };
 
+    // Setting of an arc in focus weight with W key pressed
+    private EventHandler<KeyEvent> arcWeightingEventHandler = e -> {
+        for (DrawableArc drawableArc : drawableArcs) {
+            if (drawableArc.isFocused()) {
+                TextField newWeight = new TextField(String.valueOf(drawableArc.getSourceArc().getWeight()));
+
+                GridPane gridPane = new GridPane();
+                gridPane.add(new Label("Weight"), 0, 0);
+                gridPane.add(newWeight, 1, 0);
+                GridPane.setMargin(newWeight, new Insets(CIRCLE_RADIUS));
+
+                Alert weightDialog = createEmptyDialog(gridPane, "Arc weighting");
+
+                ButtonType SET = new ButtonType("Set");
+                weightDialog.getButtonTypes().add(SET);
+
+                ((Button) weightDialog.getDialogPane().lookupButton(SET)).setOnAction(actionEvent -> {
+                    int weight;
+
+                    try {
+                        weight = Integer.parseInt(newWeight.getText().trim());
+                    } catch (NumberFormatException ex) {
+                        return;
+                    }
+
+                    if (weight >= 0) {
+                        graphController.setArcWeight(drawableArc.getSourceArc(), weight);
+                    }
+                });
+
+                weightDialog.show();
+                break;
+            }
+        }
+    };
+
     // Making arc (un)directed with T key pressed
     private EventHandler<KeyEvent> arcDirectionSwapEventHandler = e -> {
         for (DrawableArc drawableArc : drawableArcs) {
             if (drawableArc.isFocused()) {
-                if (drawableArc.getSourceArc().isDirected()) {
+                Arc arc = drawableArc.getSourceArc();
+
+                if (arc.isDirected()) {
                     pane.getChildren().remove(drawableArc.getArrow());
-                    Arc reversedArc = new Arc(drawableArc.getSourceArc().getEnd(), drawableArc.getSourceArc().getBegin());
-                    reversedArc.setDirected(false);
-                    graphController.addArc(reversedArc);
-                    drawableArc.getSourceArc().setDirected(false);
                 } else {
                     pane.getChildren().add(drawableArc.getArrow());
-                    graphController.removeArc(new Arc(drawableArc.getSourceArc().getEnd(), drawableArc.getSourceArc().getBegin()));
-                    drawableArc.getSourceArc().setDirected(true);
                 }
+
+                drawableArc.setSourceArc(graphController.changeArcDirection(arc, !arc.isDirected()));
             }
         }
     };
 
-    // Check for graph planarity
+    // Check for graph planarity, the answer is shown at once and a non-planar part is looked for afterwards
     private EventHandler<KeyEvent> isPlanarEventHandler = e -> {
-        Alert planarity = createEmptyDialog(
-                new Label("Graph is" + (graphController.isPlanar() ? " " : "n't ") + "planar"),
-                "Planarity"
-        );
-        planarity.getButtonTypes().add(ButtonType.OK);
+        AnalysisTask<Boolean> isPlanar = graphController.isPlanarInBackground();
+
+        isPlanar.setOnSucceeded(event -> {
+            boolean isActual = graphController.isActual(isPlanar);
+            String message = "Graph " + (isActual ? "is" : "was") + (isPlanar.getValue() ? " " : "n't ") + "planar"
+                    + (isActual ? "" : " before the latest changes");
+
+            Label result = new Label(message);
+            Alert planarity = createEmptyDialog(result, "Planarity");
+            planarity.getButtonTypes().add(ButtonType.OK);
+
+            planarity.show();
 
-        planarity.show();
+            // The drawing may have changed since, then there's nothing certain to point at
+            if (!isPlanar.getValue() && isActual) {
+                result.setText(message + ", looking for a non-planar part...");
+                showKuratowskiSubgraph(result, message);
+            }
+        });
+        isPlanar.setOnFailed(event -> showFailure("Planarity check", isPlanar));
     };
 
+    private void showKuratowskiSubgraph(Label result, String message) {
+        AnalysisTask<KuratowskiSubgraph> kuratowskiSubgraph = graphController.kuratowskiSubgraphInBackground();
+
+        kuratowskiSubgraph.setOnSucceeded(event -> {
+            KuratowskiSubgraph witness = kuratowskiSubgraph.getValue();
+
+            if (witness == null || !graphController.isActual(kuratowskiSubgraph)) {
+                result.setText(message);
+                return;
+            }
+
+            highlight(witness);
+            result.setText(message + ", the highlighted part is a subdivision of " + (witness.isK5() ? "K5" : "K3,3"));
+        });
+        kuratowskiSubgraph.setOnFailed(event -> {
+            result.setText(message + ", no non-planar part could be found");
+            showFailure("Search of a non-planar part", kuratowskiSubgraph);
+        });
+    }
+
     // Check is graph a tree
     private EventHandler<KeyEvent> isTreeEventHandler = e -> {
-        Alert isTree = createEmptyDialog(
-                new Label("Graph is" + (graphController.isTree() ? " " : "n't ") + "a tree"),
-                "Is tree"
-        );
+        String message = "Graph is" + (graphController.isTree() ? " " : "n't ") + "a tree";
+        Arc cycleArc = graphController.cycleArc();
+
+        if (cycleArc != null) {
+            message += ", the arc " + cycleArc + " closes a cycle";
+        }
+
+        Alert isTree = createEmptyDialog(new Label(message), "Is tree");
         isTree.getButtonTypes().add(ButtonType.OK);
 
         isTree.show();
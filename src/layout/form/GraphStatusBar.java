@@ -1,5 +1,7 @@
 package layout.form;
 
+import controller.AnalysisTask;
+import controller.EccentricityBounds;
 import controller.GraphController;
 import javafx.collections.ListChangeListener;
 import javafx.scene.control.Label;
@@ -12,6 +14,7 @@ public class GraphStatusBar {
     private static final String ARCS_COUNT = "Arcs count: ";
     private static final String DIAMETER = "Diameter: ";
     private static final String RADIUS = "Radius: ";
+    private static final String UNKNOWN = "unknown";
 
     private GraphController graphController;
 
@@ -22,6 +25,10 @@ public class GraphStatusBar {
     private Label radius;
     private Label isComplete;
 
+    // Diameter and radius are calculated on a worker, one calculation at a time. Changes made while
+    // it runs are caught up with by a single calculation after it
+    private AnalysisTask<EccentricityBounds> eccentricityBounds;
+
 
     public GraphStatusBar() {
         this.graphController = null;
@@ -37,6 +44,7 @@ public class GraphStatusBar {
     public void updateSource(GraphController graphController) {
         removeListeners();
         this.graphController = graphController;
+        eccentricityBounds = null;
         updateLabels();
         addListeners();
     }
@@ -69,8 +77,7 @@ public class GraphStatusBar {
         try {
             graphController.getNodes().removeListener(nodesCountListener);
             graphController.getArcs().removeListener(arcsCountListener);
-            graphController.getArcs().removeListener(diameterListener);
-            graphController.getArcs().removeListener(radiusListener);
+            graphController.getArcs().removeListener(eccentricitiesListener);
 
             graphController.getArcs().removeListener(isCompleteListener);
             graphController.getNodes().removeListener(isCompleteListener);
@@ -82,8 +89,7 @@ public class GraphStatusBar {
     private void addListeners() {
         graphController.getNodes().addListener(nodesCountListener);
         graphController.getArcs().addListener(arcsCountListener);
-        graphController.getArcs().addListener(diameterListener);
-        graphController.getArcs().addListener(radiusListener);
+        graphController.getArcs().addListener(eccentricitiesListener);
 
         graphController.getArcs().addListener(isCompleteListener);
         graphController.getNodes().addListener(isCompleteListener);
@@ -92,11 +98,44 @@ public class GraphStatusBar {
     private void updateLabels() {
         nodesCount.setText(NODES_COUNT + String.valueOf(graphController.getNodes().size()));
         arcsCount.setText(ARCS_COUNT + String.valueOf(graphController.getArcs().size()));
-        diameter.setText(DIAMETER + String.valueOf(graphController.diameter()));
-        radius.setText(RADIUS + String.valueOf(graphController.radius()));
+        updateEccentricities();
         isComplete.setText("Graph is" + (graphController.isComplete() ? " " : "n't ") + "complete");
     }
 
+    private void updateEccentricities() {
+        if (eccentricityBounds != null) {
+            return;
+        }
+
+        AnalysisTask<EccentricityBounds> task = graphController.eccentricityBoundsInBackground();
+        eccentricityBounds = task;
+
+        task.setOnSucceeded(e -> {
+            if (eccentricityBounds == task) {
+                diameter.setText(DIAMETER + String.valueOf(task.getValue().getDiameter()));
+                radius.setText(RADIUS + String.valueOf(task.getValue().getRadius()));
+                updateEccentricitiesAfter(task);
+            }
+        });
+
+        task.setOnFailed(e -> {
+            if (eccentricityBounds == task) {
+                diameter.setText(DIAMETER + UNKNOWN);
+                radius.setText(RADIUS + UNKNOWN);
+                updateEccentricitiesAfter(task);
+            }
+        });
+    }
+
+    // The next calculation is started only if the graph has changed since the finished one's snapshot
+    private void updateEccentricitiesAfter(AnalysisTask<EccentricityBounds> task) {
+        eccentricityBounds = null;
+
+        if (!graphController.isActual(task)) {
+            updateEccentricities();
+        }
+    }
+
     /*
      *      Listeners
      */
@@ -109,13 +148,7 @@ public class GraphStatusBar {
         arcsCount.setText(ARCS_COUNT + String.valueOf(graphController.getArcs().size()));
     };
 
-    private ListChangeListener diameterListener = change -> {
-        diameter.setText(DIAMETER + String.valueOf(graphController.diameter()));
-    };
-
-    private ListChangeListener radiusListener = change -> {
-        radius.setText(RADIUS + String.valueOf(graphController.radius()));
-    };
+    private ListChangeListener eccentricitiesListener = change -> updateEccentricities();
 
     private ListChangeListener isCompleteListener = change -> {
         isComplete.setText("Graph is" + (graphController.isComplete() ? " " : "n't ") + "complete");
@@ -0,0 +1,167 @@
+package layout.form;
+
+import controller.AnalysisTask;
+import controller.GraphController;
+import controller.HamiltonianCyclesStream;
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.geometry.Insets;
+import javafx.scene.control.*;
+import javafx.scene.layout.GridPane;
+import javafx.util.Duration;
+import model.Path;
+
+import java.util.*;
+
+import static layout.DrawableNode.CIRCLE_RADIUS;
+import static sample.Main.MAIN_FORM_HEIGHT;
+import static sample.Main.MAIN_FORM_WIDTH;
+
+
+// Hamiltonian cycles listed while the search goes on, up to the count given, or only counted. Cycles are taken
+// from the search's stream a batch per refresh, the list view makes cells for the visible ones only
+public class HamiltonianCyclesDialog {
+    private static final String TITLE = "Hamiltonian cycles";
+    private static final int DEFAULT_CYCLES_LIMIT = 1000;
+    private static final int MAX_CYCLES_LIMIT = 1_000_000;
+    private static final int CYCLES_PER_REFRESH = 4096;
+    private static final Duration REFRESH_PERIOD = Duration.millis(100);
+
+    private GraphController graphController;
+
+    private Alert alert;
+    private Spinner<Integer> cyclesLimit;
+    private Button listCycles;
+    private Button countCycles;
+    private Button stop;
+    private Label status;
+    private ListView<Path> cycles;
+    private Timeline refresh;
+
+    private HamiltonianCyclesStream stream;
+    private AnalysisTask<Long> search;
+
+
+    public HamiltonianCyclesDialog(GraphController graphController) {
+        this.graphController = graphController;
+
+        configureControls();
+        configureAlert();
+    }
+
+    // The first cycles are listed right away
+    public void show() {
+        alert.show();
+        startSearch(HamiltonianCyclesStream.firstCycles(DEFAULT_CYCLES_LIMIT));
+    }
+
+    /*
+     *      Configs
+     */
+
+    private void configureControls() {
+        cyclesLimit = new Spinner<>(1, MAX_CYCLES_LIMIT, DEFAULT_CYCLES_LIMIT);
+        cyclesLimit.setEditable(true);
+
+        listCycles = new Button("List");
+        countCycles = new Button("Count only");
+        stop = new Button("Stop");
+        status = new Label();
+
+        cycles = new ListView<>();
+        cycles.setPrefSize(MAIN_FORM_WIDTH / 3, MAIN_FORM_HEIGHT / 5);
+        cycles.setEditable(false);
+
+        listCycles.setOnAction(e -> startSearch(HamiltonianCyclesStream.firstCycles(cyclesLimit.getValue())));
+        countCycles.setOnAction(e -> startSearch(HamiltonianCyclesStream.countOnly()));
+        stop.setOnAction(e -> stopSearch());
+
+        refresh = new Timeline(new KeyFrame(REFRESH_PERIOD, e -> takeCycles(CYCLES_PER_REFRESH)));
+        refresh.setCycleCount(Animation.INDEFINITE);
+    }
+
+    private void configureAlert() {
+        GridPane gridPane = new GridPane();
+        gridPane.add(new Label("First cycles:"), 0, 0);
+        gridPane.add(cyclesLimit, 1, 0);
+        gridPane.add(listCycles, 2, 0);
+        gridPane.add(countCycles, 3, 0);
+        gridPane.add(stop, 4, 0);
+        gridPane.add(cycles, 0, 1, 5, 1);
+        gridPane.add(status, 0, 2, 5, 1);
+
+        for (javafx.scene.Node control : gridPane.getChildren()) {
+            GridPane.setMargin(control, new Insets(CIRCLE_RADIUS / 2));
+        }
+
+        alert = new Alert(Alert.AlertType.NONE);
+        alert.setTitle(TITLE);
+        alert.getDialogPane().setContent(gridPane);
+        alert.getButtonTypes().add(ButtonType.OK);
+
+        // Nobody needs the cycles of a closed dialog
+        alert.setOnHidden(e -> stopSearch());
+    }
+
+    /*
+     *      Search
+     */
+
+    private void startSearch(HamiltonianCyclesStream newStream) {
+        stopSearch();
+        cycles.getItems().clear();
+
+        AnalysisTask<Long> newSearch = graphController.hamiltonianCyclesInBackground(newStream);
+
+        stream = newStream;
+        search = newSearch;
+
+        newSearch.setOnSucceeded(e -> {
+            if (search == newSearch) {
+                refresh.stop();
+                takeCycles(Integer.MAX_VALUE);
+                showResult(newSearch.getValue());
+            }
+        });
+        newSearch.setOnFailed(e -> {
+            if (search == newSearch) {
+                refresh.stop();
+                status.setText("The search has failed");
+            }
+        });
+
+        status.setText("Searching...");
+        alert.setTitle(TITLE);
+        refresh.play();
+    }
+
+    private void stopSearch() {
+        if (stream != null) {
+            stream.stop();
+        }
+    }
+
+    // Cycles are added to the list at once, not one change per cycle
+    private void takeCycles(int maxCount) {
+        List<Path> taken = new ArrayList<>();
+
+        stream.drainTo(taken, maxCount);
+        cycles.getItems().addAll(taken);
+
+        status.setText("Found " + stream.getCount() + " cycles, searching...");
+    }
+
+    private void showResult(long cyclesCount) {
+        String result = cyclesCount + (cyclesCount == 1 ? " cycle" : " cycles");
+
+        if (stream.isStopped()) {
+            result += ", the search was stopped";
+        } else if (!stream.isCountOnly() && stream.isDone()) {
+            result += ", there may be more";
+        }
+
+        status.setText(result);
+        alert.setTitle(graphController.isActual(search) ? TITLE : TITLE + " (before the latest changes)");
+    }
+}
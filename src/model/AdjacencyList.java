@@ -13,11 +13,15 @@ public class AdjacencyList {
 
     private Map<Node, List<Node>> adjacencyLists;
 
+    // Arcs added before a node of theirs, kept under that node until it's added
+    private Map<Node, List<Arc>> pendingArcs;
+
 
     public AdjacencyList(Graph graph) {
         this.graph = graph;
 
         adjacencyLists = new HashMap<>();
+        pendingArcs = new HashMap<>();
         configureAdjacencyList();
     }
 
@@ -27,6 +31,8 @@ public class AdjacencyList {
         for (Arc arc : graph.getArcs()) {
             if (arc.getBegin().equals(node)) {
                 adjacents.add(arc.getEnd());
+            } else if (arc.isTwoWay() && arc.getEnd().equals(node)) {
+                adjacents.add(arc.getBegin());
             }
         }
 
@@ -40,26 +46,92 @@ public class AdjacencyList {
      */
 
     private void configureAdjacencyList() {
+        // A single pass over the arcs instead of one per node
         for (Node node : graph.getNodes()) {
-            adjacencyLists.put(node, setAdjacentNodesFor(node));
+            adjacencyLists.put(node, new ArrayList<>());
         }
 
-        graph.getArcs().addListener((ListChangeListener) changeList -> {
-            adjacencyLists.clear();
-            for (Node node : graph.getNodes()) {
-                adjacencyLists.put(node, setAdjacentNodesFor(node));
+        for (Arc arc : graph.getArcs()) {
+            addArc(arc);
+        }
+
+        graph.getArcs().addListener((ListChangeListener<Arc>) change -> {
+            while (change.next()) {
+                if (change.wasPermutated() || change.wasUpdated()) {
+                    continue;
+                }
+
+                for (Arc arc : change.getRemoved()) {
+                    removeAdjacent(arc.getBegin(), arc.getEnd(), arc);
+
+                    if (arc.isTwoWay()) {
+                        removeAdjacent(arc.getEnd(), arc.getBegin(), arc);
+                    }
+                }
+
+                for (Arc arc : change.getAddedSubList()) {
+                    addArc(arc);
+                }
             }
         });
 
-        graph.getNodes().addListener((ListChangeListener) changeList -> {
-            adjacencyLists.clear();
-            for (Node node : graph.getNodes()) {
-                adjacencyLists.put(node, setAdjacentNodesFor(node));
+        graph.getNodes().addListener((ListChangeListener<Node>) change -> {
+            while (change.next()) {
+                if (change.wasPermutated() || change.wasUpdated()) {
+                    continue;
+                }
+
+                for (Node node : change.getRemoved()) {
+                    adjacencyLists.remove(node);
+                    pendingArcs.remove(node);
+                }
+
+                // A new node's row holds only the arcs added before it, the other arcs are known not to be its
+                for (Node node : change.getAddedSubList()) {
+                    adjacencyLists.put(node, new ArrayList<>());
+
+                    List<Arc> arcs = pendingArcs.remove(node);
+
+                    if (arcs != null) {
+                        for (Arc arc : arcs) {
+                            addAdjacent(node, arc.getBegin().equals(node) ? arc.getEnd() : arc.getBegin(), arc);
+                        }
+                    }
+                }
             }
         });
     }
 
 
+    private void addArc(Arc arc) {
+        addAdjacent(arc.getBegin(), arc.getEnd(), arc);
+
+        if (arc.isTwoWay()) {
+            addAdjacent(arc.getEnd(), arc.getBegin(), arc);
+        }
+    }
+
+    // The arc waits for the node if it isn't in the lists yet
+    private void addAdjacent(Node node, Node adjacent, Arc arc) {
+        List<Node> adjacents = adjacencyLists.get(node);
+
+        if (adjacents != null) {
+            adjacents.add(adjacent);
+        } else {
+            pendingArcs.computeIfAbsent(node, waiting -> new ArrayList<>()).add(arc);
+        }
+    }
+
+    private void removeAdjacent(Node node, Node adjacent, Arc arc) {
+        List<Node> adjacents = adjacencyLists.get(node);
+
+        if (adjacents != null) {
+            adjacents.remove(adjacent);
+        } else if (pendingArcs.containsKey(node)) {
+            pendingArcs.get(node).removeIf(waiting -> waiting == arc);
+        }
+    }
+
     public Map<Node, List<Node>> getAdjacencyLists() {
         return adjacencyLists;
     }
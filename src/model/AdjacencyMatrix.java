@@ -3,53 +3,70 @@ package model;
 import javafx.collections.ListChangeListener;
 
 import java.util.*;
+import java.util.function.Consumer;
 
 
 public class AdjacencyMatrix {
+    private static final int MIN_CAPACITY = Long.SIZE;
+
     private Graph graph;
+
+    // Every node owns a slot, row bit 'end' of slot 'begin' is set when the arc begin -> end exists
+    private Map<Node, Integer> slots;
+    private Node[] nodesAtSlots;
+    private int slotsCount;
+    private int[] freeSlots;
+    private int freeSlotsCount;
+    private long[][] rows;
+
+    // Arcs added before one of their ends, kept under the missing end until it takes a slot
+    private Map<Node, List<Arc>> pendingArcs;
+
     private Map<Node, Map<Node, Boolean>> adjacencyMatrix;
 
 
     public AdjacencyMatrix() {
-        graph = new Graph();
-
-        adjacencyMatrix = new HashMap<>();
-        configureAdjacencyMatrix();
+        this(new Graph());
     }
 
     public AdjacencyMatrix(Graph graph) {
         this.graph = graph;
 
-        adjacencyMatrix = new HashMap<>();
+        initSlots(Math.max(MIN_CAPACITY, graph.getNodes().size()));
         configureAdjacencyMatrix();
     }
 
     public AdjacencyMatrix(AdjacencyMatrix parent) {
         this.graph = null; // hah
 
-        adjacencyMatrix = buildFromParent(parent);
+        buildFromParent(parent);
 
         //configureAdjacencyMatrix();
     }
 
     public String matrixToString() {
-        String toString = "";
+        StringBuilder toString = new StringBuilder();
 
-        for (Node node : adjacencyMatrix.keySet()) {
-            for (Boolean isAdjacent : adjacencyMatrix.get(node).values()) {
-                toString = toString.concat(isAdjacent ? "1 " : "0 ");
+        for (Node begin : slots.keySet()) {
+            for (Node end : slots.keySet()) {
+                toString.append(isAdjacent(begin, end) ? "1 " : "0 ");
             }
-            toString = toString.concat("\n");
+            toString.append("\n");
         }
 
-        return toString;
+        return toString.toString();
     }
 
     public Graph getGraph() {
         return graph;
     }
 
+    // Read-only map view over the bit rows, cells are decoded on access
     public Map<Node, Map<Node, Boolean>> getAdjacencyMatrix() {
+        if (adjacencyMatrix == null) {
+            adjacencyMatrix = new MatrixView();
+        }
+
         return adjacencyMatrix;
     }
 
@@ -59,20 +76,55 @@ public class AdjacencyMatrix {
 
     private void configureAdjacencyMatrix() {
         for (Node node : graph.getNodes()) {
-            adjacencyMatrix.put(node, setAdjacentNodesFor(node));
+            takeSlot(node);
+        }
+
+        for (Arc arc : graph.getArcs()) {
+            setCells(arc);
         }
 
-        graph.getArcs().addListener((ListChangeListener) changeList -> {
-            adjacencyMatrix.clear();
-            for (Node node : graph.getNodes()) {
-                adjacencyMatrix.put(node, setAdjacentNodesFor(node));
+        graph.getArcs().addListener((ListChangeListener<Arc>) change -> {
+            while (change.next()) {
+                if (change.wasPermutated() || change.wasUpdated()) {
+                    continue;
+                }
+
+                // A parallel arc may still connect the pair, so the cells are reread from the graph
+                for (Arc arc : change.getRemoved()) {
+                    rereadCells(arc);
+                }
+
+                for (Arc arc : change.getAddedSubList()) {
+                    setCells(arc);
+                }
             }
         });
 
-        graph.getNodes().addListener((ListChangeListener) changeList -> {
-            adjacencyMatrix.clear();
-            for (Node node : graph.getNodes()) {
-                adjacencyMatrix.put(node, setAdjacentNodesFor(node));
+        graph.getNodes().addListener((ListChangeListener<Node>) change -> {
+            while (change.next()) {
+                if (change.wasPermutated() || change.wasUpdated()) {
+                    continue;
+                }
+
+                for (Node node : change.getRemoved()) {
+                    releaseSlot(node);
+                    pendingArcs.remove(node);
+                }
+
+                // Only the arcs added before their ends are set, the other ones are in the rows already
+                for (Node node : change.getAddedSubList()) {
+                    takeSlot(node);
+
+                    List<Arc> arcs = pendingArcs.remove(node);
+
+                    if (arcs != null) {
+                        for (Arc arc : arcs) {
+                            if (!waitsForEnd(arc)) {
+                                rereadCells(arc);
+                            }
+                        }
+                    }
+                }
             }
         });
     }
@@ -81,54 +133,328 @@ public class AdjacencyMatrix {
      *      Utility
      */
 
-    private Map<Node, Map<Node, Boolean>> buildFromParent(AdjacencyMatrix parent) {
-        Map<Node, Map<Node, Boolean>> newAdjacencyMatrix = new HashMap<>();
+    private void buildFromParent(AdjacencyMatrix parent) {
+        slots = new LinkedHashMap<>(parent.slots);
+        nodesAtSlots = Arrays.copyOf(parent.nodesAtSlots, parent.nodesAtSlots.length);
+        slotsCount = parent.slotsCount;
+        freeSlots = Arrays.copyOf(parent.freeSlots, parent.freeSlots.length);
+        freeSlotsCount = parent.freeSlotsCount;
+        rows = new long[parent.rows.length][];
 
-        for (Node begin : parent.getAdjacencyMatrix().keySet()) {
-            newAdjacencyMatrix.put(begin, new HashMap<>());
+        for (int slot = 0; slot < rows.length; slot++) {
+            rows[slot] = Arrays.copyOf(parent.rows[slot], parent.rows[slot].length);
+        }
+    }
 
-            for (Node end : parent.getAdjacencyMatrix().get(begin).keySet()) {
-                newAdjacencyMatrix.get(begin).put(
-                        end,
-                        Boolean.valueOf(parent.getAdjacencyMatrix().get(begin).get(end))
-                );
+    private void initSlots(int capacity) {
+        slots = new LinkedHashMap<>();
+        nodesAtSlots = new Node[capacity];
+        slotsCount = 0;
+        freeSlots = new int[capacity];
+        freeSlotsCount = 0;
+        rows = new long[capacity][wordsFor(capacity)];
+        pendingArcs = new HashMap<>();
+    }
+
+    private static int wordsFor(int capacity) {
+        return (capacity + Long.SIZE - 1) / Long.SIZE;
+    }
+
+    private void takeSlot(Node node) {
+        if (slots.containsKey(node)) {
+            return;
+        }
+
+        int slot;
+
+        if (freeSlotsCount != 0) {
+            slot = freeSlots[--freeSlotsCount];
+        } else {
+            if (slotsCount == nodesAtSlots.length) {
+                growSlots();
             }
+            slot = slotsCount++;
+        }
+
+        slots.put(node, slot);
+        nodesAtSlots[slot] = node;
+    }
+
+    private void releaseSlot(Node node) {
+        Integer slot = slots.remove(node);
+
+        if (slot == null) {
+            return;
+        }
+
+        int word = slot / Long.SIZE;
+        long mask = ~(1L << slot);
+
+        Arrays.fill(rows[slot], 0);
+        for (int begin = 0; begin < slotsCount; begin++) {
+            rows[begin][word] &= mask;
         }
 
-        return newAdjacencyMatrix;
+        nodesAtSlots[slot] = null;
+        freeSlots[freeSlotsCount++] = slot;
+    }
+
+    private void growSlots() {
+        int capacity = 2 * nodesAtSlots.length;
+        int words = wordsFor(capacity);
+
+        nodesAtSlots = Arrays.copyOf(nodesAtSlots, capacity);
+        freeSlots = Arrays.copyOf(freeSlots, capacity);
+        rows = Arrays.copyOf(rows, capacity);
+
+        for (int slot = 0; slot < capacity; slot++) {
+            rows[slot] = rows[slot] == null ? new long[words] : Arrays.copyOf(rows[slot], words);
+        }
     }
 
-    private Map<Node, Boolean> setAdjacentNodesFor(Node node) {
-        Map<Node, Boolean> adjacentNodes = new HashMap<>();
+    private void setCell(Node begin, Node end, boolean isAdjacent) {
+        Integer beginSlot = slots.get(begin);
+        Integer endSlot = slots.get(end);
 
-        for (Node graphNode : graph.getNodes()) {
-            adjacentNodes.put(graphNode, false);
+        if (beginSlot == null || endSlot == null) {
+            return;
         }
 
-        for (Node anotherGraphNode : graph.getNodes()) {
-            adjacentNodes.replace(anotherGraphNode, graph.getArcs().contains(new Arc(node, anotherGraphNode)));
+        if (isAdjacent) {
+            rows[beginSlot][endSlot / Long.SIZE] |= 1L << endSlot;
+        } else {
+            rows[beginSlot][endSlot / Long.SIZE] &= ~(1L << endSlot);
+        }
+    }
+
+    private void setCells(Arc arc) {
+        if (waitsForEnd(arc)) {
+            return;
+        }
+
+        setCell(arc.getBegin(), arc.getEnd(), true);
+
+        if (arc.isTwoWay()) {
+            setCell(arc.getEnd(), arc.getBegin(), true);
+        }
+    }
+
+    // Cells of the arc's pair as the graph has them now, the arc itself may be gone
+    private void rereadCells(Arc arc) {
+        setCell(arc.getBegin(), arc.getEnd(), graph.getArc(arc.getBegin(), arc.getEnd()) != null);
+
+        if (arc.isTwoWay()) {
+            setCell(arc.getEnd(), arc.getBegin(), graph.getArc(arc.getEnd(), arc.getBegin()) != null);
+        }
+    }
+
+    // An arc with an end not in the matrix yet is put aside until that end is added
+    private boolean waitsForEnd(Arc arc) {
+        Node missingEnd = !slots.containsKey(arc.getBegin()) ? arc.getBegin()
+                : !slots.containsKey(arc.getEnd()) ? arc.getEnd()
+                : null;
+
+        if (missingEnd == null) {
+            return false;
+        }
+
+        pendingArcs.computeIfAbsent(missingEnd, node -> new ArrayList<>()).add(arc);
+
+        return true;
+    }
+
+    private long[] rowOf(Node node) {
+        Integer slot = slots.get(node);
+
+        if (slot == null) {
+            throw new NoSuchElementException("No node " + node + " in the matrix");
         }
 
-        return adjacentNodes;
+        return rows[slot];
     }
 
     /*
      *      Others
      */
 
+    public boolean isAdjacent(Node begin, Node end) {
+        Integer beginSlot = slots.get(begin);
+        Integer endSlot = slots.get(end);
+
+        return beginSlot != null && endSlot != null
+                && (rows[beginSlot][endSlot / Long.SIZE] & (1L << endSlot)) != 0;
+    }
+
     public List<Node> adjacentNodesOf(Node node) {
-        List<Node> adjacents = new ArrayList<>();
+        return nodesOf(rowOf(node));
+    }
+
+    // The row's bits are decoded in place, no list is built
+    public void forEachAdjacent(Node node, Consumer<Node> action) {
+        long[] row = rowOf(node);
+
+        for (int word = 0; word < row.length; word++) {
+            long remaining = row[word];
+
+            while (remaining != 0) {
+                action.accept(nodesAtSlots[word * Long.SIZE + Long.numberOfTrailingZeros(remaining)]);
+                remaining &= remaining - 1;
+            }
+        }
+    }
+
+    // Count of distinct nodes the given one has arcs to
+    public int adjacentCountOf(Node node) {
+        return popCount(rowOf(node));
+    }
+
+    /*
+     *      Bulk row operations
+     */
+
+    // Copy of the node's row, to be combined with orRow/andRow and decoded with nodesOf
+    public long[] rowBitsOf(Node node) {
+        long[] row = rowOf(node);
+
+        return Arrays.copyOf(row, row.length);
+    }
+
+    public void orRow(long[] bits, Node node) {
+        long[] row = rowOf(node);
+
+        for (int word = 0; word < bits.length && word < row.length; word++) {
+            bits[word] |= row[word];
+        }
+    }
+
+    public void andRow(long[] bits, Node node) {
+        long[] row = rowOf(node);
+
+        for (int word = 0; word < bits.length; word++) {
+            bits[word] &= word < row.length ? row[word] : 0;
+        }
+    }
+
+    public static int popCount(long[] bits) {
+        int count = 0;
 
-        Map<Node, Boolean> nodesMap = adjacencyMatrix.get(node);
-        Set<Node> nodes = nodesMap.keySet();
+        for (long word : bits) {
+            count += Long.bitCount(word);
+        }
+
+        return count;
+    }
+
+    public List<Node> nodesOf(long[] bits) {
+        List<Node> nodes = new ArrayList<>(popCount(bits));
 
+        for (int word = 0; word < bits.length; word++) {
+            long remaining = bits[word];
 
-        for (Node foundNode : nodes) {
-            if (adjacencyMatrix.get(node).get(foundNode)) {
-                adjacents.add(foundNode);
+            while (remaining != 0) {
+                nodes.add(nodesAtSlots[word * Long.SIZE + Long.numberOfTrailingZeros(remaining)]);
+                remaining &= remaining - 1;
             }
         }
 
-        return adjacents;
+        return nodes;
+    }
+
+    /*
+     *      Views
+     */
+
+    private class MatrixView extends AbstractMap<Node, Map<Node, Boolean>> {
+        @Override
+        public Map<Node, Boolean> get(Object key) {
+            return slots.containsKey(key) ? new RowView((Node) key) : null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return slots.containsKey(key);
+        }
+
+        @Override
+        public Set<Node> keySet() {
+            return Collections.unmodifiableSet(slots.keySet());
+        }
+
+        @Override
+        public Set<Entry<Node, Map<Node, Boolean>>> entrySet() {
+            return new AbstractSet<Entry<Node, Map<Node, Boolean>>>() {
+                @Override
+                public Iterator<Entry<Node, Map<Node, Boolean>>> iterator() {
+                    Iterator<Node> nodes = slots.keySet().iterator();
+
+                    return new Iterator<Entry<Node, Map<Node, Boolean>>>() {
+                        @Override
+                        public boolean hasNext() {
+                            return nodes.hasNext();
+                        }
+
+                        @Override
+                        public Entry<Node, Map<Node, Boolean>> next() {
+                            Node node = nodes.next();
+
+                            return new SimpleImmutableEntry<>(node, new RowView(node));
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return slots.size();
+                }
+            };
+        }
+    }
+
+    private class RowView extends AbstractMap<Node, Boolean> {
+        private Node begin;
+
+
+        RowView(Node begin) {
+            this.begin = begin;
+        }
+
+        @Override
+        public Boolean get(Object key) {
+            return slots.containsKey(key) ? isAdjacent(begin, (Node) key) : null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return slots.containsKey(key);
+        }
+
+        @Override
+        public Set<Entry<Node, Boolean>> entrySet() {
+            return new AbstractSet<Entry<Node, Boolean>>() {
+                @Override
+                public Iterator<Entry<Node, Boolean>> iterator() {
+                    Iterator<Node> nodes = slots.keySet().iterator();
+
+                    return new Iterator<Entry<Node, Boolean>>() {
+                        @Override
+                        public boolean hasNext() {
+                            return nodes.hasNext();
+                        }
+
+                        @Override
+                        public Entry<Node, Boolean> next() {
+                            Node end = nodes.next();
+
+                            return new SimpleImmutableEntry<>(end, isAdjacent(begin, end));
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return slots.size();
+                }
+            };
+        }
     }
 }
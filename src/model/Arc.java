@@ -4,23 +4,29 @@ import java.util.Objects;
 
 
 public class Arc {
+    // Weight of an arc unless another one is given
     public static final int WEIGHT = 1;
 
     private Node begin;
     private Node end;
     private boolean isDirected;
+    private int weight;
 
 
     public Arc(Node begin, Node end) {
-        this.begin = begin;
-        this.end = end;
-        isDirected = true;
+        this(begin, end, true);
     }
 
     public Arc(Node begin, Node end, boolean isDirected) {
+        this(begin, end, isDirected, WEIGHT);
+    }
+
+    public Arc(Node begin, Node end, boolean isDirected, int weight) {
         this.begin = begin;
         this.end = end;
         this.isDirected = isDirected;
+
+        setWeight(weight);
     }
 
     public Node getBegin() {
@@ -35,8 +41,22 @@ public class Arc {
         return isDirected;
     }
 
-    public void setDirected(boolean directed) {
-        isDirected = directed;
+    // An undirected arc is stored once and links its ends both ways, unless it's a loop
+    public boolean isTwoWay() {
+        return !isDirected && !begin.equals(end);
+    }
+
+    public int getWeight() {
+        return weight;
+    }
+
+    // Arcs of a graph are reweighted through Graph.setArcWeight, so that its listeners hear of it
+    void setWeight(int weight) {
+        if (weight < 0) {
+            throw new IllegalArgumentException("Arc weight can't be negative: " + weight);
+        }
+
+        this.weight = weight;
     }
 
     @Override
@@ -54,4 +74,9 @@ public class Arc {
         return  Objects.equals(begin, arcToCheck.begin) &&
                 Objects.equals(end, arcToCheck.end);
     }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(begin, end);
+    }
 }
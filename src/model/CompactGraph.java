@@ -0,0 +1,267 @@
+package model;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntConsumer;
+
+
+// Compressed sparse row image of a graph: node i's out-arcs occupy positions
+// offsets[i] .. offsets[i + 1] - 1 of targets/arcs, sorted by target index.
+// In-arcs are kept the same way in inOffsets/sources, sorted by source index.
+// A two-way arc has an entry in the rows of both of its ends.
+// The image is never changed after it's built, so it may be read from any thread
+// while the graph itself goes on changing
+public class CompactGraph {
+    private long version;
+
+    private Node[] nodes;
+    private Map<Node, Integer> indices;
+
+    private int[] offsets;
+    private int[] targets;
+    private int[] weights;
+    private Arc[] arcs;
+    private int loopsCount;
+    private boolean isUnweighted;
+
+    private int[] inOffsets;
+    private int[] sources;
+
+
+    public CompactGraph(Graph graph) {
+        List<Arc> graphArcs = graph.getArcs();
+
+        version = graph.getVersion();
+
+        // Nodes keep their graph's dense indices
+        nodes = new Node[graph.getNodes().size()];
+        indices = new HashMap<>(graph.nodeIndices());
+
+        for (int index = 0; index < nodes.length; index++) {
+            nodes[index] = graph.nodeAt(index);
+        }
+
+        build(graphArcs);
+    }
+
+    // Version of the graph the image was built from
+    public long getVersion() {
+        return version;
+    }
+
+    public int nodesCount() {
+        return nodes.length;
+    }
+
+    // Count of the rows' entries, two-way arcs are counted twice
+    public int arcsCount() {
+        return targets.length;
+    }
+
+    public int loopsCount() {
+        return loopsCount;
+    }
+
+    // Every arc weighs Arc.WEIGHT, so distances are hop counts
+    public boolean isUnweighted() {
+        return isUnweighted;
+    }
+
+    public Node nodeAt(int index) {
+        return nodes[index];
+    }
+
+    public int indexOf(Node node) {
+        Integer index = indices.get(node);
+
+        return index == null ? -1 : index;
+    }
+
+    /*
+     *      Rows
+     */
+
+    public int outDegree(int index) {
+        return offsets[index + 1] - offsets[index];
+    }
+
+    public int rowBegin(int index) {
+        return offsets[index];
+    }
+
+    public int rowEnd(int index) {
+        return offsets[index + 1];
+    }
+
+    public int targetAt(int position) {
+        return targets[position];
+    }
+
+    public int weightAt(int position) {
+        return weights[position];
+    }
+
+    // The arc itself is shared with the graph, its direction and weight are to be read from the image
+    public Arc arcAt(int position) {
+        return arcs[position];
+    }
+
+    public int inDegree(int index) {
+        return inOffsets[index + 1] - inOffsets[index];
+    }
+
+    public int inRowBegin(int index) {
+        return inOffsets[index];
+    }
+
+    public int inRowEnd(int index) {
+        return inOffsets[index + 1];
+    }
+
+    public int sourceAt(int inPosition) {
+        return sources[inPosition];
+    }
+
+    /*
+     *      Neighbors
+     */
+
+    // Every node the given one has arcs to, once and in index order
+    public void forEachNeighbor(int node, IntConsumer action) {
+        for (int position = offsets[node]; position < offsets[node + 1]; position++) {
+            if (position == offsets[node] || targets[position] != targets[position - 1]) {
+                action.accept(targets[position]);
+            }
+        }
+    }
+
+    // Cursor over the out-neighbors, to be reset for each node walked
+    public NeighborCursor cursor() {
+        return new NeighborCursor(this, false);
+    }
+
+    /*
+     *      Searchers
+     */
+
+    // Position of the arc begin -> end in the targets array or -1, binary search over the begin's row
+    public int arcPosition(int begin, int end) {
+        int position = Arrays.binarySearch(targets, offsets[begin], offsets[begin + 1], end);
+
+        return position < 0 ? -1 : position;
+    }
+
+    public Arc getArc(int begin, int end) {
+        int position = arcPosition(begin, end);
+
+        return position == -1 ? null : arcs[position];
+    }
+
+    public Arc getArc(Node begin, Node end) {
+        int beginIndex = indexOf(begin);
+        int endIndex = indexOf(end);
+
+        if (beginIndex == -1 || endIndex == -1) {
+            return null;
+        }
+
+        return getArc(beginIndex, endIndex);
+    }
+
+    /*
+     *      Utility
+     */
+
+    private void build(List<Arc> graphArcs) {
+        offsets = new int[nodes.length + 1];
+
+        // Arcs whose ends aren't in the node list can't be indexed
+        int[] begins = new int[graphArcs.size()];
+        int[] ends = new int[graphArcs.size()];
+        int arcsCount = 0;
+
+        for (int arcIter = 0; arcIter < graphArcs.size(); arcIter++) {
+            Arc arc = graphArcs.get(arcIter);
+            begins[arcIter] = indexOf(arc.getBegin());
+            ends[arcIter] = indexOf(arc.getEnd());
+
+            if (begins[arcIter] != -1 && ends[arcIter] != -1) {
+                offsets[begins[arcIter] + 1]++;
+                arcsCount++;
+
+                if (arc.isTwoWay()) {
+                    offsets[ends[arcIter] + 1]++;
+                    arcsCount++;
+                }
+            }
+        }
+
+        for (int index = 0; index < nodes.length; index++) {
+            offsets[index + 1] += offsets[index];
+        }
+
+        // Every row is sorted by (target, arc order) packed into a single long
+        long[] keys = new long[arcsCount];
+        int[] fill = Arrays.copyOf(offsets, nodes.length);
+
+        for (int arcIter = 0; arcIter < graphArcs.size(); arcIter++) {
+            if (begins[arcIter] != -1 && ends[arcIter] != -1) {
+                keys[fill[begins[arcIter]]++] = ((long) ends[arcIter] << 32) | arcIter;
+
+                if (graphArcs.get(arcIter).isTwoWay()) {
+                    keys[fill[ends[arcIter]]++] = ((long) begins[arcIter] << 32) | arcIter;
+                }
+            }
+        }
+
+        targets = new int[arcsCount];
+        weights = new int[arcsCount];
+        arcs = new Arc[arcsCount];
+        loopsCount = 0;
+        isUnweighted = true;
+
+        for (int index = 0; index < nodes.length; index++) {
+            Arrays.sort(keys, offsets[index], offsets[index + 1]);
+
+            for (int position = offsets[index]; position < offsets[index + 1]; position++) {
+                targets[position] = (int) (keys[position] >>> 32);
+                arcs[position] = graphArcs.get((int) keys[position]);
+                weights[position] = arcs[position].getWeight();
+
+                if (weights[position] != Arc.WEIGHT) {
+                    isUnweighted = false;
+                }
+
+                if (targets[position] == index) {
+                    loopsCount++;
+                }
+            }
+        }
+
+        buildInRows();
+    }
+
+    // Out-rows are scanned in the order of their begins, so every in-row comes out sorted
+    private void buildInRows() {
+        inOffsets = new int[nodes.length + 1];
+
+        for (int target : targets) {
+            inOffsets[target + 1]++;
+        }
+
+        for (int index = 0; index < nodes.length; index++) {
+            inOffsets[index + 1] += inOffsets[index];
+        }
+
+        sources = new int[targets.length];
+        int[] fill = Arrays.copyOf(inOffsets, nodes.length);
+
+        for (int index = 0; index < nodes.length; index++) {
+            for (int position = offsets[index]; position < offsets[index + 1]; position++) {
+                sources[fill[targets[position]]++] = index;
+            }
+        }
+    }
+}
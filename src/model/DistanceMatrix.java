@@ -2,40 +2,102 @@ package model;
 
 import javafx.collections.ListChangeListener;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntFunction;
+import java.util.function.ObjIntConsumer;
 
 
 public class DistanceMatrix {
-    public static final int INFINITY = 1000000;
+    public static final int INFINITY = Integer.MAX_VALUE;
+
+    private static final int SOURCES_PER_TASK = 32;
+    // Changes touching more arcs than (V + E) / ratio are cheaper to apply with a full recalculation
+    private static final int FULL_RECALCULATION_RATIO = 4;
 
     private Graph graph;
+    private CompactGraph compactGraph;
+
+    // distances[begin][end] over the CSR node indices
+    private int[][] distances;
+
+    // Arc changes since the last calculation, applied on the next read
+    private boolean isRecalculationNeeded;
+    private List<Arc> pendingRemovedArcs;
+    private List<Arc> pendingAddedArcs;
+
     private Map<Node, Map<Node, Integer>> distancesMap;
 
 
     public DistanceMatrix(Graph graph) {
         this.graph = graph;
 
-        distancesMap = new HashMap<>();
         configureDistancesMatrix();
     }
 
+    // Distances of a graph snapshot, calculated at once and never updated
+    public DistanceMatrix(CompactGraph compactGraph) {
+        this.graph = null;
+
+        pendingRemovedArcs = new ArrayList<>();
+        pendingAddedArcs = new ArrayList<>();
+        calculateDistances(compactGraph);
+    }
+
+    // Read-only map view over the distance rows
     public Map<Node, Map<Node, Integer>> getDistancesMap() {
+        if (distancesMap == null) {
+            distancesMap = new DistancesView();
+        }
+
         return distancesMap;
     }
 
+    public int nodesCount() {
+        actualize();
+        return compactGraph.nodesCount();
+    }
+
+    public Node nodeAt(int index) {
+        actualize();
+        return compactGraph.nodeAt(index);
+    }
+
+    public int indexOf(Node node) {
+        actualize();
+        return compactGraph.indexOf(node);
+    }
+
+    // The row itself is returned, it must not be modified
+    public int[] distancesFrom(int begin) {
+        actualize();
+        return distances[begin];
+    }
+
+    public int distance(Node begin, Node end) {
+        actualize();
+
+        int beginIndex = indexOf(begin);
+        int endIndex = indexOf(end);
+
+        return (beginIndex == -1 || endIndex == -1) ? INFINITY : distances[beginIndex][endIndex];
+    }
+
     @Override
     public String toString() {
-        String toString = "";
+        actualize();
 
-        for (Node node : distancesMap.keySet()) {
-            for (Integer distance : distancesMap.get(node).values()) {
-                toString = toString.concat(String.valueOf(distance) + ' ');
+        StringBuilder toString = new StringBuilder();
+
+        for (int[] row : distances) {
+            for (int distance : row) {
+                toString.append(distance).append(' ');
             }
-            toString = toString.concat("\n");
+            toString.append("\n");
         }
 
-        return toString;
+        return toString.toString();
     }
 
     /*
@@ -43,15 +105,15 @@ public class DistanceMatrix {
      */
 
     private void configureDistancesMatrix() {
-        for (Node node : graph.getNodes()) {
-            distancesMap.put(node, allDistancesFrom(node));
-        }
+        isRecalculationNeeded = true;
+        pendingRemovedArcs = new ArrayList<>();
+        pendingAddedArcs = new ArrayList<>();
 
-        graph.getArcs().addListener((ListChangeListener) changeList -> {
-            distancesMap.clear();
-            for (Node node : graph.getNodes()) {
-                distancesMap.put(node, allDistancesFrom(node));
-            }
+        graph.getArcs().addListener((ListChangeListener<Arc>) this::recordArcsChange);
+        graph.getNodes().addListener((ListChangeListener) changeList -> {
+            isRecalculationNeeded = true;
+            pendingRemovedArcs.clear();
+            pendingAddedArcs.clear();
         });
     }
 
@@ -59,33 +121,321 @@ public class DistanceMatrix {
      *      Calculations
      */
 
-    // Calculation of distances between the node given and all other nodes in the graph
-    // with modified Bellman–Ford algorithm
-    private Map<Node, Integer> allDistancesFrom(Node begin) {
-        Map<Node, Integer> distanceTo = new HashMap<>();
+    private void recordArcsChange(ListChangeListener.Change<? extends Arc> change) {
+        if (isRecalculationNeeded) {
+            return;
+        }
+
+        while (change.next()) {
+            if (change.wasPermutated() || change.wasUpdated()) {
+                continue;
+            }
 
-        for (Node node : graph.getNodes()) {
-            distanceTo.put(node, INFINITY);
+            pendingRemovedArcs.addAll(change.getRemoved());
+            pendingAddedArcs.addAll(change.getAddedSubList());
         }
-        distanceTo.replace(begin, 0);
 
-        while (true) {
-            boolean any = false;
+        // Mixed insertions and deletions can't be replayed against the latest CSR only
+        if ((!pendingRemovedArcs.isEmpty() && !pendingAddedArcs.isEmpty())
+                || (pendingRemovedArcs.size() + pendingAddedArcs.size()) * FULL_RECALCULATION_RATIO
+                > distances.length + graph.getArcs().size()) {
+            isRecalculationNeeded = true;
+            pendingRemovedArcs.clear();
+            pendingAddedArcs.clear();
+        }
+    }
 
-            for (Arc arc : graph.getArcs()) {
-                if ((distanceTo.get(arc.getBegin()) < INFINITY)) {
-                    if ((distanceTo.get(arc.getEnd()) > distanceTo.get(arc.getBegin()) + Arc.WEIGHT)) {
-                        distanceTo.replace(arc.getEnd(), distanceTo.get(arc.getBegin()) + Arc.WEIGHT);
-                        any = true;
-                    }
+    // Brings the distances up to the graph's current state
+    private void actualize() {
+        if (isRecalculationNeeded) {
+            calculateDistances(graph.getCompactGraph());
+            isRecalculationNeeded = false;
+        } else if (!pendingRemovedArcs.isEmpty()) {
+            removeArcs(pendingRemovedArcs);
+        } else {
+            for (Arc arc : pendingAddedArcs) {
+                int begin = compactGraph.indexOf(arc.getBegin());
+                int end = compactGraph.indexOf(arc.getEnd());
+
+                insertArc(begin, end, arc.getWeight());
+
+                if (arc.isTwoWay()) {
+                    insertArc(end, begin, arc.getWeight());
+                }
+            }
+        }
+
+        pendingRemovedArcs.clear();
+        pendingAddedArcs.clear();
+    }
+
+    // Searches from every node of the snapshot without a table: each row is handed to the consumer
+    // with its source, then the row is reused for the next source of the same task
+    public static void forEachRow(CompactGraph compactGraph, ObjIntConsumer<int[]> rowConsumer) {
+        int[] sources = allNodesOf(compactGraph);
+
+        ForkJoinPool.commonPool().invoke(new SourcesTask(compactGraph, null, rowConsumer, sources, 0, sources.length));
+    }
+
+    private void calculateDistances(CompactGraph compactGraph) {
+        this.compactGraph = compactGraph;
+        distances = new int[compactGraph.nodesCount()][compactGraph.nodesCount()];
+
+        int[] sources = allNodesOf(compactGraph);
+
+        ForkJoinPool.commonPool().invoke(new SourcesTask(compactGraph, distances, null, sources, 0, sources.length));
+    }
+
+    private static int[] allNodesOf(CompactGraph compactGraph) {
+        int[] nodes = new int[compactGraph.nodesCount()];
+
+        for (int node = 0; node < nodes.length; node++) {
+            nodes[node] = node;
+        }
+
+        return nodes;
+    }
+
+    // Only pairs (x, y) with x improving its distance to 'end' and y improving its distance from 'begin'
+    // can become shorter through the new arc
+    private void insertArc(int begin, int end, int weight) {
+        if (begin == -1 || end == -1 || begin == end) {
+            return;
+        }
+
+        int[] sources = new int[distances.length];
+        int sourcesCount = 0;
+
+        for (int source = 0; source < distances.length; source++) {
+            int toBegin = distances[source][begin];
+
+            if (toBegin != INFINITY && (long) toBegin + weight < distances[source][end]) {
+                sources[sourcesCount++] = source;
+            }
+        }
+
+        if (sourcesCount == 0) {
+            return;
+        }
+
+        int[] fromEnd = distances[end];
+        int[] fromBegin = distances[begin];
+        int[] destinations = new int[distances.length];
+        int destinationsCount = 0;
+
+        for (int destination = 0; destination < distances.length; destination++) {
+            if (fromEnd[destination] != INFINITY && (long) weight + fromEnd[destination] < fromBegin[destination]) {
+                destinations[destinationsCount++] = destination;
+            }
+        }
+
+        for (int sourceIter = 0; sourceIter < sourcesCount; sourceIter++) {
+            int[] row = distances[sources[sourceIter]];
+            long throughArc = (long) row[begin] + weight;
+
+            for (int destinationIter = 0; destinationIter < destinationsCount; destinationIter++) {
+                int destination = destinations[destinationIter];
+
+                if (throughArc + fromEnd[destination] < row[destination]) {
+                    row[destination] = (int) (throughArc + fromEnd[destination]);
                 }
             }
+        }
+    }
+
+    // Only the sources whose shortest paths went through a removed arc are recalculated
+    private void removeArcs(List<Arc> removedArcs) {
+        boolean[] isAffected = new boolean[distances.length];
+        int affectedCount = 0;
+
+        for (Arc arc : removedArcs) {
+            int begin = compactGraph.indexOf(arc.getBegin());
+            int end = compactGraph.indexOf(arc.getEnd());
+
+            affectedCount += markAffectedSources(begin, end, arc.getWeight(), isAffected);
 
-            if (!any)  {
-                break;
+            if (arc.isTwoWay()) {
+                affectedCount += markAffectedSources(end, begin, arc.getWeight(), isAffected);
             }
         }
 
-        return distanceTo;
+        if (affectedCount == 0) {
+            return;
+        }
+
+        int[] affectedSources = new int[affectedCount];
+        affectedCount = 0;
+
+        for (int source = 0; source < distances.length; source++) {
+            if (isAffected[source]) {
+                affectedSources[affectedCount++] = source;
+            }
+        }
+
+        compactGraph = graph.getCompactGraph();
+        ForkJoinPool.commonPool().invoke(
+                new SourcesTask(compactGraph, distances, null, affectedSources, 0, affectedSources.length)
+        );
+    }
+
+    // Sources with a shortest path to 'end' going through the arc begin -> end, the count of newly marked is returned
+    private int markAffectedSources(int begin, int end, int weight, boolean[] isAffected) {
+        if (begin == -1 || end == -1 || begin == end) {
+            return 0;
+        }
+
+        int affectedCount = 0;
+
+        for (int source = 0; source < distances.length; source++) {
+            int toBegin = distances[source][begin];
+
+            if (!isAffected[source] && toBegin != INFINITY && (long) toBegin + weight == distances[source][end]) {
+                isAffected[source] = true;
+                affectedCount++;
+            }
+        }
+
+        return affectedCount;
+    }
+
+    // Splits the sources range in halves until it is small enough to be run in a single thread. Rows go
+    // to the table if there is one, to a row of the task otherwise, then to the consumer if there is one
+    @SuppressWarnings("serial")
+    private static class SourcesTask extends RecursiveAction {
+        private CompactGraph compactGraph;
+        private int[][] distances;
+        private ObjIntConsumer<int[]> rowConsumer;
+        private int[] sources;
+        private int from;
+        private int to;
+
+
+        SourcesTask(CompactGraph compactGraph, int[][] distances, ObjIntConsumer<int[]> rowConsumer,
+                    int[] sources, int from, int to) {
+            this.compactGraph = compactGraph;
+            this.distances = distances;
+            this.rowConsumer = rowConsumer;
+            this.sources = sources;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SOURCES_PER_TASK) {
+                ShortestPathFinder shortestPathFinder = new ShortestPathFinder(compactGraph);
+                int[] taskRow = distances == null ? new int[compactGraph.nodesCount()] : null;
+
+                for (int sourceIter = from; sourceIter < to; sourceIter++) {
+                    int[] row = distances == null ? taskRow : distances[sources[sourceIter]];
+                    shortestPathFinder.distancesFrom(sources[sourceIter], row);
+
+                    if (rowConsumer != null) {
+                        rowConsumer.accept(row, sources[sourceIter]);
+                    }
+                }
+
+                return;
+            }
+
+            int middle = (from + to) >>> 1;
+            invokeAll(
+                    new SourcesTask(compactGraph, distances, rowConsumer, sources, from, middle),
+                    new SourcesTask(compactGraph, distances, rowConsumer, sources, middle, to)
+            );
+        }
+    }
+
+    /*
+     *      Views
+     */
+
+    private class DistancesView extends AbstractMap<Node, Map<Node, Integer>> {
+        @Override
+        public Map<Node, Integer> get(Object key) {
+            int begin = key instanceof Node ? indexOf((Node) key) : -1;
+
+            return begin == -1 ? null : new RowView(begin);
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return key instanceof Node && indexOf((Node) key) != -1;
+        }
+
+        @Override
+        public Set<Entry<Node, Map<Node, Integer>>> entrySet() {
+            return new AbstractSet<Entry<Node, Map<Node, Integer>>>() {
+                @Override
+                public Iterator<Entry<Node, Map<Node, Integer>>> iterator() {
+                    return new IndexIterator<>(begin -> new SimpleImmutableEntry<>(nodeAt(begin), new RowView(begin)));
+                }
+
+                @Override
+                public int size() {
+                    return nodesCount();
+                }
+            };
+        }
+    }
+
+    private class RowView extends AbstractMap<Node, Integer> {
+        private int begin;
+
+
+        RowView(int begin) {
+            this.begin = begin;
+        }
+
+        @Override
+        public Integer get(Object key) {
+            int end = key instanceof Node ? indexOf((Node) key) : -1;
+
+            return end == -1 ? null : distancesFrom(begin)[end];
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return key instanceof Node && indexOf((Node) key) != -1;
+        }
+
+        @Override
+        public Set<Entry<Node, Integer>> entrySet() {
+            return new AbstractSet<Entry<Node, Integer>>() {
+                @Override
+                public Iterator<Entry<Node, Integer>> iterator() {
+                    return new IndexIterator<>(end -> new SimpleImmutableEntry<>(nodeAt(end), distancesFrom(begin)[end]));
+                }
+
+                @Override
+                public int size() {
+                    return nodesCount();
+                }
+            };
+        }
+    }
+
+    private class IndexIterator<T> implements Iterator<T> {
+        private IntFunction<T> elementAt;
+        private int index;
+
+
+        IndexIterator(IntFunction<T> elementAt) {
+            this.elementAt = elementAt;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return index < nodesCount();
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            return elementAt.apply(index++);
+        }
     }
 }
@@ -1,24 +1,42 @@
 package model;
 
-import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
 
 
 public class Graph {
     private String name;
 
-    private ObservableList<Node> nodes;
-    private ObservableList<Arc> arcs;
+    private GraphElementList<Node> nodes;
+    private GraphElementList<Arc> arcs;
+
+    // Lookup indices kept in step with the lists
+    private Map<Arc, Arc> arcsIndex;
+    private Map<Arc, Integer> parallelArcsCounts;
+    private Map<String, Set<Node>> nodesByName;
+    private int loopsCount;
+
+    // Dense indices 0 .. V - 1, the index of a removed node is taken over by the last indexed one
+    private Map<Node, Integer> nodeIndices;
+    private List<Node> indexedNodes;
+
+    private CompactGraph compactGraph;
+    private long version;
 
 
     public Graph(String name) {
         this.name = name;
 
-        nodes = FXCollections.observableArrayList();
-        arcs = FXCollections.observableArrayList();
+        arcsIndex = new HashMap<>();
+        parallelArcsCounts = new HashMap<>();
+        nodesByName = new HashMap<>();
+        nodeIndices = new HashMap<>();
+        indexedNodes = new ArrayList<>();
+
+        // The indices follow every single element, so they stay valid inside a batch too
+        nodes = new GraphElementList<>(this::indexNode, this::unindexNode);
+        arcs = new GraphElementList<>(this::indexArc, this::unindexArc);
     }
 
     public Graph() {
@@ -41,36 +59,219 @@ public class Graph {
         this.name = name;
     }
 
+    // Modification counter, changes with every node or arc added or removed
+    public long getVersion() {
+        return version;
+    }
+
+    // Immutable CSR snapshot of the current nodes and arcs, rebuilt on the first request after a change.
+    // To be taken on the thread that modifies the graph, then it may be handed to any other one
+    public CompactGraph getCompactGraph() {
+        if (compactGraph == null) {
+            compactGraph = new CompactGraph(this);
+        }
+
+        return compactGraph;
+    }
+
     /*
-     *      Searchers
+     *      Batches
      */
 
-    public Arc getArc(Node begin, Node end) {
-        for (Arc arc : arcs) {
-            if (arc.getBegin().equals(begin) && arc.getEnd().equals(end)) {
-                return arc;
-            }
+    // Every modification made by the runnable reaches the list listeners as one change per list
+    public void batch(Runnable modification) {
+        beginBatch();
+
+        try {
+            modification.run();
+        } finally {
+            commitBatch();
         }
+    }
 
-        return null;
+    public void beginBatch() {
+        nodes.beginBatch();
+        arcs.beginBatch();
     }
 
-    public Node getNode(String name) {
-        for (Node node : nodes) {
-            if (node.getName().equals(name)) {
-                return node;
+    // Arcs are reported first: a listener learning of a new node sees its arcs already in place,
+    // the same way it does for the arcs of a node being removed
+    public void commitBatch() {
+        arcs.endBatch();
+        nodes.endBatch();
+    }
+
+    /*
+     *      Indices
+     */
+
+    private void indexNode(Node node) {
+        compactGraph = null;
+        version++;
+
+        nodesByName.computeIfAbsent(node.getName(), name -> new LinkedHashSet<>()).add(node);
+
+        nodeIndices.put(node, indexedNodes.size());
+        indexedNodes.add(node);
+    }
+
+    private void unindexNode(Node node) {
+        compactGraph = null;
+        version++;
+
+        unindexName(node, node.getName());
+
+        Integer index = nodeIndices.remove(node);
+
+        if (index == null) {
+            return;
+        }
+
+        Node lastNode = indexedNodes.remove(indexedNodes.size() - 1);
+
+        if (lastNode != node) {
+            indexedNodes.set(index, lastNode);
+            nodeIndices.put(lastNode, index);
+        }
+    }
+
+    // A two-way arc is indexed under both of its directions
+    private void indexArc(Arc arc) {
+        compactGraph = null;
+        version++;
+
+        if (arc.getBegin().equals(arc.getEnd())) {
+            loopsCount++;
+        }
+
+        indexArcAs(arc, arc);
+
+        if (arc.isTwoWay()) {
+            indexArcAs(new Arc(arc.getEnd(), arc.getBegin()), arc);
+        }
+    }
+
+    private void unindexArc(Arc arc) {
+        compactGraph = null;
+        version++;
+
+        if (arc.getBegin().equals(arc.getEnd())) {
+            loopsCount--;
+        }
+
+        unindexArcAs(arc, arc);
+
+        if (arc.isTwoWay()) {
+            unindexArcAs(new Arc(arc.getEnd(), arc.getBegin()), arc);
+        }
+    }
+
+    // The key is the arc's direction: begin -> end
+    private void indexArcAs(Arc key, Arc arc) {
+        if (arcsIndex.putIfAbsent(key, arc) != null) {
+            parallelArcsCounts.merge(key, 2, (count, initial) -> count + 1);
+        }
+    }
+
+    private void unindexArcAs(Arc key, Arc arc) {
+        Integer parallelArcsCount = parallelArcsCounts.get(key);
+
+        if (parallelArcsCount == null) {
+            arcsIndex.remove(key);
+            return;
+        }
+
+        if (parallelArcsCount == 2) {
+            parallelArcsCounts.remove(key);
+        } else {
+            parallelArcsCounts.put(key, parallelArcsCount - 1);
+        }
+
+        // The indexed arc is gone but a parallel one is still in the list
+        if (arcsIndex.get(key) == arc) {
+            arcsIndex.remove(key);
+
+            for (Arc parallelArc : arcs) {
+                if (parallelArc != arc && leadsAs(parallelArc, key)) {
+                    arcsIndex.put(key, parallelArc);
+                    break;
+                }
             }
         }
+    }
+
+    private static boolean leadsAs(Arc arc, Arc key) {
+        return arc.equals(key)
+                || (arc.isTwoWay() && arc.getBegin().equals(key.getEnd()) && arc.getEnd().equals(key.getBegin()));
+    }
+
+    private void unindexName(Node node, String name) {
+        Set<Node> namesakes = nodesByName.get(name);
+
+        if (namesakes != null && namesakes.remove(node) && namesakes.isEmpty()) {
+            nodesByName.remove(name);
+        }
+    }
+
+    /*
+     *      Dense indices
+     */
+
+    // Index of the node in 0 .. V - 1 or -1, indices of the other nodes are kept when a node is added,
+    // only the last indexed node moves when one is removed
+    public int indexOf(Node node) {
+        Integer index = nodeIndices.get(node);
+
+        return index == null ? -1 : index;
+    }
+
+    public Node nodeAt(int index) {
+        return indexedNodes.get(index);
+    }
 
-        return null;
+    Map<Node, Integer> nodeIndices() {
+        return nodeIndices;
+    }
+
+    /*
+     *      Searchers
+     */
+
+    // Any arc leading from begin to end, two-way arcs lead both ways
+    public Arc getArc(Node begin, Node end) {
+        return arcsIndex.get(new Arc(begin, end));
+    }
+
+    // The earliest added of the nodes with the name given
+    public Node getNode(String name) {
+        Set<Node> namesakes = nodesByName.get(name);
+
+        return namesakes == null ? null : namesakes.iterator().next();
     }
 
     public List<Arc> loops() {
         List<Arc> loops = new ArrayList<>();
 
-        for (Arc arc : arcs) {
-            if (arc.getBegin().equals(arc.getEnd())) {
-                loops.add(arc);
+        if (loopsCount == 0) {
+            return loops;
+        }
+
+        CompactGraph compact = getCompactGraph();
+
+        for (int index = 0; index < compact.nodesCount(); index++) {
+            int position = compact.arcPosition(index, index);
+
+            if (position == -1) {
+                continue;
+            }
+
+            // Loops are adjacent in the sorted row, the search may land on any of them
+            while (position > compact.rowBegin(index) && compact.targetAt(position - 1) == index) {
+                position--;
+            }
+
+            while (position < compact.rowEnd(index) && compact.targetAt(position) == index) {
+                loops.add(compact.arcAt(position++));
             }
         }
 
@@ -81,33 +282,71 @@ public class Graph {
      *      'Contains' methods
      */
 
-    public boolean containsLoop() {
-        for (Arc arc : arcs) {
-            if (arc.getBegin().equals(arc.getEnd())) {
-                return true;
-            }
-        }
+    public boolean containsArc(Node begin, Node end) {
+        return arcsIndex.containsKey(new Arc(begin, end));
+    }
 
-        return false;
+    public boolean containsLoop() {
+        return loopsCount != 0;
     }
 
     /*
      *      Mods??
      */
 
-    public Graph undirectedEquivalent() {
-        Graph undirectedGraph = new Graph();
+    // Names are indexed, so nodes of a graph are renamed through it
+    public void renameNode(Node node, String name) {
+        Set<Node> namesakes = nodesByName.get(node.getName());
+
+        if (namesakes != null && namesakes.contains(node)) {
+            unindexName(node, node.getName());
+            nodesByName.computeIfAbsent(name, newName -> new LinkedHashSet<>()).add(node);
+        }
 
-        undirectedGraph.getNodes().addAll(nodes);
+        node.setName(name);
+    }
 
-        for (Arc arc : arcs) {
-            undirectedGraph.getArcs().add(arc);
+    // Listeners must see the arc being removed with its former direction, so it's replaced with a new one.
+    // The arc which is in the graph now is returned
+    public Arc changeArcDirection(Arc arc, boolean isDirected) {
+        Arc changedArc = new Arc(arc.getBegin(), arc.getEnd(), isDirected, arc.getWeight());
 
-            if (arc.isDirected()) {
-                undirectedGraph.getArcs().add(new Arc(arc.getEnd(), arc.getBegin()));
+        for (int index = 0; index < arcs.size(); index++) {
+            if (arcs.get(index) == arc) {
+                arcs.set(index, changedArc);
+                break;
             }
         }
 
+        return changedArc;
+    }
+
+    // The arc is replaced with itself, so listeners see the reweighting as its removal and addition
+    public void setArcWeight(Arc arc, int weight) {
+        for (int index = 0; index < arcs.size(); index++) {
+            if (arcs.get(index) == arc) {
+                arc.setWeight(weight);
+                arcs.set(index, arc);
+                return;
+            }
+        }
+
+        arc.setWeight(weight);
+    }
+
+    public Graph undirectedEquivalent() {
+        Graph undirectedGraph = new Graph();
+
+        undirectedGraph.batch(() -> {
+            undirectedGraph.getNodes().addAll(nodes);
+
+            for (Arc arc : arcs) {
+                undirectedGraph.getArcs().add(
+                        arc.isDirected() ? new Arc(arc.getBegin(), arc.getEnd(), false, arc.getWeight()) : arc
+                );
+            }
+        });
+
         return undirectedGraph;
     }
 }
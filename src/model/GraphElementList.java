@@ -0,0 +1,316 @@
+package model;
+
+import javafx.collections.ModifiableObservableListBase;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+
+// Observable array list of a graph's nodes or arcs. The owner graph hears of every element at once,
+// while the list listeners can be held back for a batch and then get all of it as a single change.
+// Modifications inside a batch aren't reported one by one: the contents are compared with the ones
+// the batch began with, so any mix of operations makes a well-formed change
+class GraphElementList<E> extends ModifiableObservableListBase<E> {
+    private List<E> elements;
+
+    // Contents when the outermost batch began, null outside a batch
+    private List<E> batchBegin;
+    private int batchDepth;
+
+    // Elements set in place during the batch, reported as replaced even if they were in the list before
+    private Set<E> batchSet;
+
+    private Consumer<E> onAdded;
+    private Consumer<E> onRemoved;
+
+
+    GraphElementList(Consumer<E> onAdded, Consumer<E> onRemoved) {
+        this.onAdded = onAdded;
+        this.onRemoved = onRemoved;
+
+        elements = new ArrayList<>();
+    }
+
+    void beginBatch() {
+        if (batchDepth++ == 0) {
+            batchBegin = new ArrayList<>(elements);
+            batchSet = identitySetOf(Collections.emptyList());
+        }
+    }
+
+    void endBatch() {
+        if (--batchDepth == 0) {
+            List<E> before = batchBegin;
+            Set<E> setElements = batchSet;
+            batchBegin = null;
+            batchSet = null;
+
+            reportBatch(before, setElements);
+        }
+    }
+
+    private boolean isBatched() {
+        return batchBegin != null;
+    }
+
+    @Override
+    public E get(int index) {
+        return elements.get(index);
+    }
+
+    @Override
+    public int size() {
+        return elements.size();
+    }
+
+    @Override
+    protected void doAdd(int index, E element) {
+        elements.add(index, element);
+        onAdded.accept(element);
+    }
+
+    @Override
+    protected E doSet(int index, E element) {
+        E previous = elements.set(index, element);
+        onRemoved.accept(previous);
+        onAdded.accept(element);
+
+        return previous;
+    }
+
+    @Override
+    protected E doRemove(int index) {
+        E removed = elements.remove(index);
+        onRemoved.accept(removed);
+
+        return removed;
+    }
+
+    /*
+     *      Single modifications
+     */
+
+    // Inside a batch the element operations go without a change, the batch reports them all at its end
+
+    @Override
+    public void add(int index, E element) {
+        if (!isBatched()) {
+            super.add(index, element);
+            return;
+        }
+
+        doAdd(index, element);
+        modCount++;
+    }
+
+    @Override
+    public E set(int index, E element) {
+        if (!isBatched()) {
+            return super.set(index, element);
+        }
+
+        batchSet.add(element);
+
+        return doSet(index, element);
+    }
+
+    @Override
+    public E remove(int index) {
+        if (!isBatched()) {
+            return super.remove(index);
+        }
+
+        modCount++;
+
+        return doRemove(index);
+    }
+
+    /*
+     *      Bulk removals
+     */
+
+    // The base class removes one element at a time, shifting the tail on every step
+    @Override
+    protected void removeRange(int fromIndex, int toIndex) {
+        if (fromIndex >= toIndex) {
+            return;
+        }
+
+        List<E> range = elements.subList(fromIndex, toIndex);
+        List<E> removed = new ArrayList<>(range);
+        range.clear();
+        modCount++;
+
+        removed.forEach(onRemoved);
+
+        if (isBatched()) {
+            return;
+        }
+
+        beginChange();
+        nextRemove(fromIndex, removed);
+        endChange();
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> collection) {
+        return removeMatching(collection::contains);
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> collection) {
+        return removeMatching(element -> !collection.contains(element));
+    }
+
+    @Override
+    public boolean removeIf(Predicate<? super E> isRemoved) {
+        return removeMatching(isRemoved);
+    }
+
+    // Single compaction pass, then the removed runs are reported in a single change
+    private boolean removeMatching(Predicate<? super E> isRemoved) {
+        List<E> kept = new ArrayList<>(elements.size());
+        List<Integer> runsBegins = new ArrayList<>();
+        List<List<E>> runs = new ArrayList<>();
+
+        for (int index = 0; index < elements.size(); index++) {
+            E element = elements.get(index);
+
+            if (!isRemoved.test(element)) {
+                kept.add(element);
+                continue;
+            }
+
+            int lastRun = runs.size() - 1;
+
+            if (lastRun != -1 && runsBegins.get(lastRun) + runs.get(lastRun).size() == index) {
+                runs.get(lastRun).add(element);
+            } else {
+                runsBegins.add(index);
+                runs.add(new ArrayList<>());
+                runs.get(lastRun + 1).add(element);
+            }
+        }
+
+        if (runs.isEmpty()) {
+            return false;
+        }
+
+        elements = kept;
+        modCount++;
+
+        for (List<E> run : runs) {
+            run.forEach(onRemoved);
+        }
+
+        if (isBatched()) {
+            return true;
+        }
+
+        // Every run is reported at its index after the runs before it are gone, so the change
+        // builder appends them instead of inserting each one in front of the others
+        int removedCount = 0;
+
+        beginChange();
+        for (int run = 0; run < runs.size(); run++) {
+            nextRemove(runsBegins.get(run) - removedCount, runs.get(run));
+            removedCount += runs.get(run).size();
+        }
+        endChange();
+
+        return true;
+    }
+
+    /*
+     *      Batches
+     */
+
+    // Elements gone since the batch began are reported removed and new ones added, in runs at their indices
+    // in the current contents. An element set in place, as a reweighted arc is, counts as gone and added
+    // again. If the elements kept are in another order now, or an element is in the list twice, the whole
+    // contents are reported replaced
+    private void reportBatch(List<E> before, Set<E> setElements) {
+        Set<E> beforeSet = identitySetOf(before);
+        Set<E> afterSet = identitySetOf(elements);
+        boolean hasDuplicates = beforeSet.size() != before.size() || afterSet.size() != elements.size();
+
+        beforeSet.removeAll(setElements);
+        afterSet.removeAll(setElements);
+
+        beginChange();
+
+        if (hasDuplicates || !isKeptInOrder(before, beforeSet, afterSet)) {
+            if (!before.isEmpty() || !elements.isEmpty()) {
+                nextReplace(0, elements.size(), before);
+            }
+        } else {
+            reportRuns(before, beforeSet, afterSet);
+        }
+
+        endChange();
+    }
+
+    private boolean isKeptInOrder(List<E> before, Set<E> beforeSet, Set<E> afterSet) {
+        int afterIndex = 0;
+
+        for (E element : before) {
+            if (!afterSet.contains(element)) {
+                continue;
+            }
+
+            while (!beforeSet.contains(elements.get(afterIndex))) {
+                afterIndex++;
+            }
+
+            if (elements.get(afterIndex++) != element) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private void reportRuns(List<E> before, Set<E> beforeSet, Set<E> afterSet) {
+        int beforeIndex = 0;
+        int afterIndex = 0;
+
+        while (beforeIndex < before.size() || afterIndex < elements.size()) {
+            List<E> removed = new ArrayList<>();
+
+            while (beforeIndex < before.size() && !afterSet.contains(before.get(beforeIndex))) {
+                removed.add(before.get(beforeIndex++));
+            }
+
+            int from = afterIndex;
+
+            while (afterIndex < elements.size() && !beforeSet.contains(elements.get(afterIndex))) {
+                afterIndex++;
+            }
+
+            if (removed.isEmpty() && from == afterIndex) {
+                // Both stand at the same kept element
+                beforeIndex++;
+                afterIndex++;
+            } else if (removed.isEmpty()) {
+                nextAdd(from, afterIndex);
+            } else if (from == afterIndex) {
+                nextRemove(from, removed);
+            } else {
+                nextReplace(from, afterIndex, removed);
+            }
+        }
+    }
+
+    private static <E> Set<E> identitySetOf(List<E> elements) {
+        Set<E> set = Collections.newSetFromMap(new IdentityHashMap<>(2 * elements.size()));
+        set.addAll(elements);
+
+        return set;
+    }
+}
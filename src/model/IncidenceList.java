@@ -13,11 +13,15 @@ public class IncidenceList {
 
     private Map<Node, List<Arc>> incidenceLists;
 
+    // Arcs added before a node of theirs, kept under that node until it's added
+    private Map<Node, List<Arc>> pendingArcs;
+
 
     public IncidenceList(Graph graph) {
         this.graph = graph;
 
         incidenceLists = new HashMap<>();
+        pendingArcs = new HashMap<>();
         configureIncidenceList();
     }
 
@@ -25,7 +29,7 @@ public class IncidenceList {
         List<Arc> incidents = new ArrayList<>();
 
         for (Arc arc : graph.getArcs()) {
-            if (arc.getBegin().equals(node)) {
+            if (arc.getBegin().equals(node) || (arc.isTwoWay() && arc.getEnd().equals(node))) {
                 incidents.add(arc);
             }
         }
@@ -40,26 +44,93 @@ public class IncidenceList {
      */
 
     private void configureIncidenceList() {
+        // A single pass over the arcs instead of one per node
         for (Node node : graph.getNodes()) {
-            incidenceLists.put(node, setIncidentArcsFor(node));
+            incidenceLists.put(node, new ArrayList<>());
         }
 
-        graph.getArcs().addListener((ListChangeListener) changeList -> {
-            incidenceLists.clear();
-            for (Node node : graph.getNodes()) {
-                incidenceLists.put(node, setIncidentArcsFor(node));
+        for (Arc arc : graph.getArcs()) {
+            addArc(arc);
+        }
+
+        graph.getArcs().addListener((ListChangeListener<Arc>) change -> {
+            while (change.next()) {
+                if (change.wasPermutated() || change.wasUpdated()) {
+                    continue;
+                }
+
+                for (Arc arc : change.getRemoved()) {
+                    removeIncident(arc.getBegin(), arc);
+
+                    if (arc.isTwoWay()) {
+                        removeIncident(arc.getEnd(), arc);
+                    }
+                }
+
+                for (Arc arc : change.getAddedSubList()) {
+                    addArc(arc);
+                }
             }
         });
 
-        graph.getNodes().addListener((ListChangeListener) changeList -> {
-            incidenceLists.clear();
-            for (Node node : graph.getNodes()) {
-                incidenceLists.put(node, setIncidentArcsFor(node));
+        graph.getNodes().addListener((ListChangeListener<Node>) change -> {
+            while (change.next()) {
+                if (change.wasPermutated() || change.wasUpdated()) {
+                    continue;
+                }
+
+                for (Node node : change.getRemoved()) {
+                    incidenceLists.remove(node);
+                    pendingArcs.remove(node);
+                }
+
+                // A new node's row holds only the arcs added before it, the other arcs are known not to be its
+                for (Node node : change.getAddedSubList()) {
+                    incidenceLists.put(node, new ArrayList<>());
+
+                    List<Arc> arcs = pendingArcs.remove(node);
+
+                    if (arcs != null) {
+                        for (Arc arc : arcs) {
+                            addIncident(node, arc);
+                        }
+                    }
+                }
             }
         });
     }
 
 
+    private void addArc(Arc arc) {
+        addIncident(arc.getBegin(), arc);
+
+        if (arc.isTwoWay()) {
+            addIncident(arc.getEnd(), arc);
+        }
+    }
+
+    // The arc waits for the node if it isn't in the lists yet
+    private void addIncident(Node node, Arc arc) {
+        List<Arc> incidents = incidenceLists.get(node);
+
+        if (incidents != null) {
+            incidents.add(arc);
+        } else {
+            pendingArcs.computeIfAbsent(node, waiting -> new ArrayList<>()).add(arc);
+        }
+    }
+
+    // Parallel arcs are equal, the removed one is searched by identity
+    private void removeIncident(Node node, Arc arc) {
+        List<Arc> incidents = incidenceLists.get(node);
+
+        if (incidents != null) {
+            incidents.removeIf(incident -> incident == arc);
+        } else if (pendingArcs.containsKey(node)) {
+            pendingArcs.get(node).removeIf(waiting -> waiting == arc);
+        }
+    }
+
     public Map<Node, List<Arc>> getIncidenceLists() {
         return incidenceLists;
     }
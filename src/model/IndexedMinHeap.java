@@ -0,0 +1,130 @@
+package model;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+
+// Binary min-heap over the items 0 .. capacity - 1, every item is in the heap at most once
+// and its key can be decreased in place
+class IndexedMinHeap {
+    private static final int ABSENT = -1;
+
+    private int[] items;
+    private int[] positions;
+    private double[] keys;
+    private int size;
+
+
+    IndexedMinHeap(int capacity) {
+        items = new int[capacity];
+        positions = new int[capacity];
+        keys = new double[capacity];
+
+        Arrays.fill(positions, ABSENT);
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    boolean contains(int item) {
+        return positions[item] != ABSENT;
+    }
+
+    double peekKey() {
+        if (size == 0) {
+            throw new NoSuchElementException("Heap is empty");
+        }
+
+        return keys[items[0]];
+    }
+
+    // Inserts the item or decreases its key, a greater key than the present one is ignored
+    void offer(int item, double key) {
+        if (positions[item] == ABSENT) {
+            items[size] = item;
+            positions[item] = size++;
+        } else if (key >= keys[item]) {
+            return;
+        }
+
+        keys[item] = key;
+        siftUp(positions[item]);
+    }
+
+    int poll() {
+        if (size == 0) {
+            throw new NoSuchElementException("Heap is empty");
+        }
+
+        int top = items[0];
+        positions[top] = ABSENT;
+
+        if (--size != 0) {
+            items[0] = items[size];
+            positions[items[0]] = 0;
+            siftDown(0);
+        }
+
+        return top;
+    }
+
+    // Only the items left in the heap are touched
+    void clear() {
+        for (int position = 0; position < size; position++) {
+            positions[items[position]] = ABSENT;
+        }
+
+        size = 0;
+    }
+
+    /*
+     *      Utility
+     */
+
+    private void siftUp(int position) {
+        int item = items[position];
+
+        while (position != 0) {
+            int parent = (position - 1) >>> 1;
+
+            if (keys[items[parent]] <= keys[item]) {
+                break;
+            }
+
+            items[position] = items[parent];
+            positions[items[position]] = position;
+            position = parent;
+        }
+
+        items[position] = item;
+        positions[item] = position;
+    }
+
+    private void siftDown(int position) {
+        int item = items[position];
+
+        while (true) {
+            int child = 2 * position + 1;
+
+            if (child >= size) {
+                break;
+            }
+
+            if (child + 1 < size && keys[items[child + 1]] < keys[items[child]]) {
+                child++;
+            }
+
+            if (keys[item] <= keys[items[child]]) {
+                break;
+            }
+
+            items[position] = items[child];
+            positions[items[position]] = position;
+            position = child;
+        }
+
+        items[position] = item;
+        positions[item] = position;
+    }
+}
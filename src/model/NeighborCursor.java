@@ -0,0 +1,64 @@
+package model;
+
+
+// Reusable walk over the distinct neighbors of a node in index order, nothing is allocated per step.
+// A directed cursor follows the out-row of the node, an undirected one merges its out- and in-rows
+public class NeighborCursor {
+    private CompactGraph compactGraph;
+    private boolean isUndirected;
+
+    private int outPosition;
+    private int outEnd;
+    private int inPosition;
+    private int inEnd;
+    private int previous;
+
+
+    NeighborCursor(CompactGraph compactGraph, boolean isUndirected) {
+        this.compactGraph = compactGraph;
+        this.isUndirected = isUndirected;
+    }
+
+    // Starts the walk over the node's neighbors anew, the cursor may be reset any number of times
+    public NeighborCursor reset(int node) {
+        outPosition = compactGraph.rowBegin(node);
+        outEnd = compactGraph.rowEnd(node);
+
+        if (isUndirected) {
+            inPosition = compactGraph.inRowBegin(node);
+            inEnd = compactGraph.inRowEnd(node);
+        } else {
+            inPosition = 0;
+            inEnd = 0;
+        }
+
+        previous = -1;
+
+        return this;
+    }
+
+    // The next neighbor or -1 when there are no more. Parallel arcs and arcs leading both ways
+    // are next to each other in the sorted rows, so they are skipped as the walk goes on
+    public int next() {
+        while (outPosition < outEnd && compactGraph.targetAt(outPosition) <= previous) {
+            outPosition++;
+        }
+
+        while (inPosition < inEnd && compactGraph.sourceAt(inPosition) <= previous) {
+            inPosition++;
+        }
+
+        int outNeighbor = outPosition == outEnd ? -1 : compactGraph.targetAt(outPosition);
+        int inNeighbor = inPosition == inEnd ? -1 : compactGraph.sourceAt(inPosition);
+
+        int neighbor = outNeighbor == -1 || inNeighbor == -1
+                ? Math.max(outNeighbor, inNeighbor)
+                : Math.min(outNeighbor, inNeighbor);
+
+        if (neighbor != -1) {
+            previous = neighbor;
+        }
+
+        return neighbor;
+    }
+}
@@ -1,8 +1,12 @@
 package model;
 
+import java.util.concurrent.atomic.AtomicLong;
+
+
 public class Node {
-    private static long nodeCounter;
-    private final long IDENTIFIER = nodeCounter++;
+    // Nodes may be created by several threads at once, e.g. while graphs are loaded
+    private static final AtomicLong nodeCounter = new AtomicLong();
+    private final long IDENTIFIER = nodeCounter.getAndIncrement();
 
     private String name;
 
@@ -29,14 +29,16 @@ public class Path {
 
     @Override
     public String toString() {
-        String pathToString = "";
+        StringBuilder pathToString = new StringBuilder();
 
-        for (int nodeIter = 0; nodeIter < path.size() - 1; nodeIter++) {
-            pathToString = pathToString.concat(path.get(nodeIter) + " -> ");
+        for (int nodeIter = 0; nodeIter < path.size(); nodeIter++) {
+            if (nodeIter != 0) {
+                pathToString.append(" -> ");
+            }
+            pathToString.append(path.get(nodeIter));
         }
-        pathToString = pathToString.concat(path.get(path.size() - 1).toString());
 
-        return pathToString;
+        return pathToString.toString();
     }
 
     @Override
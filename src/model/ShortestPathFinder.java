@@ -0,0 +1,223 @@
+package model;
+
+import java.util.Arrays;
+
+import static model.DistanceMatrix.INFINITY;
+
+
+// Shortest paths over a CSR image: breadth-first search while every arc weighs the same,
+// Dijkstra over an indexed heap otherwise. The buffers are reused between queries,
+// so a finder must not be shared by threads
+public class ShortestPathFinder {
+    private CompactGraph compactGraph;
+
+    // Kept INFINITY between point queries, only the entries a query has written are reset after it
+    private int[] distanceTo;
+    private int[] touched;
+    private int touchedCount;
+
+    private int[] queue;
+    private IndexedMinHeap heap;
+
+
+    public ShortestPathFinder(CompactGraph compactGraph) {
+        this.compactGraph = compactGraph;
+
+        distanceTo = new int[compactGraph.nodesCount()];
+        touched = new int[compactGraph.nodesCount()];
+        queue = new int[compactGraph.nodesCount()];
+        heap = new IndexedMinHeap(compactGraph.nodesCount());
+
+        Arrays.fill(distanceTo, INFINITY);
+    }
+
+    public CompactGraph getCompactGraph() {
+        return compactGraph;
+    }
+
+    // Distances from the node given to all nodes are written to 'distanceTo'
+    public void distancesFrom(int begin, int[] distanceTo) {
+        search(begin, -1, distanceTo);
+    }
+
+    // Distances from the node given to the nodes it reaches, which are listed in 'reached' in the order
+    // of the search. Only their entries of 'distanceTo' are written, all the others must be INFINITY already,
+    // so the search costs no more than the part of the graph reached. The count of reached nodes is returned
+    public int reachableFrom(int begin, int[] distanceTo, int[] reached) {
+        distanceTo[begin] = 0;
+
+        return compactGraph.isUnweighted()
+                ? breadthFirstSearch(begin, -1, distanceTo, reached)
+                : dijkstraSearch(begin, -1, distanceTo, reached);
+    }
+
+    // The search stops as soon as the distance to 'end' is known, so it costs no more than the part
+    // of the graph searched
+    public int distance(int begin, int end) {
+        distanceTo[begin] = 0;
+
+        if (compactGraph.isUnweighted()) {
+            // The queue lists every node the search has written
+            int reachedCount = breadthFirstSearch(begin, end, distanceTo, queue);
+            return resetAfter(end, queue, reachedCount);
+        }
+
+        dijkstraSearch(begin, end, distanceTo, queue);
+        return resetAfter(end, touched, touchedCount);
+    }
+
+    public int distance(int begin, int end, double[] xs, double[] ys) {
+        return distance(begin, end, xs, ys, heuristicScale(xs, ys));
+    }
+
+    // A* search, the nodes' coordinates give a lower bound of the distance left: the straight-line length
+    // times a scale no more than the least weight per unit of length among the arcs, see heuristicScale
+    public int distance(int begin, int end, double[] xs, double[] ys, double scale) {
+        distanceTo[begin] = 0;
+        touched[0] = begin;
+        touchedCount = 1;
+
+        heap.clear();
+        heap.offer(begin, scale * length(begin, end, xs, ys));
+
+        while (!heap.isEmpty()) {
+            int node = heap.poll();
+
+            if (node == end) {
+                break;
+            }
+
+            for (int position = compactGraph.rowBegin(node); position < compactGraph.rowEnd(node); position++) {
+                int adjacent = compactGraph.targetAt(position);
+                long distanceThrough = (long) distanceTo[node] + compactGraph.weightAt(position);
+
+                // A node may be reopened if it's reached by a shorter path later
+                if (distanceThrough < distanceTo[adjacent]) {
+                    if (distanceTo[adjacent] == INFINITY) {
+                        touched[touchedCount++] = adjacent;
+                    }
+
+                    distanceTo[adjacent] = (int) distanceThrough;
+                    heap.offer(adjacent, distanceThrough + scale * length(adjacent, end, xs, ys));
+                }
+            }
+        }
+
+        return resetAfter(end, touched, touchedCount);
+    }
+
+    // No arc is cheaper than its length times the scale, so the estimate never exceeds the real distance.
+    // The scale takes a pass over all arcs, it's to be kept while neither the graph nor the coordinates change
+    public double heuristicScale(double[] xs, double[] ys) {
+        double scale = Double.POSITIVE_INFINITY;
+
+        for (int node = 0; node < compactGraph.nodesCount(); node++) {
+            for (int position = compactGraph.rowBegin(node); position < compactGraph.rowEnd(node); position++) {
+                double length = length(node, compactGraph.targetAt(position), xs, ys);
+
+                if (length > 0) {
+                    scale = Math.min(scale, compactGraph.weightAt(position) / length);
+                }
+            }
+        }
+
+        return scale == Double.POSITIVE_INFINITY ? 0 : scale;
+    }
+
+    /*
+     *      Searchers
+     */
+
+    private void search(int begin, int end, int[] distanceTo) {
+        Arrays.fill(distanceTo, INFINITY);
+        distanceTo[begin] = 0;
+
+        if (compactGraph.isUnweighted()) {
+            breadthFirstSearch(begin, end, distanceTo, queue);
+        } else {
+            dijkstraSearch(begin, end, distanceTo, queue);
+        }
+    }
+
+    // The queue is kept whole, so it lists the nodes reached
+    private int breadthFirstSearch(int begin, int end, int[] distanceTo, int[] queue) {
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = begin;
+
+        while (head < tail) {
+            int node = queue[head++];
+
+            if (node == end) {
+                return tail;
+            }
+
+            int distanceThrough = distanceTo[node] + Arc.WEIGHT;
+
+            for (int position = compactGraph.rowBegin(node); position < compactGraph.rowEnd(node); position++) {
+                int adjacent = compactGraph.targetAt(position);
+
+                if (distanceTo[adjacent] == INFINITY) {
+                    distanceTo[adjacent] = distanceThrough;
+                    queue[tail++] = adjacent;
+                }
+            }
+        }
+
+        return tail;
+    }
+
+    // Nodes are listed in 'reached' as they leave the heap and in 'touched' as they get their first distance
+    private int dijkstraSearch(int begin, int end, int[] distanceTo, int[] reached) {
+        int reachedCount = 0;
+        touched[0] = begin;
+        touchedCount = 1;
+
+        heap.clear();
+        heap.offer(begin, 0);
+
+        while (!heap.isEmpty()) {
+            int node = heap.poll();
+            reached[reachedCount++] = node;
+
+            if (node == end) {
+                return reachedCount;
+            }
+
+            for (int position = compactGraph.rowBegin(node); position < compactGraph.rowEnd(node); position++) {
+                int adjacent = compactGraph.targetAt(position);
+                long distanceThrough = (long) distanceTo[node] + compactGraph.weightAt(position);
+
+                if (distanceThrough < distanceTo[adjacent]) {
+                    if (distanceTo[adjacent] == INFINITY) {
+                        touched[touchedCount++] = adjacent;
+                    }
+
+                    distanceTo[adjacent] = (int) distanceThrough;
+                    heap.offer(adjacent, distanceThrough);
+                }
+            }
+        }
+
+        return reachedCount;
+    }
+
+    /*
+     *      Utility
+     */
+
+    private static double length(int begin, int end, double[] xs, double[] ys) {
+        return Math.hypot(xs[end] - xs[begin], ys[end] - ys[begin]);
+    }
+
+    // The distance to 'end' is taken before the written entries are set back to INFINITY
+    private int resetAfter(int end, int[] written, int writtenCount) {
+        int distance = distanceTo[end];
+
+        for (int writtenIter = 0; writtenIter < writtenCount; writtenIter++) {
+            distanceTo[written[writtenIter]] = INFINITY;
+        }
+
+        return distance;
+    }
+}
@@ -0,0 +1,163 @@
+package model;
+
+import java.util.function.IntConsumer;
+
+
+// Read-only undirected image of a graph: nodes are adjacent if an arc goes either way between them.
+// Neighbors are read from the CSR out- and in-rows of the graph, nothing is copied
+public class UndirectedView {
+    private CompactGraph compactGraph;
+
+
+    public UndirectedView(Graph graph) {
+        this(graph.getCompactGraph());
+    }
+
+    public UndirectedView(CompactGraph compactGraph) {
+        this.compactGraph = compactGraph;
+    }
+
+    public CompactGraph getCompactGraph() {
+        return compactGraph;
+    }
+
+    public int nodesCount() {
+        return compactGraph.nodesCount();
+    }
+
+    public Node nodeAt(int index) {
+        return compactGraph.nodeAt(index);
+    }
+
+    public int indexOf(Node node) {
+        return compactGraph.indexOf(node);
+    }
+
+    /*
+     *      Neighbors
+     */
+
+    public boolean isAdjacent(int first, int second) {
+        return compactGraph.arcPosition(first, second) != -1 || compactGraph.arcPosition(second, first) != -1;
+    }
+
+    // Neighbor of the node following 'previous' in index order or -1 if there is none,
+    // the first neighbor is given for 'previous' equal to -1. A node with a loop is its own neighbor
+    public int nextNeighbor(int node, int previous) {
+        int outPosition = firstOutPositionAbove(node, previous);
+        int inPosition = firstInPositionAbove(node, previous);
+
+        int outNeighbor = outPosition == compactGraph.rowEnd(node) ? -1 : compactGraph.targetAt(outPosition);
+        int inNeighbor = inPosition == compactGraph.inRowEnd(node) ? -1 : compactGraph.sourceAt(inPosition);
+
+        if (outNeighbor == -1 || inNeighbor == -1) {
+            return Math.max(outNeighbor, inNeighbor);
+        }
+
+        return Math.min(outNeighbor, inNeighbor);
+    }
+
+    // The rows are merged in a single pass, unlike the walk by nextNeighbor
+    public void forEachNeighbor(int node, IntConsumer action) {
+        int outPosition = compactGraph.rowBegin(node);
+        int inPosition = compactGraph.inRowBegin(node);
+        int previous = -1;
+
+        while (true) {
+            while (outPosition < compactGraph.rowEnd(node) && compactGraph.targetAt(outPosition) <= previous) {
+                outPosition++;
+            }
+
+            while (inPosition < compactGraph.inRowEnd(node) && compactGraph.sourceAt(inPosition) <= previous) {
+                inPosition++;
+            }
+
+            int outNeighbor = outPosition == compactGraph.rowEnd(node) ? -1 : compactGraph.targetAt(outPosition);
+            int inNeighbor = inPosition == compactGraph.inRowEnd(node) ? -1 : compactGraph.sourceAt(inPosition);
+
+            if (outNeighbor == -1 && inNeighbor == -1) {
+                return;
+            }
+
+            previous = outNeighbor == -1 || inNeighbor == -1
+                    ? Math.max(outNeighbor, inNeighbor)
+                    : Math.min(outNeighbor, inNeighbor);
+
+            action.accept(previous);
+        }
+    }
+
+    // Cursor over the neighbors either way, to be reset for each node walked
+    public NeighborCursor cursor() {
+        return new NeighborCursor(compactGraph, true);
+    }
+
+    // Count of distinct neighbors
+    public int degree(int node) {
+        NeighborCursor neighbors = cursor().reset(node);
+        int degree = 0;
+
+        while (neighbors.next() != -1) {
+            degree++;
+        }
+
+        return degree;
+    }
+
+    // Every edge between two different nodes is counted from both of its ends
+    public int adjacentPairsCount() {
+        NeighborCursor neighbors = cursor();
+        int pairsCount = 0;
+
+        for (int node = 0; node < nodesCount(); node++) {
+            neighbors.reset(node);
+
+            for (int adjacent = neighbors.next(); adjacent != -1; adjacent = neighbors.next()) {
+                if (adjacent != node) {
+                    pairsCount++;
+                }
+            }
+        }
+
+        return pairsCount;
+    }
+
+    /*
+     *      Utility
+     */
+
+    // Rows are sorted, so the searches are binary
+    private int firstOutPositionAbove(int node, int previous) {
+        int low = compactGraph.rowBegin(node);
+        int high = compactGraph.rowEnd(node);
+
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+
+            if (compactGraph.targetAt(middle) <= previous) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+
+        return low;
+    }
+
+    private int firstInPositionAbove(int node, int previous) {
+        int low = compactGraph.inRowBegin(node);
+        int high = compactGraph.inRowEnd(node);
+
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+
+            if (compactGraph.sourceAt(middle) <= previous) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+
+        return low;
+    }
+}
@@ -0,0 +1,138 @@
+package controller;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+
+// Reference answers for the tests by plain exhaustive search, for graphs of a dozen nodes or so
+final class BruteForce {
+    private BruteForce() {
+    }
+
+    // The least count of colors some assignment of them to the nodes gives no two neighbors the same one with
+    static int chromaticNumber(List<Set<Integer>> neighbors) {
+        int colorsCount = 0;
+
+        while (!isColorable(neighbors, new int[neighbors.size()], 0, 0, colorsCount)) {
+            colorsCount++;
+        }
+
+        return colorsCount;
+    }
+
+    // Cycles through all the nodes along the arcs' directions as nodes from node 0 on, in the lexicographic
+    // order. A cycle and its reversal are one when both exist. A single node makes a cycle with a loop
+    static List<int[]> hamiltonianCycles(boolean[][] successors) {
+        int nodesCount = successors.length;
+        List<int[]> cycles = new ArrayList<>();
+
+        if (nodesCount == 0 || (nodesCount == 1 && !successors[0][0])) {
+            return cycles;
+        }
+
+        int[] cycle = new int[nodesCount];
+
+        for (int node = 0; node < nodesCount; node++) {
+            cycle[node] = node;
+        }
+
+        collectCycles(successors, cycle, 1, cycles);
+        cycles.sort(BruteForce::compareLexicographically);
+
+        return cycles;
+    }
+
+    static long hamiltonianCyclesCount(boolean[][] successors) {
+        return hamiltonianCycles(successors).size();
+    }
+
+    /*
+     *      Utility
+     */
+
+    // Every order of the nodes after node 0 is tried
+    private static void collectCycles(boolean[][] successors, int[] cycle, int position, List<int[]> cycles) {
+        if (position == cycle.length) {
+            if (isCycle(successors, cycle) && isCounted(successors, cycle)) {
+                cycles.add(cycle.clone());
+            }
+            return;
+        }
+
+        for (int swapped = position; swapped < cycle.length; swapped++) {
+            swap(cycle, position, swapped);
+            collectCycles(successors, cycle, position + 1, cycles);
+            swap(cycle, position, swapped);
+        }
+    }
+
+    private static boolean isCycle(boolean[][] successors, int[] cycle) {
+        for (int position = 0; position < cycle.length; position++) {
+            if (!successors[cycle[position]][cycle[(position + 1) % cycle.length]]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    // Of a cycle and its existing reversal the one with the smaller second node is counted,
+    // two nodes make a single cycle that is its own reversal
+    private static boolean isCounted(boolean[][] successors, int[] cycle) {
+        int[] reversal = new int[cycle.length];
+
+        for (int position = 0; position < cycle.length; position++) {
+            reversal[position] = cycle[(cycle.length - position) % cycle.length];
+        }
+
+        return cycle.length < 3 || cycle[1] < reversal[1] || !isCycle(successors, reversal);
+    }
+
+    static int compareLexicographically(int[] first, int[] second) {
+        for (int position = 0; position < Math.min(first.length, second.length); position++) {
+            if (first[position] != second[position]) {
+                return Integer.compare(first[position], second[position]);
+            }
+        }
+
+        return Integer.compare(first.length, second.length);
+    }
+
+    private static void swap(int[] nodes, int first, int second) {
+        int node = nodes[first];
+        nodes[first] = nodes[second];
+        nodes[second] = node;
+    }
+
+    // Colors are 1 .. colorsCount, 0 stands for none yet. Renaming the colors doesn't matter, so a node
+    // takes one of the colors used before it or the first one not used yet
+    private static boolean isColorable(List<Set<Integer>> neighbors, int[] colors, int node, int usedCount,
+                                       int colorsCount) {
+        if (node == colors.length) {
+            return true;
+        }
+
+        for (int color = 1; color <= Math.min(usedCount + 1, colorsCount); color++) {
+            boolean isFree = true;
+
+            for (int neighbor : neighbors.get(node)) {
+                if (colors[neighbor] == color) {
+                    isFree = false;
+                }
+            }
+
+            if (isFree) {
+                colors[node] = color;
+
+                if (isColorable(neighbors, colors, node + 1, Math.max(usedCount, color), colorsCount)) {
+                    return true;
+                }
+            }
+        }
+
+        colors[node] = 0;
+
+        return false;
+    }
+}
@@ -0,0 +1,89 @@
+package controller;
+
+import model.Arc;
+import model.Graph;
+import model.Node;
+import model.RandomGraphs;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+
+public class ChromaticNumberSolverTest {
+    private static final int GRAPHS_COUNT = 300;
+    private static final int MAX_NODES_COUNT = 11;
+    private static final long TIME_BUDGET_MILLIS = 60_000;
+
+
+    @Test
+    public void matchesBruteForce() {
+        Random random = new Random(20);
+
+        for (int sample = 0; sample < GRAPHS_COUNT; sample++) {
+            Graph graph = RandomGraphs.mixed(random, random.nextInt(MAX_NODES_COUNT + 1), random.nextDouble(), 1);
+            List<Set<Integer>> neighbors = RandomGraphs.neighbors(graph);
+            ChromaticNumber chromaticNumber = new ChromaticNumberSolver(graph).solve(TIME_BUDGET_MILLIS);
+
+            ColorerTest.assertProper(graph, neighbors, chromaticNumber.getColoring());
+            assertTrue(chromaticNumber.isSearched());
+            assertTrue(chromaticNumber.isExact());
+            assertEquals(BruteForce.chromaticNumber(neighbors), chromaticNumber.getUpperBound());
+            assertEquals(BruteForce.chromaticNumber(neighbors), chromaticNumber.getLowerBound());
+        }
+    }
+
+    // Out of time the bounds still hold: the coloring is proper and the lower bound is a clique
+    @Test
+    public void boundsHoldWhenTimeRunsOut() {
+        Random random = new Random(21);
+
+        for (int sample = 0; sample < 10; sample++) {
+            Graph graph = RandomGraphs.undirected(random, 120, 0.5);
+            List<Set<Integer>> neighbors = RandomGraphs.neighbors(graph);
+            ChromaticNumber chromaticNumber = new ChromaticNumberSolver(graph).solve(1);
+
+            ColorerTest.assertProper(graph, neighbors, chromaticNumber.getColoring());
+            assertTrue(chromaticNumber.getLowerBound() >= 2);
+            assertTrue(chromaticNumber.getLowerBound() <= chromaticNumber.getUpperBound());
+        }
+    }
+
+    // Disjoint copies of K4 need four colors, and any greedy clique finds one of them
+    @Test
+    public void largeGraphGetsTheBoundsOnly() {
+        Graph graph = new Graph();
+        int copiesCount = 2000;
+
+        graph.batch(() -> {
+            for (int copy = 0; copy < copiesCount; copy++) {
+                Node[] nodes = new Node[4];
+
+                for (int node = 0; node < nodes.length; node++) {
+                    nodes[node] = new Node();
+                    graph.getNodes().add(nodes[node]);
+                }
+
+                for (int first = 0; first < nodes.length; first++) {
+                    for (int second = first + 1; second < nodes.length; second++) {
+                        graph.getArcs().add(new Arc(nodes[first], nodes[second], false));
+                    }
+                }
+            }
+        });
+
+        ChromaticNumberSolver chromaticNumberSolver = new ChromaticNumberSolver(graph);
+        ChromaticNumber chromaticNumber = chromaticNumberSolver.solve(TIME_BUDGET_MILLIS);
+
+        assertFalse(chromaticNumberSolver.isSearchable());
+        assertFalse(chromaticNumber.isSearched());
+        ColorerTest.assertProper(graph, RandomGraphs.neighbors(graph), chromaticNumber.getColoring());
+        assertEquals(4, chromaticNumber.getLowerBound());
+        assertEquals(4, chromaticNumber.getUpperBound());
+    }
+}
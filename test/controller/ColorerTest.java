@@ -0,0 +1,204 @@
+package controller;
+
+import model.Graph;
+import model.Node;
+import model.RandomGraphs;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+
+public class ColorerTest {
+    private static final int GRAPHS_COUNT = 300;
+    private static final int MAX_NODES_COUNT = 10;
+    private static final int PARALLEL_NODES_COUNT = 200_000;
+
+    private static final Colorer.Strategy[] SEQUENTIAL_STRATEGIES = {
+            Colorer.Strategy.LARGEST_FIRST, Colorer.Strategy.DSATUR, Colorer.Strategy.SMALLEST_LAST
+    };
+
+
+    @Test
+    public void coloringsAreProperAndBounded() {
+        Random random = new Random(18);
+
+        for (int sample = 0; sample < GRAPHS_COUNT; sample++) {
+            Graph graph = RandomGraphs.mixed(random, random.nextInt(MAX_NODES_COUNT + 1), random.nextDouble(), 1);
+            List<Set<Integer>> neighbors = RandomGraphs.neighbors(graph);
+            int chromaticNumber = BruteForce.chromaticNumber(neighbors);
+
+            for (Colorer.Strategy strategy : SEQUENTIAL_STRATEGIES) {
+                Coloring coloring = new Colorer(graph).colorize(strategy);
+
+                assertProper(graph, neighbors, coloring);
+                assertTrue(coloring.getColorsCount() >= chromaticNumber);
+                assertTrue(coloring.getColorsCount() <= maxDegreeOf(neighbors) + 1);
+            }
+        }
+    }
+
+    // Every node is colored after it has no more than the degeneracy of neighbors left uncolored
+    @Test
+    public void smallestLastKeepsToTheDegeneracy() {
+        Random random = new Random(19);
+
+        for (int sample = 0; sample < GRAPHS_COUNT; sample++) {
+            Graph graph = RandomGraphs.mixed(random, random.nextInt(4 * MAX_NODES_COUNT), random.nextDouble() / 4, 1);
+            List<Set<Integer>> neighbors = RandomGraphs.neighbors(graph);
+            Coloring coloring = new Colorer(graph).colorize(Colorer.Strategy.SMALLEST_LAST);
+
+            assertProper(graph, neighbors, coloring);
+            assertTrue(coloring.getColorsCount() <= degeneracyOf(neighbors) + 1);
+        }
+    }
+
+    // DSatur colors any bipartite graph with two colors
+    @Test
+    public void dsaturColorsBipartiteGraphsWithTwoColors() {
+        Random random = new Random(20);
+
+        for (int sample = 0; sample < GRAPHS_COUNT; sample++) {
+            Graph graph = RandomGraphs.mixed(random, random.nextInt(4 * MAX_NODES_COUNT), random.nextDouble() / 2, 1);
+            List<Node> nodes = new ArrayList<>(graph.getNodes());
+
+            graph.getArcs().removeIf(arc -> nodes.indexOf(arc.getBegin()) % 2 == nodes.indexOf(arc.getEnd()) % 2);
+
+            List<Set<Integer>> neighbors = RandomGraphs.neighbors(graph);
+            Coloring coloring = new Colorer(graph).colorize(Colorer.Strategy.DSATUR);
+
+            int expected = maxDegreeOf(neighbors) > 0 ? 2 : Math.min(1, nodes.size());
+
+            assertProper(graph, neighbors, coloring);
+            assertEquals(expected, coloring.getColorsCount());
+        }
+    }
+
+    @Test
+    public void jonesPlassmannIsProperAndBounded() {
+        Random random = new Random(21);
+
+        for (int sample = 0; sample < GRAPHS_COUNT; sample++) {
+            Graph graph = RandomGraphs.mixed(random, random.nextInt(MAX_NODES_COUNT + 1), random.nextDouble(), 1);
+            List<Set<Integer>> neighbors = RandomGraphs.neighbors(graph);
+            Coloring coloring = new Colorer(graph).colorize(Colorer.Strategy.JONES_PLASSMANN);
+
+            assertProper(graph, neighbors, coloring);
+            assertTrue(coloring.getColorsCount() >= BruteForce.chromaticNumber(neighbors));
+            assertTrue(coloring.getColorsCount() <= maxDegreeOf(neighbors) + 1);
+        }
+    }
+
+    // The priorities are seeded, and a node takes its color only after all of its neighbors of a higher one,
+    // so the coloring doesn't depend on how the rounds are spread over the workers
+    @Test
+    public void largeGraphIsColoredInParallelTheSameEveryTime() {
+        Random random = new Random(22);
+        Graph graph = new Graph();
+
+        graph.batch(() -> {
+            for (int node = 0; node < PARALLEL_NODES_COUNT; node++) {
+                graph.getNodes().add(new Node());
+            }
+
+            for (int arc = 0; arc < 3 * PARALLEL_NODES_COUNT; arc++) {
+                Node first = graph.nodeAt(random.nextInt(PARALLEL_NODES_COUNT));
+                Node second = graph.nodeAt(random.nextInt(PARALLEL_NODES_COUNT));
+
+                graph.getArcs().add(RandomGraphs.randomArc(random, first, second, 1));
+            }
+        });
+
+        List<Set<Integer>> neighbors = RandomGraphs.neighbors(graph);
+        Coloring coloring = new Colorer(graph).colorize(Colorer.Strategy.JONES_PLASSMANN);
+        Coloring again = new Colorer(graph).colorize(Colorer.Strategy.JONES_PLASSMANN);
+
+        assertProper(graph, neighbors, coloring);
+        assertTrue(coloring.getColorsCount() <= maxDegreeOf(neighbors) + 1);
+
+        for (int node = 0; node < PARALLEL_NODES_COUNT; node++) {
+            assertEquals(coloring.colorAt(node), again.colorAt(node));
+        }
+    }
+
+    /*
+     *      Utility
+     */
+
+    // Colors 0 .. colorsCount - 1 are all taken, none by two neighbors, and the node map agrees with the indices
+    static void assertProper(Graph graph, List<Set<Integer>> neighbors, Coloring coloring) {
+        boolean[] isTaken = new boolean[coloring.getColorsCount()];
+        Map<Node, Integer> colors = coloring.toMap();
+
+        assertEquals(graph.getNodes().size(), colors.size());
+
+        for (Node node : graph.getNodes()) {
+            int index = graph.indexOf(node);
+            int color = coloring.colorAt(index);
+
+            assertTrue(color >= 0 && color < coloring.getColorsCount());
+            assertEquals(color, (int) coloring.colorOf(node));
+            assertEquals(color, (int) colors.get(node));
+            isTaken[color] = true;
+
+            for (int neighbor : neighbors.get(index)) {
+                assertTrue(color != coloring.colorAt(neighbor));
+            }
+        }
+
+        for (boolean isColorTaken : isTaken) {
+            assertTrue(isColorTaken);
+        }
+    }
+
+    static int maxDegreeOf(List<Set<Integer>> neighbors) {
+        int maxDegree = 0;
+
+        for (Set<Integer> nodeNeighbors : neighbors) {
+            maxDegree = Math.max(maxDegree, nodeNeighbors.size());
+        }
+
+        return maxDegree;
+    }
+
+    // The largest of the least degrees met while removing a node of the least degree again and again
+    private static int degeneracyOf(List<Set<Integer>> neighbors) {
+        boolean[] isRemoved = new boolean[neighbors.size()];
+        int degeneracy = 0;
+
+        for (int step = 0; step < neighbors.size(); step++) {
+            int leastNode = -1;
+            int leastDegree = Integer.MAX_VALUE;
+
+            for (int node = 0; node < neighbors.size(); node++) {
+                if (isRemoved[node]) {
+                    continue;
+                }
+
+                int degree = 0;
+
+                for (int neighbor : neighbors.get(node)) {
+                    if (!isRemoved[neighbor]) {
+                        degree++;
+                    }
+                }
+
+                if (degree < leastDegree) {
+                    leastNode = node;
+                    leastDegree = degree;
+                }
+            }
+
+            isRemoved[leastNode] = true;
+            degeneracy = Math.max(degeneracy, leastDegree);
+        }
+
+        return degeneracy;
+    }
+}
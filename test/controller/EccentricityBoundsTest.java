@@ -0,0 +1,120 @@
+package controller;
+
+import model.Arc;
+import model.FloydWarshall;
+import model.Graph;
+import model.Node;
+import model.RandomGraphs;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+
+public class EccentricityBoundsTest {
+    private static final int GRAPHS_COUNT = 300;
+    private static final int MAX_NODES_COUNT = 40;
+    private static final int MAX_WEIGHT = 5;
+
+
+    // Distances the same both ways, so the bounds prune the searches
+    @Test
+    public void matchesAllPairsOnUndirectedGraphs() {
+        Random random = new Random(25);
+
+        for (int sample = 0; sample < GRAPHS_COUNT; sample++) {
+            int nodesCount = random.nextInt(MAX_NODES_COUNT + 1);
+            Graph graph = RandomGraphs.undirected(random, nodesCount, random.nextDouble() * 4 / (nodesCount + 1));
+
+            if (random.nextBoolean()) {
+                for (Arc arc : new ArrayList<>(graph.getArcs())) {
+                    graph.setArcWeight(arc, 1 + random.nextInt(MAX_WEIGHT));
+                }
+            }
+
+            assertMatches(graph);
+        }
+    }
+
+    // Directed arcs and uneven weights, so every node is searched
+    @Test
+    public void matchesAllPairsOnMixedGraphs() {
+        Random random = new Random(26);
+
+        for (int sample = 0; sample < GRAPHS_COUNT; sample++) {
+            int nodesCount = random.nextInt(MAX_NODES_COUNT + 1);
+            double arcProbability = random.nextDouble() * 4 / (nodesCount + 1);
+
+            assertMatches(RandomGraphs.mixed(random, nodesCount, arcProbability, MAX_WEIGHT));
+        }
+    }
+
+    // On a long path the bounds leave only a few searches, the two middle nodes are the centers
+    @Test
+    public void pathTakesFewSearches() {
+        Graph graph = new Graph();
+        List<Node> nodes = new ArrayList<>();
+
+        for (int node = 0; node < 1000; node++) {
+            nodes.add(new Node());
+        }
+
+        graph.getNodes().addAll(nodes);
+
+        for (int node = 1; node < nodes.size(); node++) {
+            graph.getArcs().add(new Arc(nodes.get(node - 1), nodes.get(node), false));
+        }
+
+        EccentricityBounds bounds = new EccentricityBounds(graph);
+
+        assertEquals(999, bounds.getDiameter());
+        assertEquals(500, bounds.getRadius());
+        assertEquals(2, bounds.centers().size());
+        assertTrue(bounds.getSearchesCount() < 10);
+    }
+
+    /*
+     *      Utility
+     */
+
+    private static void assertMatches(Graph graph) {
+        long[][] distances = FloydWarshall.distances(graph);
+        int nodesCount = distances.length;
+        long[] eccentricities = new long[nodesCount];
+        long diameter = 0;
+        long radius = 0;
+
+        for (int begin = 0; begin < nodesCount; begin++) {
+            for (int end = 0; end < nodesCount; end++) {
+                if (distances[begin][end] != Long.MAX_VALUE) {
+                    eccentricities[begin] = Math.max(eccentricities[begin], distances[begin][end]);
+                }
+            }
+
+            diameter = Math.max(diameter, eccentricities[begin]);
+
+            if (eccentricities[begin] != 0 && (radius == 0 || eccentricities[begin] < radius)) {
+                radius = eccentricities[begin];
+            }
+        }
+
+        List<Node> centers = new ArrayList<>();
+
+        for (int node = 0; node < nodesCount; node++) {
+            if (eccentricities[node] == radius) {
+                centers.add(graph.nodeAt(node));
+            }
+        }
+
+        EccentricityBounds bounds = new EccentricityBounds(graph);
+
+        assertEquals(diameter, bounds.getDiameter());
+        assertEquals(radius, bounds.getRadius());
+        assertEquals(centers, bounds.centers());
+        assertTrue(bounds.getSearchesCount() <= nodesCount);
+    }
+}
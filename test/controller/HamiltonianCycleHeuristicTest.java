@@ -0,0 +1,97 @@
+package controller;
+
+import model.Arc;
+import model.Graph;
+import model.Node;
+import model.Path;
+import model.RandomGraphs;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+
+public class HamiltonianCycleHeuristicTest {
+    private static final int GRAPHS_COUNT = 100;
+    private static final int MAX_NODES_COUNT = 9;
+    private static final long SMALL_TIME_BUDGET_MILLIS = 20;
+    private static final long TIME_BUDGET_MILLIS = 30_000;
+
+
+    // A cycle found is a real one, and none is found where the brute force says there is none
+    @Test
+    public void agreesWithBruteForce() {
+        Random random = new Random(24);
+        int foundCount = 0;
+
+        for (int sample = 0; sample < GRAPHS_COUNT; sample++) {
+            Graph graph = RandomGraphs.mixed(random, 3 + random.nextInt(MAX_NODES_COUNT - 2), random.nextDouble(), 1);
+            boolean[][] successors = RandomGraphs.successors(graph);
+            Path cycle = new HamiltonianCycleHeuristic(graph).findCycle(SMALL_TIME_BUDGET_MILLIS);
+
+            if (BruteForce.hamiltonianCyclesCount(successors) == 0) {
+                assertNull(cycle);
+            } else if (cycle != null) {
+                HamiltonianCycleSolverTest.assertCycle(graph, successors, cycle);
+                foundCount++;
+            }
+        }
+
+        assertTrue(foundCount > 0);
+    }
+
+    // A random cycle through all the nodes hidden among random chords
+    @Test
+    public void findsPlantedCycleInLargeGraph() {
+        Random random = new Random(25);
+
+        for (int nodesCount : new int[]{1000, 20_000}) {
+            Graph graph = plantedCycleGraph(random, nodesCount);
+            boolean[][] successors = nodesCount <= 1000 ? RandomGraphs.successors(graph) : null;
+            Path cycle = new HamiltonianCycleHeuristic(graph).findCycleInParallel(TIME_BUDGET_MILLIS);
+
+            if (successors != null) {
+                HamiltonianCycleSolverTest.assertCycle(graph, successors, cycle);
+            } else {
+                assertTrue(cycle != null && cycle.getPath().size() == nodesCount + 1);
+            }
+        }
+    }
+
+    /*
+     *      Utility
+     */
+
+    private static Graph plantedCycleGraph(Random random, int nodesCount) {
+        Graph graph = new Graph();
+
+        graph.batch(() -> {
+            List<Node> nodes = new ArrayList<>();
+
+            for (int node = 0; node < nodesCount; node++) {
+                nodes.add(new Node());
+            }
+
+            graph.getNodes().addAll(nodes);
+            Collections.shuffle(nodes, random);
+
+            for (int node = 0; node < nodesCount; node++) {
+                graph.getArcs().add(new Arc(nodes.get(node), nodes.get((node + 1) % nodesCount), false));
+            }
+
+            for (int chord = 0; chord < nodesCount; chord++) {
+                Node first = nodes.get(random.nextInt(nodesCount));
+                Node second = nodes.get(random.nextInt(nodesCount));
+
+                graph.getArcs().add(new Arc(first, second, false));
+            }
+        });
+
+        return graph;
+    }
+}
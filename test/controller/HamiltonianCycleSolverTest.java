@@ -0,0 +1,85 @@
+package controller;
+
+import model.Graph;
+import model.Node;
+import model.Path;
+import model.RandomGraphs;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+
+public class HamiltonianCycleSolverTest {
+    private static final int GRAPHS_COUNT = 1000;
+    private static final int MAX_NODES_COUNT = 9;
+
+
+    @Test
+    public void matchesBruteForce() {
+        Random random = new Random(21);
+
+        for (int sample = 0; sample < GRAPHS_COUNT; sample++) {
+            Graph graph = RandomGraphs.mixed(random, random.nextInt(MAX_NODES_COUNT + 1), random.nextDouble(), 1);
+            boolean[][] successors = RandomGraphs.successors(graph);
+            long cyclesCount = BruteForce.hamiltonianCyclesCount(successors);
+            HamiltonianCycleSolver hamiltonianCycleSolver = new HamiltonianCycleSolver(graph);
+
+            assertEquals(cyclesCount, hamiltonianCycleSolver.cyclesCount());
+            assertEquals(cyclesCount > 0, hamiltonianCycleSolver.hasCycle());
+
+            if (cyclesCount > 0) {
+                assertCycle(graph, successors, hamiltonianCycleSolver.cycle());
+            } else {
+                assertNull(hamiltonianCycleSolver.cycle());
+            }
+        }
+    }
+
+    // A cycle and its reversal are one, so K_n has (n - 1)! / 2 of them
+    @Test
+    public void countsCyclesOfCompleteGraph() {
+        long factorial = 1;
+
+        for (int nodesCount = 3; nodesCount <= HamiltonianCycleSolver.MAX_COUNTING_NODES_COUNT; nodesCount++) {
+            factorial *= nodesCount - 1;
+
+            Graph graph = RandomGraphs.undirected(new Random(), nodesCount, 1);
+
+            assertEquals(factorial / 2, new HamiltonianCycleSolver(graph).cyclesCount());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void refusesToCountOnTooLargeGraph() {
+        Graph graph = RandomGraphs.undirected(new Random(), HamiltonianCycleSolver.MAX_COUNTING_NODES_COUNT + 1, 1);
+
+        new HamiltonianCycleSolver(graph).cyclesCount();
+    }
+
+    /*
+     *      Utility
+     */
+
+    // The path goes along the arcs through every node once and comes back to the first one
+    static void assertCycle(Graph graph, boolean[][] successors, Path cycle) {
+        assertNotNull(cycle);
+
+        List<Node> nodes = cycle.getPath();
+        int nodesCount = graph.getNodes().size();
+
+        assertEquals(nodesCount + 1, nodes.size());
+        assertEquals(nodes.get(0), nodes.get(nodesCount));
+        assertEquals(nodesCount, new HashSet<>(nodes.subList(0, nodesCount)).size());
+
+        for (int position = 0; position < nodesCount; position++) {
+            assertTrue(successors[graph.indexOf(nodes.get(position))][graph.indexOf(nodes.get(position + 1))]);
+        }
+    }
+}
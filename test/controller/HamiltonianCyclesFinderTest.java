@@ -0,0 +1,69 @@
+package controller;
+
+import javafx.collections.ObservableList;
+import model.Graph;
+import model.Path;
+import model.RandomGraphs;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+
+public class HamiltonianCyclesFinderTest {
+    private static final int GRAPHS_COUNT = 1000;
+    private static final int MAX_NODES_COUNT = 9;
+
+
+    // Every other graph has all of its arcs two-way, so the search cuts reversed cycles early there
+    @Test
+    public void matchesBruteForce() {
+        Random random = new Random(22);
+
+        for (int sample = 0; sample < GRAPHS_COUNT; sample++) {
+            int nodesCount = random.nextInt(MAX_NODES_COUNT + 1);
+            Graph graph = sample % 2 == 0
+                    ? RandomGraphs.undirected(random, nodesCount, random.nextDouble())
+                    : RandomGraphs.mixed(random, nodesCount, random.nextDouble(), 1);
+            boolean[][] successors = RandomGraphs.successors(graph);
+            List<int[]> expected = BruteForce.hamiltonianCycles(successors);
+            HamiltonianCyclesFinder hamiltonianCyclesFinder = new HamiltonianCyclesFinder(graph);
+            List<int[]> cycles = hamiltonianCyclesFinder.cycles();
+
+            assertEquals(expected.size(), hamiltonianCyclesFinder.cyclesCount());
+            assertEquals(expected.size(), cycles.size());
+
+            for (int cycle = 0; cycle < expected.size(); cycle++) {
+                assertArrayEquals(expected.get(cycle), cycles.get(cycle));
+            }
+
+            ObservableList<Path> paths = hamiltonianCyclesFinder.hamiltonianCycles();
+
+            assertEquals(expected.size(), paths.size());
+
+            for (Path path : paths) {
+                HamiltonianCycleSolverTest.assertCycle(graph, successors, path);
+            }
+        }
+    }
+
+    // Graphs too large for the brute force are checked against the Held-Karp count
+    @Test
+    public void matchesHeldKarpCount() {
+        Random random = new Random(23);
+
+        for (int sample = 0; sample < 20; sample++) {
+            int nodesCount = 10 + random.nextInt(3);
+            Graph graph = sample % 2 == 0
+                    ? RandomGraphs.undirected(random, nodesCount, 0.4 + random.nextDouble() / 2)
+                    : RandomGraphs.mixed(random, nodesCount, 0.4 + random.nextDouble() / 2, 1);
+
+            long cyclesCount = new HamiltonianCycleSolver(graph).cyclesCount();
+
+            assertEquals(cyclesCount, new HamiltonianCyclesFinder(graph).cyclesCount());
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package controller;
+
+import model.Graph;
+import model.Node;
+import model.Path;
+import model.RandomGraphs;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+
+public class HamiltonianCyclesStreamTest {
+    // K8 has 7! / 2 = 2520 cycles, more than the channel holds
+    private static final int NODES_COUNT = 8;
+    private static final long CYCLES_COUNT = 2520;
+
+
+    @Test
+    public void countOnlyKeepsNoCycles() {
+        HamiltonianCyclesStream stream = HamiltonianCyclesStream.countOnly();
+
+        assertEquals(CYCLES_COUNT, new HamiltonianCyclesFinder(completeGraph()).streamCycles(stream));
+        assertEquals(0, stream.drainTo(new ArrayList<>(), Integer.MAX_VALUE));
+    }
+
+    @Test
+    public void firstCyclesStopAtTheLimit() {
+        Graph graph = completeGraph();
+        HamiltonianCyclesStream stream = HamiltonianCyclesStream.firstCycles(100);
+        List<Path> cycles = new ArrayList<>();
+
+        assertEquals(100, new HamiltonianCyclesFinder(graph).streamCycles(stream));
+        assertEquals(100, stream.drainTo(cycles, Integer.MAX_VALUE));
+        assertDistinctCycles(graph, cycles);
+    }
+
+    // The search waits while the channel is full, so the cycles are taken on another thread meanwhile
+    @Test
+    public void allCyclesComeThrough() throws Exception {
+        Graph graph = completeGraph();
+        HamiltonianCyclesStream stream = HamiltonianCyclesStream.firstCycles(HamiltonianCyclesStream.UNLIMITED);
+        CompletableFuture<Long> search = CompletableFuture.supplyAsync(
+                () -> new HamiltonianCyclesFinder(graph).streamCycles(stream)
+        );
+        List<Path> cycles = new ArrayList<>();
+
+        while (!search.isDone()) {
+            stream.drainTo(cycles, Integer.MAX_VALUE);
+        }
+        stream.drainTo(cycles, Integer.MAX_VALUE);
+
+        assertEquals(CYCLES_COUNT, (long) search.get());
+        assertEquals(CYCLES_COUNT, cycles.size());
+        assertDistinctCycles(graph, cycles);
+    }
+
+    @Test
+    public void stoppedSearchEnds() throws Exception {
+        HamiltonianCyclesStream stream = HamiltonianCyclesStream.firstCycles(HamiltonianCyclesStream.UNLIMITED);
+        CompletableFuture<Long> search = CompletableFuture.supplyAsync(
+                () -> new HamiltonianCyclesFinder(completeGraph()).streamCycles(stream)
+        );
+
+        while (stream.getCount() == 0 && !search.isDone()) {
+            Thread.yield();
+        }
+
+        stream.stop();
+
+        assertTrue(search.get() < CYCLES_COUNT);
+        assertTrue(stream.isStopped());
+    }
+
+    /*
+     *      Utility
+     */
+
+    private static Graph completeGraph() {
+        return RandomGraphs.undirected(new Random(), NODES_COUNT, 1);
+    }
+
+    // Cycles are told apart up to the direction, a cycle and its reversal are one
+    private static void assertDistinctCycles(Graph graph, List<Path> cycles) {
+        boolean[][] successors = RandomGraphs.successors(graph);
+        Set<List<Node>> distinct = new HashSet<>();
+
+        for (Path cycle : cycles) {
+            HamiltonianCycleSolverTest.assertCycle(graph, successors, cycle);
+
+            List<Node> nodes = new ArrayList<>(cycle.getPath());
+            List<Node> reversed = new ArrayList<>(nodes);
+            Collections.reverse(reversed);
+
+            assertTrue(distinct.add(nodes));
+            assertTrue(distinct.add(reversed));
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package controller.verifier;
+
+import model.Graph;
+import model.RandomGraphs;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+
+public class PlanarEmbeddingTest {
+    private static final int GRAPHS_COUNT = 200;
+
+
+    // Euler: the faces of a plane embedding of a connected graph number E - V + 2
+    @Test
+    public void rotationSystemIsPlane() {
+        Random random = new Random(16);
+
+        for (int sample = 0; sample < GRAPHS_COUNT; sample++) {
+            Graph graph = randomPlanarGraph(random, sample);
+            PlanarEmbedding embedding = new PlanarityVerifier(graph).embedding();
+
+            assertNotNull(embedding);
+
+            List<Set<Integer>> neighbors = RandomGraphs.neighbors(graph);
+            int edgesCount = 0;
+
+            for (int node = 0; node < embedding.nodesCount(); node++) {
+                Set<Integer> embeddedNeighbors = new HashSet<>();
+
+                for (int position = 0; position < embedding.degree(node); position++) {
+                    embeddedNeighbors.add(embedding.neighborAt(node, position));
+                }
+
+                assertEquals(embedding.degree(node), embeddedNeighbors.size());
+                assertEquals(neighbors.get(node), embeddedNeighbors);
+                edgesCount += embedding.degree(node);
+            }
+
+            edgesCount /= 2;
+
+            // Every component but a single node has an outer face of its own
+            int componentsCount = componentsCount(neighbors);
+            int isolatedCount = 0;
+
+            for (Set<Integer> nodeNeighbors : neighbors) {
+                if (nodeNeighbors.isEmpty()) {
+                    isolatedCount++;
+                }
+            }
+
+            int facesCount = facesCount(embedding);
+
+            assertEquals(2 * (componentsCount - isolatedCount),
+                    embedding.nodesCount() - isolatedCount - edgesCount + facesCount);
+        }
+    }
+
+    @Test
+    public void nonPlanarGraphHasNoEmbedding() {
+        assertNull(new PlanarityVerifier(PlanarityVerifierTest.complete(5)).embedding());
+    }
+
+    /*
+     *      Utility
+     */
+
+    // Triangulations with some of their arcs taken away, or sparse graphs of mixed arcs that are planar
+    static Graph randomPlanarGraph(Random random, int sample) {
+        int nodesCount = random.nextInt(50);
+
+        if (sample % 2 == 0) {
+            Graph graph = RandomGraphs.stackedTriangulation(random, nodesCount);
+            double removalProbability = random.nextDouble() / 2;
+
+            graph.getArcs().removeIf(arc -> random.nextDouble() < removalProbability);
+
+            return graph;
+        }
+
+        Graph graph;
+
+        do {
+            graph = RandomGraphs.mixed(random, nodesCount, 2.5 / Math.max(1, nodesCount), 1);
+        } while (!new PlanarityVerifier(graph).verify());
+
+        return graph;
+    }
+
+    // A face is traced by turning to the clockwise next neighbor at every node
+    private static int facesCount(PlanarEmbedding embedding) {
+        int nodesCount = embedding.nodesCount();
+        boolean[][] isTraced = new boolean[nodesCount][];
+        int facesCount = 0;
+
+        for (int node = 0; node < nodesCount; node++) {
+            isTraced[node] = new boolean[embedding.degree(node)];
+        }
+
+        for (int node = 0; node < nodesCount; node++) {
+            for (int position = 0; position < embedding.degree(node); position++) {
+                if (isTraced[node][position]) {
+                    continue;
+                }
+
+                facesCount++;
+
+                int begin = node;
+                int beginPosition = position;
+
+                while (!isTraced[begin][beginPosition]) {
+                    isTraced[begin][beginPosition] = true;
+
+                    int end = embedding.neighborAt(begin, beginPosition);
+                    int endPosition = positionOf(embedding, end, begin);
+
+                    beginPosition = (endPosition + 1) % embedding.degree(end);
+                    begin = end;
+                }
+            }
+        }
+
+        return facesCount;
+    }
+
+    private static int positionOf(PlanarEmbedding embedding, int node, int neighbor) {
+        for (int position = 0; position < embedding.degree(node); position++) {
+            if (embedding.neighborAt(node, position) == neighbor) {
+                return position;
+            }
+        }
+
+        throw new AssertionError(neighbor + " isn't a neighbor of " + node);
+    }
+
+    private static int componentsCount(List<Set<Integer>> neighbors) {
+        int[] components = new int[neighbors.size()];
+        int componentsCount = 0;
+
+        for (int node = 0; node < neighbors.size(); node++) {
+            if (components[node] == 0) {
+                markComponent(neighbors, components, node, ++componentsCount);
+            }
+        }
+
+        return componentsCount;
+    }
+
+    private static void markComponent(List<Set<Integer>> neighbors, int[] components, int node, int component) {
+        components[node] = component;
+
+        for (int neighbor : neighbors.get(node)) {
+            if (components[neighbor] == 0) {
+                markComponent(neighbors, components, neighbor, component);
+            }
+        }
+    }
+}
@@ -0,0 +1,326 @@
+package controller.verifier;
+
+import model.Arc;
+import model.Graph;
+import model.Node;
+import model.RandomGraphs;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+
+public class PlanarityVerifierTest {
+    private static final int GRAPHS_COUNT = 300;
+    private static final int MAX_BRUTE_FORCE_NODES_COUNT = 8;
+
+
+    // Wagner: a graph is planar if and only if it has neither K5 nor K3,3 as a minor
+    @Test
+    public void verifyMatchesMinorSearch() {
+        Random random = new Random(15);
+        int planarCount = 0;
+
+        for (int sample = 0; sample < GRAPHS_COUNT; sample++) {
+            int nodesCount = 5 + random.nextInt(MAX_BRUTE_FORCE_NODES_COUNT - 4);
+            double arcProbability = 0.4 + random.nextDouble() * 0.4;
+            Graph graph = sample % 2 == 0
+                    ? RandomGraphs.undirected(random, nodesCount, arcProbability)
+                    : RandomGraphs.mixed(random, nodesCount, arcProbability, 1);
+            boolean isPlanar = !hasKuratowskiMinor(RandomGraphs.neighbors(graph));
+
+            assertEquals(isPlanar, new PlanarityVerifier(graph).verify());
+
+            if (isPlanar) {
+                planarCount++;
+            }
+        }
+
+        // Both answers must have come up often enough to mean something
+        assertTrue(planarCount > GRAPHS_COUNT / 5 && planarCount < GRAPHS_COUNT * 4 / 5);
+    }
+
+    @Test
+    public void kuratowskiSubgraphIsASubdivision() {
+        Random random = new Random(16);
+
+        for (int sample = 0; sample < GRAPHS_COUNT; sample++) {
+            int nodesCount = 5 + random.nextInt(40);
+            Graph graph = RandomGraphs.mixed(random, nodesCount, 4.0 / nodesCount, 1);
+            PlanarityVerifier planarityVerifier = new PlanarityVerifier(graph);
+            KuratowskiSubgraph kuratowskiSubgraph = planarityVerifier.kuratowskiSubgraph();
+
+            if (planarityVerifier.verify()) {
+                assertNull(kuratowskiSubgraph);
+            } else {
+                assertNotNull(kuratowskiSubgraph);
+                assertSubdivision(graph, kuratowskiSubgraph);
+            }
+        }
+    }
+
+    @Test
+    public void knownGraphs() {
+        assertFalse(new PlanarityVerifier(complete(5)).verify());
+        assertTrue(new PlanarityVerifier(complete(4)).verify());
+
+        Graph petersen = petersen();
+        PlanarityVerifier planarityVerifier = new PlanarityVerifier(petersen);
+
+        // The Petersen graph has no K5 subdivision, its nodes are of degree 3
+        assertFalse(planarityVerifier.verify());
+        assertFalse(planarityVerifier.kuratowskiSubgraph().isK5());
+        assertSubdivision(petersen, planarityVerifier.kuratowskiSubgraph());
+    }
+
+    /*
+     *      Reference
+     */
+
+    private static boolean hasKuratowskiMinor(List<Set<Integer>> neighbors) {
+        int[] adjacency = new int[neighbors.size()];
+
+        for (int node = 0; node < adjacency.length; node++) {
+            for (int neighbor : neighbors.get(node)) {
+                adjacency[node] |= 1 << neighbor;
+            }
+        }
+
+        return hasMinor(adjacency, new int[adjacency.length], 0, -1, 5)
+                || hasMinor(adjacency, new int[adjacency.length], 0, -1, 6);
+    }
+
+    // Nodes are spread over the branch sets 0 .. setsCount - 1 or left out (-1) in every way, a set
+    // being opened only after the ones before it, so each spread comes once up to the order of the sets
+    private static boolean hasMinor(int[] adjacency, int[] sets, int node, int lastSet, int setsCount) {
+        if (node == adjacency.length) {
+            return lastSet == setsCount - 1 && isMinor(adjacency, sets, setsCount);
+        }
+
+        for (int set = -1; set <= Math.min(lastSet + 1, setsCount - 1); set++) {
+            sets[node] = set;
+
+            if (hasMinor(adjacency, sets, node + 1, Math.max(lastSet, set), setsCount)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    // Every set is connected, and the sets are joined as in K5 for five of them, as in K3,3 for six
+    private static boolean isMinor(int[] adjacency, int[] sets, int setsCount) {
+        int[] members = new int[setsCount];
+
+        for (int node = 0; node < sets.length; node++) {
+            if (sets[node] != -1) {
+                members[sets[node]] |= 1 << node;
+            }
+        }
+
+        boolean[][] isJoined = new boolean[setsCount][setsCount];
+
+        for (int set = 0; set < setsCount; set++) {
+            if (!isConnected(adjacency, members[set])) {
+                return false;
+            }
+
+            for (int node = 0; node < sets.length; node++) {
+                if (sets[node] != -1 && (adjacency[node] & members[set]) != 0) {
+                    isJoined[set][sets[node]] = true;
+                }
+            }
+        }
+
+        if (setsCount == 5) {
+            for (int first = 0; first < setsCount; first++) {
+                for (int second = first + 1; second < setsCount; second++) {
+                    if (!isJoined[first][second]) {
+                        return false;
+                    }
+                }
+            }
+
+            return true;
+        }
+
+        // Set 0 is on one side with two of the other five
+        for (int side = 0; side < 1 << 5; side++) {
+            if (Integer.bitCount(side) == 2 && isBipartiteJoin(isJoined, 1 | (side << 1))) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static boolean isBipartiteJoin(boolean[][] isJoined, int side) {
+        for (int first = 0; first < 6; first++) {
+            for (int second = 0; second < 6; second++) {
+                if ((side >> first & 1) == 1 && (side >> second & 1) == 0 && !isJoined[first][second]) {
+                    return false;
+                }
+            }
+        }
+
+        return true;
+    }
+
+    private static boolean isConnected(int[] adjacency, int members) {
+        int reached = Integer.lowestOneBit(members);
+        int frontier = reached;
+
+        while (frontier != 0) {
+            int node = Integer.numberOfTrailingZeros(frontier);
+            int next = adjacency[node] & members & ~reached;
+
+            reached |= next;
+            frontier = (frontier & (frontier - 1)) | next;
+        }
+
+        return reached == members;
+    }
+
+    /*
+     *      Utility
+     */
+
+    // The arcs make paths between the branch nodes through nodes of degree 2, one path per pair
+    // of them in K5, one per pair of opposite sides in K3,3, and nothing but these paths
+    static void assertSubdivision(Graph graph, KuratowskiSubgraph kuratowskiSubgraph) {
+        Map<Node, Set<Node>> neighbors = new HashMap<>();
+
+        for (Arc arc : kuratowskiSubgraph.getArcs()) {
+            assertTrue(graph.getArcs().contains(arc));
+            assertTrue(arc.getBegin() != arc.getEnd());
+
+            neighbors.computeIfAbsent(arc.getBegin(), node -> new HashSet<>()).add(arc.getEnd());
+            neighbors.computeIfAbsent(arc.getEnd(), node -> new HashSet<>()).add(arc.getBegin());
+        }
+
+        List<Node> branchNodes = kuratowskiSubgraph.getBranchNodes();
+        int branchDegree = kuratowskiSubgraph.isK5() ? 4 : 3;
+
+        assertEquals(kuratowskiSubgraph.isK5() ? 5 : 6, new HashSet<>(branchNodes).size());
+        assertEquals(neighbors.keySet(), kuratowskiSubgraph.getNodes());
+
+        for (Node node : neighbors.keySet()) {
+            assertEquals(branchNodes.contains(node) ? branchDegree : 2, neighbors.get(node).size());
+        }
+
+        // Each path is walked from both of its ends, the same way both times
+        Map<List<Node>, Set<Node>> pathsInteriors = new HashMap<>();
+        Set<Node> walked = new HashSet<>(branchNodes);
+
+        for (Node branchNode : branchNodes) {
+            for (Node next : neighbors.get(branchNode)) {
+                Set<Node> interior = new HashSet<>();
+                Node previous = branchNode;
+                Node current = next;
+
+                while (!branchNodes.contains(current)) {
+                    interior.add(current);
+
+                    Node following = otherNeighbor(neighbors, current, previous);
+                    previous = current;
+                    current = following;
+                }
+
+                assertTrue(current != branchNode);
+
+                List<Node> pair = pairOf(branchNodes, branchNode, current);
+                Set<Node> pairInterior = pathsInteriors.get(pair);
+
+                if (pairInterior == null) {
+                    for (Node node : interior) {
+                        assertTrue(walked.add(node));
+                    }
+                    pathsInteriors.put(pair, interior);
+                } else {
+                    assertEquals(pairInterior, interior);
+                }
+            }
+        }
+
+        assertEquals(neighbors.keySet(), walked);
+
+        if (kuratowskiSubgraph.isK5()) {
+            assertEquals(10, pathsInteriors.size());
+        } else {
+            assertEquals(9, pathsInteriors.size());
+            assertBipartite(branchNodes, pathsInteriors.keySet());
+        }
+    }
+
+    private static Node otherNeighbor(Map<Node, Set<Node>> neighbors, Node node, Node previous) {
+        for (Node neighbor : neighbors.get(node)) {
+            if (neighbor != previous) {
+                return neighbor;
+            }
+        }
+
+        throw new AssertionError("Dead end at " + node);
+    }
+
+    private static List<Node> pairOf(List<Node> branchNodes, Node first, Node second) {
+        List<Node> pair = new ArrayList<>();
+
+        if (branchNodes.indexOf(first) < branchNodes.indexOf(second)) {
+            pair.add(first);
+            pair.add(second);
+        } else {
+            pair.add(second);
+            pair.add(first);
+        }
+
+        return pair;
+    }
+
+    // The nodes not joined to the first one are on its side, each of them joined to all of the other side
+    private static void assertBipartite(List<Node> branchNodes, Set<List<Node>> joinedPairs) {
+        Set<Node> side = new HashSet<>();
+
+        for (Node node : branchNodes) {
+            if (!joinedPairs.contains(pairOf(branchNodes, branchNodes.get(0), node))) {
+                side.add(node);
+            }
+        }
+
+        assertEquals(3, side.size());
+
+        for (List<Node> pair : joinedPairs) {
+            assertTrue(side.contains(pair.get(0)) != side.contains(pair.get(1)));
+        }
+    }
+
+    static Graph complete(int nodesCount) {
+        return RandomGraphs.undirected(new Random(), nodesCount, 1);
+    }
+
+    private static Graph petersen() {
+        Graph graph = new Graph();
+
+        for (int node = 0; node < 10; node++) {
+            graph.getNodes().add(new Node(String.valueOf(node)));
+        }
+
+        for (int node = 0; node < 5; node++) {
+            graph.getArcs().add(new Arc(graph.nodeAt(node), graph.nodeAt((node + 1) % 5), false));
+            graph.getArcs().add(new Arc(graph.nodeAt(node), graph.nodeAt(node + 5), false));
+            graph.getArcs().add(new Arc(graph.nodeAt(node + 5), graph.nodeAt((node + 2) % 5 + 5), false));
+        }
+
+        return graph;
+    }
+}
@@ -0,0 +1,174 @@
+package controller.verifier;
+
+import model.Arc;
+import model.Graph;
+import model.Node;
+import model.RandomGraphs;
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+
+public class TreeVerifierTest {
+    private static final int GRAPHS_COUNT = 500;
+
+
+    // A forest has no loops and V - C edges between distinct nodes, a tree is a forest of a single component
+    @Test
+    public void matchesComponentsCount() {
+        Random random = new Random(17);
+
+        for (int sample = 0; sample < GRAPHS_COUNT; sample++) {
+            Graph graph = randomForestLike(random);
+            List<Set<Integer>> neighbors = RandomGraphs.neighbors(graph);
+            int nodesCount = neighbors.size();
+            int edgesCount = 0;
+
+            for (Set<Integer> nodeNeighbors : neighbors) {
+                edgesCount += nodeNeighbors.size();
+            }
+
+            boolean isForest = !hasLoop(graph) && edgesCount / 2 == nodesCount - componentsCount(neighbors);
+            boolean isTree = isForest && nodesCount > 0 && componentsCount(neighbors) == 1;
+            TreeVerifier treeVerifier = new TreeVerifier(graph);
+
+            assertEquals(isForest, treeVerifier.verifyForest());
+            assertEquals(isTree, treeVerifier.verify());
+
+            Arc cycleArc = treeVerifier.cycleArc();
+
+            if (isForest) {
+                assertNull(cycleArc);
+            } else {
+                assertNotNull(cycleArc);
+                assertTrue(graph.getArcs().contains(cycleArc));
+                assertTrue(isOnCycle(graph, cycleArc));
+            }
+        }
+    }
+
+    // Nothing is recursive, so a long path doesn't run out of stack
+    @Test
+    public void longPathIsTree() {
+        Graph graph = new Graph();
+        int nodesCount = 200_000;
+
+        graph.batch(() -> {
+            for (int node = 0; node < nodesCount; node++) {
+                graph.getNodes().add(new Node());
+            }
+
+            for (int node = 1; node < nodesCount; node++) {
+                graph.getArcs().add(new Arc(graph.nodeAt(node), graph.nodeAt(node - 1)));
+            }
+        });
+
+        assertTrue(new TreeVerifier(graph).verify());
+    }
+
+    /*
+     *      Utility
+     */
+
+    // Random trees, every node hung onto an earlier one, with a few arcs taken away or added
+    private static Graph randomForestLike(Random random) {
+        Graph graph = new Graph();
+        int nodesCount = random.nextInt(15);
+
+        graph.batch(() -> {
+            for (int node = 0; node < nodesCount; node++) {
+                graph.getNodes().add(new Node(String.valueOf(node)));
+            }
+
+            for (int node = 1; node < nodesCount; node++) {
+                Node parent = graph.nodeAt(random.nextInt(node));
+
+                graph.getArcs().add(RandomGraphs.randomArc(random, parent, graph.nodeAt(node), 1));
+            }
+
+            for (int change = random.nextInt(3); change > 0 && nodesCount > 0; change--) {
+                if (random.nextBoolean() && !graph.getArcs().isEmpty()) {
+                    graph.getArcs().remove(random.nextInt(graph.getArcs().size()));
+                } else {
+                    Node first = graph.nodeAt(random.nextInt(nodesCount));
+                    Node second = graph.nodeAt(random.nextInt(nodesCount));
+
+                    graph.getArcs().add(RandomGraphs.randomArc(random, first, second, 1));
+                }
+            }
+        });
+
+        return graph;
+    }
+
+    private static boolean hasLoop(Graph graph) {
+        for (Arc arc : graph.getArcs()) {
+            if (arc.getBegin() == arc.getEnd()) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    // A loop, or an arc whose ends stay connected without it and the arcs parallel to it
+    private static boolean isOnCycle(Graph graph, Arc arc) {
+        if (arc.getBegin() == arc.getEnd()) {
+            return true;
+        }
+
+        List<Set<Integer>> neighbors = RandomGraphs.neighbors(graph);
+        int begin = graph.indexOf(arc.getBegin());
+        int end = graph.indexOf(arc.getEnd());
+
+        neighbors.get(begin).remove(end);
+        neighbors.get(end).remove(begin);
+
+        return componentOf(neighbors, begin).contains(end);
+    }
+
+    private static int componentsCount(List<Set<Integer>> neighbors) {
+        boolean[] isReached = new boolean[neighbors.size()];
+        int componentsCount = 0;
+
+        for (int node = 0; node < neighbors.size(); node++) {
+            if (!isReached[node]) {
+                componentsCount++;
+
+                for (int reached : componentOf(neighbors, node)) {
+                    isReached[reached] = true;
+                }
+            }
+        }
+
+        return componentsCount;
+    }
+
+    private static Set<Integer> componentOf(List<Set<Integer>> neighbors, int node) {
+        Set<Integer> component = new HashSet<>();
+        Deque<Integer> queue = new ArrayDeque<>();
+
+        component.add(node);
+        queue.add(node);
+
+        while (!queue.isEmpty()) {
+            for (int neighbor : neighbors.get(queue.poll())) {
+                if (component.add(neighbor)) {
+                    queue.add(neighbor);
+                }
+            }
+        }
+
+        return component;
+    }
+}
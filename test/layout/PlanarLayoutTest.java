@@ -0,0 +1,176 @@
+package layout;
+
+import controller.verifier.PlanarEmbedding;
+import controller.verifier.PlanarityVerifier;
+import javafx.geometry.Point2D;
+import model.Graph;
+import model.Node;
+import model.RandomGraphs;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+
+public class PlanarLayoutTest {
+    private static final int GRAPHS_COUNT = 200;
+    private static final int MAX_NODES_COUNT = 60;
+
+
+    // No two nodes share a point, no node lies on an edge of others, and edges meet at their common nodes only
+    @Test
+    public void drawingIsCrossingFree() {
+        Random random = new Random(16);
+
+        for (int sample = 0; sample < GRAPHS_COUNT; sample++) {
+            Graph graph = randomPlanarGraph(random, sample);
+            PlanarEmbedding embedding = new PlanarityVerifier(graph).embedding();
+            PlanarLayout planarLayout = new PlanarLayout(embedding);
+            int nodesCount = embedding.nodesCount();
+
+            // The (2V - 4) x (V - 2) grid, up to three nodes take a triangle of their own
+            int maxX = Math.max(2, 2 * nodesCount - 4);
+            int maxY = Math.max(1, nodesCount - 2);
+
+            for (int node = 0; node < nodesCount; node++) {
+                assertTrue(planarLayout.x(node) >= 0 && planarLayout.x(node) <= maxX);
+                assertTrue(planarLayout.y(node) >= 0 && planarLayout.y(node) <= maxY);
+
+                for (int other = node + 1; other < nodesCount; other++) {
+                    assertFalse(planarLayout.x(node) == planarLayout.x(other)
+                            && planarLayout.y(node) == planarLayout.y(other));
+                }
+            }
+
+            List<int[]> edges = edgesOf(RandomGraphs.neighbors(graph));
+
+            for (int[] edge : edges) {
+                for (int node = 0; node < nodesCount; node++) {
+                    if (node != edge[0] && node != edge[1]) {
+                        assertFalse(isOnSegment(planarLayout, node, edge[0], edge[1]));
+                    }
+                }
+            }
+
+            for (int first = 0; first < edges.size(); first++) {
+                for (int second = first + 1; second < edges.size(); second++) {
+                    assertFalse(areCrossing(planarLayout, edges.get(first), edges.get(second)));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void positionsFillTheRectangle() {
+        Graph graph = RandomGraphs.stackedTriangulation(new Random(17), 20);
+        PlanarLayout planarLayout = new PlanarLayout(new PlanarityVerifier(graph).embedding());
+        Map<Node, Point2D> positions = planarLayout.positions(400, 300);
+
+        assertEquals(graph.getNodes().size(), positions.size());
+
+        for (Node node : graph.getNodes()) {
+            Point2D position = positions.get(node);
+            int index = graph.indexOf(node);
+
+            assertTrue(position.getX() >= 0 && position.getX() <= 400);
+            assertTrue(position.getY() >= 0 && position.getY() <= 300);
+            assertEquals(400.0 * planarLayout.x(index) / planarLayout.getWidth(), position.getX(), 1e-9);
+            assertEquals(300 - 300.0 * planarLayout.y(index) / planarLayout.getHeight(), position.getY(), 1e-9);
+        }
+
+        assertNotEquals(0, planarLayout.getWidth());
+        assertNotEquals(0, planarLayout.getHeight());
+    }
+
+    /*
+     *      Utility
+     */
+
+    // Triangulations with some of their arcs taken away, so there are sparse and disconnected graphs too
+    private static Graph randomPlanarGraph(Random random, int sample) {
+        Graph graph = RandomGraphs.stackedTriangulation(random, random.nextInt(MAX_NODES_COUNT));
+        double removalProbability = sample % 2 == 0 ? 0 : random.nextDouble() * 0.8;
+
+        graph.getArcs().removeIf(arc -> random.nextDouble() < removalProbability);
+
+        return graph;
+    }
+
+    private static List<int[]> edgesOf(List<Set<Integer>> neighbors) {
+        List<int[]> edges = new ArrayList<>();
+
+        for (int node = 0; node < neighbors.size(); node++) {
+            for (int neighbor : neighbors.get(node)) {
+                if (neighbor > node) {
+                    edges.add(new int[]{node, neighbor});
+                }
+            }
+        }
+
+        return edges;
+    }
+
+    // Edges with a common node cross if they overlap, the others if they have any point in common
+    private static boolean areCrossing(PlanarLayout planarLayout, int[] first, int[] second) {
+        for (int firstEnd : first) {
+            for (int secondEnd : second) {
+                if (firstEnd == secondEnd) {
+                    int firstOther = first[0] + first[1] - firstEnd;
+                    int secondOther = second[0] + second[1] - secondEnd;
+
+                    return orientation(planarLayout, firstEnd, firstOther, secondOther) == 0
+                            && dot(planarLayout, firstEnd, firstOther, secondOther) > 0;
+                }
+            }
+        }
+
+        long o1 = orientation(planarLayout, first[0], first[1], second[0]);
+        long o2 = orientation(planarLayout, first[0], first[1], second[1]);
+        long o3 = orientation(planarLayout, second[0], second[1], first[0]);
+        long o4 = orientation(planarLayout, second[0], second[1], first[1]);
+
+        if (Long.signum(o1) * Long.signum(o2) < 0 && Long.signum(o3) * Long.signum(o4) < 0) {
+            return true;
+        }
+
+        return isOnSegment(planarLayout, second[0], first[0], first[1])
+                || isOnSegment(planarLayout, second[1], first[0], first[1])
+                || isOnSegment(planarLayout, first[0], second[0], second[1])
+                || isOnSegment(planarLayout, first[1], second[0], second[1]);
+    }
+
+    private static boolean isOnSegment(PlanarLayout planarLayout, int node, int begin, int end) {
+        return orientation(planarLayout, begin, end, node) == 0
+                && Math.min(planarLayout.x(begin), planarLayout.x(end)) <= planarLayout.x(node)
+                && planarLayout.x(node) <= Math.max(planarLayout.x(begin), planarLayout.x(end))
+                && Math.min(planarLayout.y(begin), planarLayout.y(end)) <= planarLayout.y(node)
+                && planarLayout.y(node) <= Math.max(planarLayout.y(begin), planarLayout.y(end));
+    }
+
+    // Positive for a counterclockwise turn from (origin, first) to (origin, second), zero if they are collinear
+    private static long orientation(PlanarLayout planarLayout, int origin, int first, int second) {
+        long firstX = planarLayout.x(first) - planarLayout.x(origin);
+        long firstY = planarLayout.y(first) - planarLayout.y(origin);
+        long secondX = planarLayout.x(second) - planarLayout.x(origin);
+        long secondY = planarLayout.y(second) - planarLayout.y(origin);
+
+        return firstX * secondY - firstY * secondX;
+    }
+
+    private static long dot(PlanarLayout planarLayout, int origin, int first, int second) {
+        long firstX = planarLayout.x(first) - planarLayout.x(origin);
+        long firstY = planarLayout.y(first) - planarLayout.y(origin);
+        long secondX = planarLayout.x(second) - planarLayout.x(origin);
+        long secondY = planarLayout.y(second) - planarLayout.y(origin);
+
+        return firstX * secondX + firstY * secondY;
+    }
+}
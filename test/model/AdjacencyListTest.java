@@ -0,0 +1,99 @@
+package model;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+
+public class AdjacencyListTest {
+    private static final int GRAPHS_COUNT = 50;
+    private static final int EDITS_COUNT = 60;
+
+
+    @Test
+    public void followsRandomEdits() {
+        Random random = new Random(2);
+
+        for (int sample = 0; sample < GRAPHS_COUNT; sample++) {
+            Graph graph = RandomGraphs.mixed(random, random.nextInt(10), random.nextDouble(), 1);
+            AdjacencyList adjacencyList = new AdjacencyList(graph);
+
+            assertFollows(graph, adjacencyList);
+
+            for (int edit = 0; edit < EDITS_COUNT; edit++) {
+                RandomGraphs.edit(random, graph, 1, 1);
+                assertFollows(graph, adjacencyList);
+            }
+        }
+    }
+
+    @Test
+    public void takesArcsAddedBeforeTheirNodes() {
+        Random random = new Random(3);
+
+        for (int sample = 0; sample < GRAPHS_COUNT; sample++) {
+            Graph graph = new Graph();
+            AdjacencyList adjacencyList = new AdjacencyList(graph);
+            List<Node> nodes = new ArrayList<>();
+
+            for (int node = 0; node < 8; node++) {
+                nodes.add(new Node(String.valueOf(node)));
+            }
+
+            for (int arc = 0; arc < 20; arc++) {
+                Node first = nodes.get(random.nextInt(nodes.size()));
+                Node second = nodes.get(random.nextInt(nodes.size()));
+
+                graph.getArcs().add(RandomGraphs.randomArc(random, first, second, 1));
+            }
+
+            for (int arc = 0; arc < 5; arc++) {
+                graph.getArcs().remove(random.nextInt(graph.getArcs().size()));
+            }
+
+            graph.getNodes().addAll(nodes.subList(0, 3));
+            assertFollows(graph, adjacencyList);
+
+            graph.batch(() -> graph.getNodes().addAll(nodes.subList(3, nodes.size())));
+            assertFollows(graph, adjacencyList);
+        }
+    }
+
+    /*
+     *      Utility
+     */
+
+    // Every node's row holds the ends of its arcs and the other ends of its two-way arcs, in any order
+    private static void assertFollows(Graph graph, AdjacencyList adjacencyList) {
+        Map<Node, List<Node>> lists = adjacencyList.getAdjacencyLists();
+
+        assertEquals(graph.getNodes().size(), lists.size());
+
+        for (Node node : graph.getNodes()) {
+            Map<Node, Integer> expected = new HashMap<>();
+
+            for (Arc arc : graph.getArcs()) {
+                if (arc.getBegin() == node) {
+                    expected.merge(arc.getEnd(), 1, Integer::sum);
+                }
+                if (arc.isTwoWay() && arc.getEnd() == node) {
+                    expected.merge(arc.getBegin(), 1, Integer::sum);
+                }
+            }
+
+            Map<Node, Integer> actual = new HashMap<>();
+
+            for (Node adjacent : lists.get(node)) {
+                actual.merge(adjacent, 1, Integer::sum);
+            }
+
+            assertEquals("Adjacent nodes of " + node, expected, actual);
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package model;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+
+
+public class AdjacencyMatrixTest {
+    private static final int GRAPHS_COUNT = 30;
+    private static final int EDITS_COUNT = 60;
+
+
+    @Test
+    public void followsRandomEdits() {
+        Random random = new Random(3);
+
+        for (int sample = 0; sample < GRAPHS_COUNT; sample++) {
+            Graph graph = RandomGraphs.mixed(random, random.nextInt(10), random.nextDouble(), 1);
+            AdjacencyMatrix adjacencyMatrix = new AdjacencyMatrix(graph);
+
+            assertFollows(graph, adjacencyMatrix);
+
+            for (int edit = 0; edit < EDITS_COUNT; edit++) {
+                RandomGraphs.edit(random, graph, 1, 1);
+                assertFollows(graph, adjacencyMatrix);
+            }
+        }
+    }
+
+    // Rows are longer than a word once there are more nodes than bits in it, freed slots are taken again
+    @Test
+    public void growsPastOneWord() {
+        Random random = new Random(4);
+        Graph graph = RandomGraphs.mixed(random, 60, 0.05, 1);
+        AdjacencyMatrix adjacencyMatrix = new AdjacencyMatrix(graph);
+
+        for (int round = 0; round < 4; round++) {
+            graph.batch(() -> {
+                for (int node = 0; node < 40; node++) {
+                    Node added = new Node();
+
+                    graph.getNodes().add(added);
+                    graph.getArcs().add(RandomGraphs.randomArc(random, added, randomNode(random, graph), 1));
+                }
+            });
+            assertFollows(graph, adjacencyMatrix);
+
+            RandomGraphs.edit(random, graph, 100, 1);
+            assertFollows(graph, adjacencyMatrix);
+        }
+    }
+
+    @Test
+    public void takesArcsAddedBeforeTheirNodes() {
+        Random random = new Random(5);
+
+        for (int sample = 0; sample < GRAPHS_COUNT; sample++) {
+            Graph graph = new Graph();
+            AdjacencyMatrix adjacencyMatrix = new AdjacencyMatrix(graph);
+            List<Node> nodes = new ArrayList<>();
+
+            for (int node = 0; node < 8; node++) {
+                nodes.add(new Node(String.valueOf(node)));
+            }
+
+            for (int arc = 0; arc < 20; arc++) {
+                Node first = nodes.get(random.nextInt(nodes.size()));
+                Node second = nodes.get(random.nextInt(nodes.size()));
+
+                graph.getArcs().add(RandomGraphs.randomArc(random, first, second, 1));
+            }
+
+            for (int arc = 0; arc < 5; arc++) {
+                graph.getArcs().remove(random.nextInt(graph.getArcs().size()));
+            }
+
+            graph.getNodes().addAll(nodes.subList(0, 3));
+            assertFollows(graph, adjacencyMatrix);
+
+            graph.batch(() -> graph.getNodes().addAll(nodes.subList(3, nodes.size())));
+            assertFollows(graph, adjacencyMatrix);
+        }
+    }
+
+    @Test
+    public void combinesRows() {
+        Random random = new Random(6);
+
+        for (int sample = 0; sample < GRAPHS_COUNT; sample++) {
+            Graph graph = RandomGraphs.mixed(random, 1 + random.nextInt(100), random.nextDouble() / 4, 1);
+            AdjacencyMatrix adjacencyMatrix = new AdjacencyMatrix(graph);
+            Node first = randomNode(random, graph);
+            Node second = randomNode(random, graph);
+
+            Set<Node> union = new HashSet<>(adjacentNodesOf(graph, first));
+            Set<Node> intersection = new HashSet<>(adjacentNodesOf(graph, first));
+
+            union.addAll(adjacentNodesOf(graph, second));
+            intersection.retainAll(adjacentNodesOf(graph, second));
+
+            long[] unionBits = adjacencyMatrix.rowBitsOf(first);
+            long[] intersectionBits = adjacencyMatrix.rowBitsOf(first);
+
+            adjacencyMatrix.orRow(unionBits, second);
+            adjacencyMatrix.andRow(intersectionBits, second);
+
+            assertEquals(union, new HashSet<>(adjacencyMatrix.nodesOf(unionBits)));
+            assertEquals(intersection, new HashSet<>(adjacencyMatrix.nodesOf(intersectionBits)));
+            assertEquals(union.size(), AdjacencyMatrix.popCount(unionBits));
+        }
+    }
+
+    /*
+     *      Utility
+     */
+
+    private static void assertFollows(Graph graph, AdjacencyMatrix adjacencyMatrix) {
+        for (Node begin : graph.getNodes()) {
+            Set<Node> expected = adjacentNodesOf(graph, begin);
+
+            for (Node end : graph.getNodes()) {
+                assertEquals(begin + " -> " + end, expected.contains(end), adjacencyMatrix.isAdjacent(begin, end));
+                assertEquals(expected.contains(end), adjacencyMatrix.getAdjacencyMatrix().get(begin).get(end));
+            }
+
+            assertEquals(expected, new HashSet<>(adjacencyMatrix.adjacentNodesOf(begin)));
+            assertEquals(expected.size(), adjacencyMatrix.adjacentCountOf(begin));
+        }
+    }
+
+    // The nodes of the graph some arc leads to from the one given
+    private static Set<Node> adjacentNodesOf(Graph graph, Node node) {
+        Set<Node> adjacents = new HashSet<>();
+
+        for (Arc arc : graph.getArcs()) {
+            if (arc.getBegin() == node && graph.getNodes().contains(arc.getEnd())) {
+                adjacents.add(arc.getEnd());
+            }
+            if (!arc.isDirected() && arc.getEnd() == node && graph.getNodes().contains(arc.getBegin())) {
+                adjacents.add(arc.getBegin());
+            }
+        }
+
+        return adjacents;
+    }
+
+    private static Node randomNode(Random random, Graph graph) {
+        return graph.getNodes().get(random.nextInt(graph.getNodes().size()));
+    }
+}
@@ -0,0 +1,131 @@
+package model;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+
+public class DistanceMatrixTest {
+    private static final int GRAPHS_COUNT = 60;
+    private static final int MAX_WEIGHT = 5;
+    private static final int EDITS_COUNT = 40;
+
+
+    @Test
+    public void matchesFloydWarshall() {
+        Random random = new Random(4);
+
+        for (int sample = 0; sample < GRAPHS_COUNT; sample++) {
+            Graph graph = RandomGraphs.mixed(random, random.nextInt(40), random.nextDouble() / 4, maxWeightOf(sample));
+            DistanceMatrix distanceMatrix = new DistanceMatrix(graph.getCompactGraph());
+
+            assertMatches(graph, distanceMatrix);
+        }
+    }
+
+    @Test
+    public void handsEveryRowToTheConsumer() {
+        Random random = new Random(5);
+
+        for (int sample = 0; sample < GRAPHS_COUNT; sample++) {
+            Graph graph = RandomGraphs.mixed(random, random.nextInt(100), random.nextDouble() / 10, maxWeightOf(sample));
+            long[][] expected = FloydWarshall.distances(graph);
+            int[] rowsCounts = new int[expected.length];
+
+            DistanceMatrix.forEachRow(graph.getCompactGraph(), (row, begin) -> {
+                synchronized (rowsCounts) {
+                    rowsCounts[begin]++;
+                }
+
+                for (int end = 0; end < row.length; end++) {
+                    assertEquals(FloydWarshall.asDistance(expected[begin][end]), row[end]);
+                }
+            });
+
+            for (int rowsCount : rowsCounts) {
+                assertEquals(1, rowsCount);
+            }
+        }
+    }
+
+    // Single insertions and deletions are applied to the table in place, the rest recalculate it
+    @Test
+    public void followsRandomEdits() {
+        Random random = new Random(6);
+
+        for (int sample = 0; sample < GRAPHS_COUNT; sample++) {
+            Graph graph = RandomGraphs.mixed(random, random.nextInt(20), random.nextDouble() / 4, maxWeightOf(sample));
+            DistanceMatrix distanceMatrix = new DistanceMatrix(graph);
+
+            assertMatches(graph, distanceMatrix);
+
+            for (int edit = 0; edit < EDITS_COUNT; edit++) {
+                RandomGraphs.edit(random, graph, 1, maxWeightOf(sample));
+                assertMatches(graph, distanceMatrix);
+            }
+        }
+    }
+
+    @Test
+    public void followsInsertedArcs() {
+        Random random = new Random(7);
+
+        for (int sample = 0; sample < GRAPHS_COUNT; sample++) {
+            Graph graph = RandomGraphs.mixed(random, 1 + random.nextInt(20), 0.05, maxWeightOf(sample));
+            DistanceMatrix distanceMatrix = new DistanceMatrix(graph);
+
+            assertMatches(graph, distanceMatrix);
+
+            for (int edit = 0; edit < EDITS_COUNT; edit++) {
+                Node first = graph.getNodes().get(random.nextInt(graph.getNodes().size()));
+                Node second = graph.getNodes().get(random.nextInt(graph.getNodes().size()));
+
+                graph.getArcs().add(RandomGraphs.randomArc(random, first, second, maxWeightOf(sample)));
+                assertMatches(graph, distanceMatrix);
+            }
+        }
+    }
+
+    @Test
+    public void followsRemovedArcs() {
+        Random random = new Random(8);
+
+        for (int sample = 0; sample < GRAPHS_COUNT; sample++) {
+            Graph graph = RandomGraphs.mixed(random, random.nextInt(20), random.nextDouble() / 2, maxWeightOf(sample));
+            DistanceMatrix distanceMatrix = new DistanceMatrix(graph);
+
+            assertMatches(graph, distanceMatrix);
+
+            while (!graph.getArcs().isEmpty()) {
+                graph.getArcs().remove(random.nextInt(graph.getArcs().size()));
+                assertMatches(graph, distanceMatrix);
+            }
+        }
+    }
+
+    /*
+     *      Utility
+     */
+
+    // Every other graph is unweighted, so both the breadth-first and Dijkstra searches are taken
+    static int maxWeightOf(int sample) {
+        return sample % 2 == 0 ? 1 : MAX_WEIGHT;
+    }
+
+    static void assertMatches(Graph graph, DistanceMatrix distanceMatrix) {
+        long[][] expected = FloydWarshall.distances(graph);
+
+        assertEquals(expected.length, distanceMatrix.nodesCount());
+
+        for (Node begin : graph.getNodes()) {
+            for (Node end : graph.getNodes()) {
+                int distance = FloydWarshall.asDistance(expected[graph.indexOf(begin)][graph.indexOf(end)]);
+
+                assertEquals(begin + " -> " + end, distance, distanceMatrix.distance(begin, end));
+                assertEquals(distance, (int) distanceMatrix.getDistancesMap().get(begin).get(end));
+            }
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package model;
+
+
+// Reference all-pairs distances for the tests, by the graph's node indices
+public final class FloydWarshall {
+    private FloydWarshall() {
+    }
+
+    public static long[][] distances(Graph graph) {
+        int[][] weights = RandomGraphs.weights(graph);
+        int nodesCount = weights.length;
+        long[][] distances = new long[nodesCount][nodesCount];
+
+        for (int begin = 0; begin < nodesCount; begin++) {
+            for (int end = 0; end < nodesCount; end++) {
+                if (begin == end) {
+                    distances[begin][end] = 0;
+                } else {
+                    distances[begin][end] = weights[begin][end] == 0 ? Long.MAX_VALUE : weights[begin][end];
+                }
+            }
+        }
+
+        for (int middle = 0; middle < nodesCount; middle++) {
+            for (int begin = 0; begin < nodesCount; begin++) {
+                for (int end = 0; end < nodesCount; end++) {
+                    long toMiddle = distances[begin][middle];
+                    long fromMiddle = distances[middle][end];
+
+                    if (toMiddle != Long.MAX_VALUE && fromMiddle != Long.MAX_VALUE) {
+                        distances[begin][end] = Math.min(distances[begin][end], toMiddle + fromMiddle);
+                    }
+                }
+            }
+        }
+
+        return distances;
+    }
+
+    // The distance the way the engines give it, DistanceMatrix.INFINITY for no path
+    public static int asDistance(long distance) {
+        return distance == Long.MAX_VALUE ? DistanceMatrix.INFINITY : (int) distance;
+    }
+}
@@ -0,0 +1,172 @@
+package model;
+
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+
+public class GraphElementListTest {
+    private static final int ROUNDS_COUNT = 1000;
+    private static final int NODES_COUNT = 6;
+
+
+    // A listener replaying the change on a copy of the list gets the list's contents, element for element
+    @Test
+    public void batchMakesOneWellFormedChange() {
+        Random random = new Random(8);
+
+        for (int round = 0; round < ROUNDS_COUNT; round++) {
+            Graph graph = RandomGraphs.mixed(random, NODES_COUNT, 0.3, 3);
+            ChangeReplay replay = new ChangeReplay(graph.getArcs());
+
+            graph.batch(() -> {
+                modifyRandomly(random, graph);
+
+                if (random.nextBoolean()) {
+                    graph.batch(() -> modifyRandomly(random, graph));
+                }
+
+                modifyRandomly(random, graph);
+            });
+
+            replay.assertReplayed();
+            assertTrue(replay.changesCount <= 1);
+        }
+    }
+
+    @Test
+    public void singleModificationsMakeWellFormedChanges() {
+        Random random = new Random(9);
+
+        for (int round = 0; round < ROUNDS_COUNT; round++) {
+            Graph graph = RandomGraphs.mixed(random, NODES_COUNT, 0.3, 3);
+            ChangeReplay replay = new ChangeReplay(graph.getArcs());
+
+            modifyRandomly(random, graph);
+            replay.assertReplayed();
+        }
+    }
+
+    // The arc stays at its place, yet listeners must hear of its new weight
+    @Test
+    public void batchReportsArcsSetInPlace() {
+        Graph graph = RandomGraphs.mixed(new Random(10), NODES_COUNT, 0.5, 3);
+        Arc arc = graph.getArcs().get(0);
+        List<Arc> removed = new ArrayList<>();
+        List<Arc> added = new ArrayList<>();
+
+        graph.getArcs().addListener((ListChangeListener<Arc>) change -> {
+            while (change.next()) {
+                removed.addAll(change.getRemoved());
+                added.addAll(change.getAddedSubList());
+            }
+        });
+
+        graph.batch(() -> graph.setArcWeight(arc, arc.getWeight() + 1));
+
+        assertEquals(1, removed.size());
+        assertSame(arc, removed.get(0));
+        assertEquals(1, added.size());
+        assertSame(arc, added.get(0));
+    }
+
+    /*
+     *      Utility
+     */
+
+    private static void modifyRandomly(Random random, Graph graph) {
+        ObservableList<Arc> arcs = graph.getArcs();
+        int operationsCount = 1 + random.nextInt(4);
+
+        for (int operation = 0; operation < operationsCount; operation++) {
+            switch (random.nextInt(8)) {
+                case 0:
+                    arcs.add(randomArc(random, graph));
+                    break;
+                case 1:
+                    arcs.add(random.nextInt(arcs.size() + 1), randomArc(random, graph));
+                    break;
+                case 2:
+                    if (!arcs.isEmpty()) {
+                        arcs.remove(random.nextInt(arcs.size()));
+                    }
+                    break;
+                case 3:
+                    arcs.removeIf(arc -> random.nextInt(3) == 0);
+                    break;
+                case 4:
+                    if (!arcs.isEmpty()) {
+                        arcs.set(random.nextInt(arcs.size()), randomArc(random, graph));
+                    }
+                    break;
+                case 5:
+                    if (!arcs.isEmpty()) {
+                        graph.setArcWeight(arcs.get(random.nextInt(arcs.size())), 1 + random.nextInt(3));
+                    }
+                    break;
+                case 6:
+                    List<Arc> shuffled = new ArrayList<>(arcs);
+                    Collections.shuffle(shuffled, random);
+                    arcs.setAll(shuffled.subList(0, random.nextInt(shuffled.size() + 1)));
+                    break;
+                default:
+                    if (arcs.size() > 2) {
+                        arcs.subList(1, 1 + random.nextInt(arcs.size() - 1)).clear();
+                    }
+            }
+        }
+    }
+
+    private static Arc randomArc(Random random, Graph graph) {
+        Node first = graph.getNodes().get(random.nextInt(NODES_COUNT));
+        Node second = graph.getNodes().get(random.nextInt(NODES_COUNT));
+
+        return RandomGraphs.randomArc(random, first, second, 3);
+    }
+
+    // Applies every change heard to a copy of the list the way the change describes it
+    private static class ChangeReplay {
+        private ObservableList<Arc> list;
+        private List<Arc> copy;
+        private int changesCount;
+
+
+        ChangeReplay(ObservableList<Arc> list) {
+            this.list = list;
+
+            copy = new ArrayList<>(list);
+            list.addListener((ListChangeListener<Arc>) this::replay);
+        }
+
+        void assertReplayed() {
+            assertEquals(list.size(), copy.size());
+
+            for (int index = 0; index < list.size(); index++) {
+                assertSame(list.get(index), copy.get(index));
+            }
+        }
+
+        private void replay(ListChangeListener.Change<? extends Arc> change) {
+            changesCount++;
+
+            while (change.next()) {
+                assertTrue(!change.wasPermutated() && !change.wasUpdated());
+
+                for (Arc removed : change.getRemoved()) {
+                    assertSame(removed, copy.remove(change.getFrom()));
+                }
+
+                copy.addAll(change.getFrom(), change.getAddedSubList());
+            }
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package model;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+
+public class IncidenceListTest {
+    private static final int GRAPHS_COUNT = 50;
+    private static final int EDITS_COUNT = 60;
+
+
+    @Test
+    public void followsRandomEdits() {
+        Random random = new Random(2);
+
+        for (int sample = 0; sample < GRAPHS_COUNT; sample++) {
+            Graph graph = RandomGraphs.mixed(random, random.nextInt(10), random.nextDouble(), 1);
+            IncidenceList incidenceList = new IncidenceList(graph);
+
+            assertFollows(graph, incidenceList);
+
+            for (int edit = 0; edit < EDITS_COUNT; edit++) {
+                RandomGraphs.edit(random, graph, 1, 1);
+                assertFollows(graph, incidenceList);
+            }
+        }
+    }
+
+    @Test
+    public void takesArcsAddedBeforeTheirNodes() {
+        Random random = new Random(3);
+
+        for (int sample = 0; sample < GRAPHS_COUNT; sample++) {
+            Graph graph = new Graph();
+            IncidenceList incidenceList = new IncidenceList(graph);
+            List<Node> nodes = new ArrayList<>();
+
+            for (int node = 0; node < 8; node++) {
+                nodes.add(new Node(String.valueOf(node)));
+            }
+
+            for (int arc = 0; arc < 20; arc++) {
+                Node first = nodes.get(random.nextInt(nodes.size()));
+                Node second = nodes.get(random.nextInt(nodes.size()));
+
+                graph.getArcs().add(RandomGraphs.randomArc(random, first, second, 1));
+            }
+
+            for (int arc = 0; arc < 5; arc++) {
+                graph.getArcs().remove(random.nextInt(graph.getArcs().size()));
+            }
+
+            graph.getNodes().addAll(nodes.subList(0, 3));
+            assertFollows(graph, incidenceList);
+
+            graph.batch(() -> graph.getNodes().addAll(nodes.subList(3, nodes.size())));
+            assertFollows(graph, incidenceList);
+        }
+    }
+
+    /*
+     *      Utility
+     */
+
+    // Every node's row holds the very arcs leading from it, two-way arcs lead from both of their nodes
+    private static void assertFollows(Graph graph, IncidenceList incidenceList) {
+        Map<Node, List<Arc>> lists = incidenceList.getIncidenceLists();
+
+        assertEquals(graph.getNodes().size(), lists.size());
+
+        for (Node node : graph.getNodes()) {
+            Map<Arc, Integer> expected = new IdentityHashMap<>();
+
+            for (Arc arc : graph.getArcs()) {
+                if (arc.getBegin() == node || (arc.isTwoWay() && arc.getEnd() == node)) {
+                    expected.merge(arc, 1, Integer::sum);
+                }
+            }
+
+            Map<Arc, Integer> actual = new IdentityHashMap<>();
+
+            for (Arc incident : lists.get(node)) {
+                actual.merge(incident, 1, Integer::sum);
+            }
+
+            assertEquals("Incident arcs of " + node, expected, actual);
+        }
+    }
+}
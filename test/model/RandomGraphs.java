@@ -0,0 +1,245 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+
+// Small random graphs and random edits of them for the tests, the nodes made at once are named 0, 1, ...
+public final class RandomGraphs {
+    private RandomGraphs() {
+    }
+
+    // Every pair of distinct nodes is joined by an undirected arc with the probability given
+    public static Graph undirected(Random random, int nodesCount, double arcProbability) {
+        Graph graph = new Graph();
+
+        graph.batch(() -> {
+            addNodes(graph, nodesCount);
+
+            for (int begin = 0; begin < nodesCount; begin++) {
+                for (int end = begin + 1; end < nodesCount; end++) {
+                    if (random.nextDouble() < arcProbability) {
+                        graph.getArcs().add(new Arc(graph.nodeAt(begin), graph.nodeAt(end), false));
+                    }
+                }
+            }
+        });
+
+        return graph;
+    }
+
+    // Every pair of distinct nodes is joined with the probability given by an arc of a random kind: one way,
+    // the other way or two-way, sometimes by a parallel arc too. Loops come at a quarter of the probability
+    public static Graph mixed(Random random, int nodesCount, double arcProbability, int maxWeight) {
+        Graph graph = new Graph();
+
+        graph.batch(() -> {
+            addNodes(graph, nodesCount);
+
+            for (int begin = 0; begin < nodesCount; begin++) {
+                if (random.nextDouble() < arcProbability / 4) {
+                    graph.getArcs().add(randomArc(random, graph.nodeAt(begin), graph.nodeAt(begin), maxWeight));
+                }
+
+                for (int end = begin + 1; end < nodesCount; end++) {
+                    if (random.nextDouble() < arcProbability) {
+                        graph.getArcs().add(randomArc(random, graph.nodeAt(begin), graph.nodeAt(end), maxWeight));
+                    }
+
+                    if (random.nextDouble() < arcProbability / 4) {
+                        graph.getArcs().add(randomArc(random, graph.nodeAt(begin), graph.nodeAt(end), maxWeight));
+                    }
+                }
+            }
+        });
+
+        return graph;
+    }
+
+    // Maximal planar graph of 3V - 6 undirected arcs: every node after the first three is put into a random
+    // triangular face and joined to its corners
+    public static Graph stackedTriangulation(Random random, int nodesCount) {
+        Graph graph = new Graph();
+
+        graph.batch(() -> {
+            addNodes(graph, nodesCount);
+
+            List<int[]> faces = new ArrayList<>();
+
+            for (int node = 1; node < Math.min(3, nodesCount); node++) {
+                for (int other = 0; other < node; other++) {
+                    graph.getArcs().add(new Arc(graph.nodeAt(other), graph.nodeAt(node), false));
+                }
+            }
+
+            if (nodesCount >= 3) {
+                faces.add(new int[]{0, 1, 2});
+                faces.add(new int[]{0, 1, 2});
+            }
+
+            for (int node = 3; node < nodesCount; node++) {
+                int[] face = faces.remove(random.nextInt(faces.size()));
+
+                for (int corner : face) {
+                    graph.getArcs().add(new Arc(graph.nodeAt(corner), graph.nodeAt(node), false));
+                }
+
+                faces.add(new int[]{face[0], face[1], node});
+                faces.add(new int[]{face[1], face[2], node});
+                faces.add(new int[]{face[0], face[2], node});
+            }
+        });
+
+        return graph;
+    }
+
+    // An arc of a random kind and weight between the nodes given
+    public static Arc randomArc(Random random, Node first, Node second, int maxWeight) {
+        int weight = 1 + random.nextInt(maxWeight);
+
+        switch (random.nextInt(3)) {
+            case 0:
+                return new Arc(first, second, true, weight);
+            case 1:
+                return new Arc(second, first, true, weight);
+            default:
+                return new Arc(first, second, false, weight);
+        }
+    }
+
+    // Random additions and removals of nodes and arcs and reweightings, some of them grouped into batches.
+    // A node is removed with its arcs the way GraphController removes it
+    public static void edit(Random random, Graph graph, int editsCount, int maxWeight) {
+        for (int edit = 0; edit < editsCount; edit++) {
+            if (random.nextInt(5) == 0) {
+                int batchSize = 1 + random.nextInt(6);
+
+                graph.batch(() -> {
+                    for (int batchEdit = 0; batchEdit < batchSize; batchEdit++) {
+                        editOnce(random, graph, maxWeight);
+                    }
+                });
+            } else {
+                editOnce(random, graph, maxWeight);
+            }
+        }
+    }
+
+    // successors[begin][end] tells if an arc leads from begin to end, by the graph's node indices
+    public static boolean[][] successors(Graph graph) {
+        int nodesCount = graph.getNodes().size();
+        boolean[][] successors = new boolean[nodesCount][nodesCount];
+
+        for (Arc arc : graph.getArcs()) {
+            int begin = graph.indexOf(arc.getBegin());
+            int end = graph.indexOf(arc.getEnd());
+
+            successors[begin][end] = true;
+
+            if (!arc.isDirected()) {
+                successors[end][begin] = true;
+            }
+        }
+
+        return successors;
+    }
+
+    // weights[begin][end] is the least weight of the arcs leading from begin to end, 0 if there are none
+    public static int[][] weights(Graph graph) {
+        int nodesCount = graph.getNodes().size();
+        int[][] weights = new int[nodesCount][nodesCount];
+
+        for (Arc arc : graph.getArcs()) {
+            int begin = graph.indexOf(arc.getBegin());
+            int end = graph.indexOf(arc.getEnd());
+
+            setLeast(weights, begin, end, arc.getWeight());
+
+            if (!arc.isDirected()) {
+                setLeast(weights, end, begin, arc.getWeight());
+            }
+        }
+
+        return weights;
+    }
+
+    // The undirected simple graph of the arcs, as sets of neighbors by the graph's node indices
+    public static List<Set<Integer>> neighbors(Graph graph) {
+        List<Set<Integer>> neighbors = new ArrayList<>();
+
+        for (int node = 0; node < graph.getNodes().size(); node++) {
+            neighbors.add(new HashSet<>());
+        }
+
+        for (Arc arc : graph.getArcs()) {
+            int begin = graph.indexOf(arc.getBegin());
+            int end = graph.indexOf(arc.getEnd());
+
+            if (begin != end) {
+                neighbors.get(begin).add(end);
+                neighbors.get(end).add(begin);
+            }
+        }
+
+        return neighbors;
+    }
+
+    /*
+     *      Utility
+     */
+
+    private static void addNodes(Graph graph, int nodesCount) {
+        for (int node = 0; node < nodesCount; node++) {
+            graph.getNodes().add(new Node(String.valueOf(node)));
+        }
+    }
+
+    private static void editOnce(Random random, Graph graph, int maxWeight) {
+        List<Node> nodes = graph.getNodes();
+        List<Arc> arcs = graph.getArcs();
+
+        switch (random.nextInt(nodes.isEmpty() ? 1 : 5)) {
+            case 0:
+                nodes.add(new Node());
+                break;
+            case 1:
+                removeNode(graph, nodes.get(random.nextInt(nodes.size())));
+                break;
+            case 2:
+            case 3:
+                Node first = nodes.get(random.nextInt(nodes.size()));
+                Node second = nodes.get(random.nextInt(nodes.size()));
+
+                arcs.add(randomArc(random, first, second, maxWeight));
+                break;
+            default:
+                if (arcs.isEmpty()) {
+                    break;
+                }
+
+                int index = random.nextInt(arcs.size());
+
+                if (random.nextBoolean()) {
+                    arcs.remove(index);
+                } else {
+                    graph.setArcWeight(arcs.get(index), 1 + random.nextInt(maxWeight));
+                }
+        }
+    }
+
+    private static void removeNode(Graph graph, Node node) {
+        graph.batch(() -> {
+            graph.getNodes().remove(node);
+            graph.getArcs().removeIf(arc -> arc.getBegin().equals(node) || arc.getEnd().equals(node));
+        });
+    }
+
+    private static void setLeast(int[][] weights, int begin, int end, int weight) {
+        if (weights[begin][end] == 0 || weight < weights[begin][end]) {
+            weights[begin][end] = weight;
+        }
+    }
+}
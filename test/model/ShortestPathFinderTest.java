@@ -0,0 +1,133 @@
+package model;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+
+
+public class ShortestPathFinderTest {
+    private static final int GRAPHS_COUNT = 60;
+    private static final int QUERIES_COUNT = 100;
+    private static final int MAX_WEIGHT = 9;
+
+
+    @Test
+    public void distancesFromMatchFloydWarshall() {
+        Random random = new Random(9);
+
+        for (int sample = 0; sample < GRAPHS_COUNT; sample++) {
+            Graph graph = randomGraph(random, sample);
+            long[][] expected = FloydWarshall.distances(graph);
+            ShortestPathFinder shortestPathFinder = new ShortestPathFinder(graph.getCompactGraph());
+            int[] distanceTo = new int[expected.length];
+
+            for (int begin = 0; begin < expected.length; begin++) {
+                shortestPathFinder.distancesFrom(begin, distanceTo);
+
+                for (int end = 0; end < expected.length; end++) {
+                    assertEquals(FloydWarshall.asDistance(expected[begin][end]), distanceTo[end]);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void reachableFromListsTheReachedNodes() {
+        Random random = new Random(10);
+
+        for (int sample = 0; sample < GRAPHS_COUNT; sample++) {
+            Graph graph = randomGraph(random, sample);
+            long[][] expected = FloydWarshall.distances(graph);
+            ShortestPathFinder shortestPathFinder = new ShortestPathFinder(graph.getCompactGraph());
+            int[] distanceTo = new int[expected.length];
+            int[] reached = new int[expected.length];
+
+            for (int begin = 0; begin < expected.length; begin++) {
+                Arrays.fill(distanceTo, DistanceMatrix.INFINITY);
+
+                int reachedCount = shortestPathFinder.reachableFrom(begin, distanceTo, reached);
+                Set<Integer> expectedReached = new HashSet<>();
+                Set<Integer> actualReached = new HashSet<>();
+
+                for (int end = 0; end < expected.length; end++) {
+                    assertEquals(FloydWarshall.asDistance(expected[begin][end]), distanceTo[end]);
+
+                    if (expected[begin][end] != Long.MAX_VALUE) {
+                        expectedReached.add(end);
+                    }
+                }
+
+                for (int index = 0; index < reachedCount; index++) {
+                    actualReached.add(reached[index]);
+                }
+
+                assertEquals(expectedReached.size(), reachedCount);
+                assertEquals(expectedReached, actualReached);
+            }
+        }
+    }
+
+    // Queries follow each other on the same finder, so each one relies on the previous ones having cleaned up
+    @Test
+    public void pointQueriesMatchFloydWarshall() {
+        Random random = new Random(11);
+
+        for (int sample = 0; sample < GRAPHS_COUNT; sample++) {
+            Graph graph = randomGraph(random, sample);
+            long[][] expected = FloydWarshall.distances(graph);
+            ShortestPathFinder shortestPathFinder = new ShortestPathFinder(graph.getCompactGraph());
+
+            for (int query = 0; query < QUERIES_COUNT && expected.length > 0; query++) {
+                int begin = random.nextInt(expected.length);
+                int end = random.nextInt(expected.length);
+
+                assertEquals(FloydWarshall.asDistance(expected[begin][end]), shortestPathFinder.distance(begin, end));
+            }
+        }
+    }
+
+    @Test
+    public void aStarMatchesFloydWarshall() {
+        Random random = new Random(12);
+
+        for (int sample = 0; sample < GRAPHS_COUNT; sample++) {
+            Graph graph = randomGraph(random, sample);
+            long[][] expected = FloydWarshall.distances(graph);
+            ShortestPathFinder shortestPathFinder = new ShortestPathFinder(graph.getCompactGraph());
+            double[] xs = new double[expected.length];
+            double[] ys = new double[expected.length];
+
+            for (int node = 0; node < expected.length; node++) {
+                xs[node] = random.nextDouble() * 100;
+                ys[node] = random.nextDouble() * 100;
+            }
+
+            double scale = shortestPathFinder.heuristicScale(xs, ys);
+
+            for (int query = 0; query < QUERIES_COUNT && expected.length > 0; query++) {
+                int begin = random.nextInt(expected.length);
+                int end = random.nextInt(expected.length);
+                int distance = FloydWarshall.asDistance(expected[begin][end]);
+
+                assertEquals(distance, shortestPathFinder.distance(begin, end, xs, ys));
+                assertEquals(distance, shortestPathFinder.distance(begin, end, xs, ys, scale));
+            }
+        }
+    }
+
+    /*
+     *      Utility
+     */
+
+    // Every other graph is unweighted, so both the breadth-first and Dijkstra searches are taken
+    private static Graph randomGraph(Random random, int sample) {
+        int maxWeight = sample % 2 == 0 ? 1 : MAX_WEIGHT;
+
+        return RandomGraphs.mixed(random, random.nextInt(40), random.nextDouble() / 5, maxWeight);
+    }
+}